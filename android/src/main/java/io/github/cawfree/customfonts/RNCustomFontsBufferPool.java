@@ -0,0 +1,75 @@
+package io.github.cawfree.customfonts;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** A pool of large heap ByteBuffers which are reused between downloads, so that transfers don't allocate. The buffers are array-backed, so that streams can read straight into them and digests can consume them without an intermediate copy. */
+final class RNCustomFontsBufferPool {
+
+  /* Static Declarations. */
+  public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  /* Member Variables. */
+  private final int               mBufferSize;
+  private final int               mMaxPooledBuffers;
+  private final Queue<ByteBuffer> mBuffers;
+  private final AtomicInteger     mNumberOfPooledBuffers;
+
+  /** Constructor. At most pMaxPooledBuffers are retained once released; callers beyond that are served by buffers which are simply dropped. */
+  RNCustomFontsBufferPool(final int pBufferSize, final int pMaxPooledBuffers) {
+    // Initialize Member Variables.
+    this.mBufferSize            = pBufferSize;
+    this.mMaxPooledBuffers      = pMaxPooledBuffers;
+    this.mBuffers               = new ConcurrentLinkedQueue<ByteBuffer>();
+    this.mNumberOfPooledBuffers = new AtomicInteger(0);
+  }
+
+  /** Fetches a cleared buffer from the pool, allocating one if the pool is empty. */
+  final ByteBuffer acquire() {
+    // Attempt to reuse a pooled buffer.
+    final ByteBuffer lByteBuffer = this.getBuffers().poll();
+    // Was there a buffer available?
+    if (lByteBuffer != null) {
+      // Track the size of the pool.
+      this.getNumberOfPooledBuffers().decrementAndGet();
+      // Return the buffer.
+      return lByteBuffer;
+    }
+    // Allocate a new buffer.
+    return ByteBuffer.allocate(this.getBufferSize());
+  }
+
+  /** Returns a buffer to the pool. The caller must not use the buffer afterwards. */
+  final void release(final ByteBuffer pByteBuffer) {
+    // Reset the buffer for the next caller.
+    pByteBuffer.clear();
+    // Is there room in the pool?
+    if (this.getNumberOfPooledBuffers().incrementAndGet() <= this.getMaxPooledBuffers()) {
+      // Retain the buffer.
+      this.getBuffers().offer(pByteBuffer);
+    } else {
+      // Drop the buffer; it will be reclaimed by the garbage collector.
+      this.getNumberOfPooledBuffers().decrementAndGet();
+    }
+  }
+
+  /* Getters. */
+  private final int getBufferSize() {
+    return this.mBufferSize;
+  }
+
+  private final int getMaxPooledBuffers() {
+    return this.mMaxPooledBuffers;
+  }
+
+  private final Queue<ByteBuffer> getBuffers() {
+    return this.mBuffers;
+  }
+
+  private final AtomicInteger getNumberOfPooledBuffers() {
+    return this.mNumberOfPooledBuffers;
+  }
+
+}
@@ -0,0 +1,464 @@
+package io.github.cawfree.customfonts;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import android.util.Log;
+
+/** A persistent record of the font files which have been fetched to disk, so that they may be trusted across process restarts. */
+final class RNCustomFontsCacheManifest {
+
+  /* Static Declarations. */
+  private static final String FILE_NAME     = "manifest.json";
+  private static final int    VERSION       = 2;
+  private static final long   SAVE_DELAY_MS = 2000L;
+
+  /** Describes a font file which has been fetched to disk, along with the validators the server supplied for it. */
+  static final class Entry {
+    /* Member Variables. */
+    private final    String mUri;
+    private final    long   mSize;
+    private final    long   mFetchedAt;
+    private final    String mETag;
+    private final    String mLastModified;
+    private final    long   mExpiresAt;
+    private final    String mContentHash;
+    private volatile long   mAccessedAt;
+    /** Constructor. The ETag and Last-Modified validators may be null, and an unknown expiry is represented by a negative value. The content hash is null until the file has been completely fetched. */
+    Entry(final String pUri, final long pSize, final long pFetchedAt, final String pETag, final String pLastModified, final long pExpiresAt, final String pContentHash) {
+      // Initialize Member Variables.
+      this.mUri          = pUri;
+      this.mSize         = pSize;
+      this.mFetchedAt    = pFetchedAt;
+      this.mETag         = pETag;
+      this.mLastModified = pLastModified;
+      this.mExpiresAt    = pExpiresAt;
+      this.mContentHash  = pContentHash;
+      this.mAccessedAt   = pFetchedAt;
+    }
+    /** Defines whether the server supplied any means of revalidating the file with a conditional request. */
+    final boolean hasValidators() {
+      return this.getETag() != null || this.getLastModified() != null;
+    }
+    /** Serializes the Entry. */
+    private final JSONObject toJSONObject() throws Exception {
+      // Serialize the required fields.
+      final JSONObject lJSONObject = new JSONObject()
+        .put("uri", this.getUri())
+        .put("size", this.getSize())
+        .put("fetchedAt", this.getFetchedAt())
+        .put("expiresAt", this.getExpiresAt())
+        .put("accessedAt", this.getAccessedAt());
+      // Serialize the optional validators.
+      if (this.getETag() != null) {
+        lJSONObject.put("etag", this.getETag());
+      }
+      if (this.getLastModified() != null) {
+        lJSONObject.put("lastModified", this.getLastModified());
+      }
+      // Serialize the content hash.
+      if (this.getContentHash() != null) {
+        lJSONObject.put("contentHash", this.getContentHash());
+      }
+      // Return the serialized Entry.
+      return lJSONObject;
+    }
+    /** Deserializes an Entry. */
+    private static final Entry fromJSONObject(final JSONObject pJSONObject) throws Exception {
+      // Allocate the Entry.
+      final Entry lEntry = new Entry(
+        pJSONObject.getString("uri"),
+        pJSONObject.getLong("size"),
+        pJSONObject.getLong("fetchedAt"),
+        pJSONObject.has("etag") ? pJSONObject.getString("etag") : null,
+        pJSONObject.has("lastModified") ? pJSONObject.getString("lastModified") : null,
+        pJSONObject.optLong("expiresAt", -1L),
+        pJSONObject.has("contentHash") ? pJSONObject.getString("contentHash") : null
+      );
+      // Restore the last time the Entry was used.
+      lEntry.mAccessedAt = pJSONObject.optLong("accessedAt", lEntry.getFetchedAt());
+      // Return the Entry.
+      return lEntry;
+    }
+    /* Getters. */
+    final String getUri() {
+      return this.mUri;
+    }
+    final long getSize() {
+      return this.mSize;
+    }
+    final long getFetchedAt() {
+      return this.mFetchedAt;
+    }
+    final String getETag() {
+      return this.mETag;
+    }
+    final String getLastModified() {
+      return this.mLastModified;
+    }
+    final long getExpiresAt() {
+      return this.mExpiresAt;
+    }
+    final String getContentHash() {
+      return this.mContentHash;
+    }
+    final long getAccessedAt() {
+      return this.mAccessedAt;
+    }
+  }
+
+  /** Defines whether the named file is a download which has yet to be moved into place. */
+  private static final boolean isPartial(final String pName) {
+    return pName.endsWith(".download");
+  }
+
+  /** Reads the entire contents of a File as a String. */
+  private static final String readFully(final File pFile) throws IOException {
+    // Allocate the I/O Streams.
+    final InputStream           lInputStream           = new FileInputStream(pFile);
+    final ByteArrayOutputStream lByteArrayOutputStream = new ByteArrayOutputStream();
+    try {
+      // Declare the read buffer.
+      final byte[] bytes         = new byte[4096];
+            int    numberOfBytes = 0;
+      // Iteratively read the stream.
+      while ((numberOfBytes = lInputStream.read(bytes)) != -1) {
+        lByteArrayOutputStream.write(bytes, 0, numberOfBytes);
+      }
+      // Return the contents.
+      return lByteArrayOutputStream.toString("UTF-8");
+    } finally {
+      // Release the InputStream.
+      lInputStream.close();
+    }
+  }
+
+  /** Loads the manifest which rests within the specified directory. If it cannot be read, an empty manifest is returned. */
+  static final RNCustomFontsCacheManifest load(final File pDirectory) {
+    // Declare the manifest file.
+    final File              lFile    = new File(pDirectory, RNCustomFontsCacheManifest.FILE_NAME);
+    // Allocate a buffer for the Entries.
+    final Map<String, Entry> lEntries = new HashMap<String, Entry>();
+    // Has a manifest been written before?
+    if (lFile.exists()) {
+      try {
+        // Parse the manifest.
+        final JSONObject lManifest = new JSONObject(RNCustomFontsCacheManifest.readFully(lFile));
+        // Is the manifest compatible with this version of the module?
+        if (lManifest.optInt("version", -1) == RNCustomFontsCacheManifest.VERSION) {
+          // Fetch the Entries.
+          final JSONObject       lJSONEntries = lManifest.getJSONObject("entries");
+          final Iterator<String> lIterator    = lJSONEntries.keys();
+          // Iterate the Entries.
+          while (lIterator.hasNext()) {
+            // Fetch the name of the File.
+            final String lName = lIterator.next();
+            // Buffer the Entry.
+            lEntries.put(lName, Entry.fromJSONObject(lJSONEntries.getJSONObject(lName)));
+          }
+        }
+      } catch (final Exception pException) {
+        // The manifest is corrupt; we'll just have to fetch the fonts again.
+        Log.w(RNCustomFontsModule.TAG, "Failed to read the cache manifest; cached fonts will be fetched again.", pException);
+        // Discard any partially-read state.
+        lEntries.clear();
+      }
+    }
+    // Allocate the manifest.
+    return new RNCustomFontsCacheManifest(lFile, lEntries);
+  }
+
+  /** Returns the number of bytes a tracked file contributes towards the size of the cache. Partial downloads are still being written to, so they're not ours to evict. */
+  private static final long getBytesOf(final String pName, final Entry pEntry) {
+    return (pEntry == null || RNCustomFontsCacheManifest.isPartial(pName)) ? 0L : pEntry.getSize();
+  }
+
+  /* Member Variables. */
+  private final File                        mFile;
+  private final Map<String, Entry>          mEntries;
+  private final ScheduledThreadPoolExecutor mScheduledThreadPoolExecutor;
+  private final Object                      mSaveLock;
+  private       long                        mTotalBytes;
+  private       boolean                     mIsDirty;
+  private       boolean                     mIsSaveScheduled;
+
+  /** Constructor. */
+  private RNCustomFontsCacheManifest(final File pFile, final Map<String, Entry> pEntries) {
+    // Initialize Member Variables.
+    this.mFile                        = pFile;
+    this.mEntries                     = pEntries;
+    this.mScheduledThreadPoolExecutor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() { @Override public final Thread newThread(final Runnable pRunnable) {
+      // Allocate a low-priority daemon; the manifest is only ever written in the background.
+      final Thread lThread = new Thread(pRunnable, RNCustomFontsModule.TAG + "-Manifest");
+      lThread.setDaemon(true);
+      lThread.setPriority(Thread.MIN_PRIORITY);
+      return lThread;
+    } });
+    this.mSaveLock                    = new Object();
+    this.mTotalBytes                  = 0L;
+    this.mIsDirty                     = false;
+    this.mIsSaveScheduled             = false;
+    // Allow the thread to be reclaimed between bursts of changes.
+    this.mScheduledThreadPoolExecutor.setKeepAliveTime(RNCustomFontsCacheManifest.SAVE_DELAY_MS, TimeUnit.MILLISECONDS);
+    this.mScheduledThreadPoolExecutor.allowCoreThreadTimeOut(true);
+    // Determine how much space the tracked files occupy.
+    for (final Map.Entry<String, Entry> lEntry : pEntries.entrySet()) {
+      this.mTotalBytes += RNCustomFontsCacheManifest.getBytesOf(lEntry.getKey(), lEntry.getValue());
+    }
+  }
+
+  /** Returns the Entry for the specified font file, or null if it hasn't been fetched. */
+  final Entry get(final File pFile) {
+    // Synchronize upon ourself.
+    synchronized(this) {
+      return this.getEntries().get(pFile.getName());
+    }
+  }
+
+  /** Defines whether the specified font file has been completely fetched from the specified Uri, so that it can be used without a download. */
+  final boolean isCached(final File pFile, final String pUri) {
+    // Fetch the Entry.
+    final Entry lEntry = this.get(pFile);
+    // A File is only cached if it was fetched from the same Uri, and it has not been modified since.
+    return lEntry != null && lEntry.getUri().equals(pUri) && pFile.exists() && pFile.length() == lEntry.getSize();
+  }
+
+  /** Records that the specified font file has been fetched, or revalidated, as described by the Entry. The change is persisted shortly afterwards, alongside any others which follow it. */
+  final void put(final File pFile, final Entry pEntry) {
+    // Fetch the name of the File.
+    final String lName = pFile.getName();
+    // Synchronize upon ourself.
+    synchronized(this) {
+      // Buffer the Entry.
+      final Entry lEntry = this.getEntries().put(lName, pEntry);
+      // Track the size of the cache.
+      this.mTotalBytes += RNCustomFontsCacheManifest.getBytesOf(lName, pEntry) - RNCustomFontsCacheManifest.getBytesOf(lName, lEntry);
+      // Persist the change.
+      this.onChanged();
+    }
+  }
+
+  /** Forgets the specified font file, so that it will not be trusted in future. */
+  final void remove(final File pFile) {
+    // Fetch the name of the File.
+    final String lName = pFile.getName();
+    // Synchronize upon ourself.
+    synchronized(this) {
+      // Forget the Entry.
+      final Entry lEntry = this.getEntries().remove(lName);
+      // Was the File being tracked?
+      if (lEntry != null) {
+        // Track the size of the cache.
+        this.mTotalBytes -= RNCustomFontsCacheManifest.getBytesOf(lName, lEntry);
+        // Persist the change.
+        this.onChanged();
+      }
+    }
+  }
+
+  /** Returns the number of bytes occupied by the font files which the manifest tracks. This is maintained as the manifest changes, so callers can cheaply decide whether trimToSize is worthwhile. */
+  final long getTotalBytes() {
+    // Synchronize upon ourself.
+    synchronized(this) {
+      return this.mTotalBytes;
+    }
+  }
+
+  /** Writes any changes which have yet to be persisted straight away. This is used when the module is torn down, since a scheduled save may never get to run. */
+  final void flush() {
+    // Serialize writes; otherwise an older snapshot could land on top of a newer one.
+    synchronized(this.getSaveLock()) {
+      // Declare the snapshot to persist.
+      final byte[] lBytes;
+      // Synchronize upon ourself.
+      synchronized(this) {
+        // Is there anything to persist?
+        if (!this.mIsDirty) {
+          return;
+        }
+        // Take a snapshot; the file is written without holding up callers of the manifest.
+        lBytes = this.serialize();
+        // The snapshot captures every change made so far.
+        this.mIsDirty = false;
+      }
+      // Was the manifest serialized?
+      if (lBytes != null) {
+        // Write the manifest.
+        this.save(lBytes);
+      }
+    }
+  }
+
+  /** Marks the manifest as requiring a save, and schedules one if there isn't one pending. Changes tend to arrive in bursts, so a single write covers all of them. (Must be called whilst synchronized.) */
+  private final void onChanged() {
+    // Assert that the manifest needs to be written.
+    this.mIsDirty = true;
+    // Is a save already on its way?
+    if (this.mIsSaveScheduled) {
+      return;
+    }
+    // Assert that a save is on its way.
+    this.mIsSaveScheduled = true;
+    // Wait for the burst of changes to settle before writing.
+    this.getScheduledThreadPoolExecutor().schedule(new Runnable() { @Override public final void run() {
+      // Synchronize upon the manifest.
+      synchronized(RNCustomFontsCacheManifest.this) {
+        // Allow the next change to schedule another save.
+        RNCustomFontsCacheManifest.this.mIsSaveScheduled = false;
+      }
+      // Persist the changes.
+      RNCustomFontsCacheManifest.this.flush();
+    } }, RNCustomFontsCacheManifest.SAVE_DELAY_MS, TimeUnit.MILLISECONDS);
+  }
+
+  /** Records that the specified font file has just been used. This is only persisted alongside the next change to the manifest. */
+  final void touch(final File pFile) {
+    // Fetch the Entry.
+    final Entry lEntry = this.get(pFile);
+    // Is the File being tracked?
+    if (lEntry != null) {
+      // Update the access time.
+      lEntry.mAccessedAt = System.currentTimeMillis();
+    }
+  }
+
+  /** Deletes the least recently used font files until the files tracked by the manifest occupy no more than the specified number of bytes. Pinned files are never deleted, and files which the manifest does not know about are always deleted. */
+  final void trimToSize(final long pMaxBytes, final Set<File> pPinned) {
+    // Synchronize upon ourself.
+    synchronized(this) {
+      // Fetch the files within the cache directory.
+      final File[] lFiles = this.getFile().getParentFile().listFiles();
+      // Track whether we've modified the manifest.
+      boolean lIsModified = false;
+      // Was the directory readable?
+      if (lFiles != null) {
+        // Iterate the files.
+        for (final File lFile : lFiles) {
+          // Fetch the name of the File.
+          final String lName = lFile.getName();
+          // Is this an orphaned font file? (We don't touch our own bookkeeping, or downloads in progress.)
+          if (!lName.startsWith(RNCustomFontsCacheManifest.FILE_NAME) && !RNCustomFontsCacheManifest.isPartial(lName) && !this.getEntries().containsKey(lName) && !pPinned.contains(lFile)) {
+            // Delete the File.
+            lFile.delete();
+          }
+        }
+      }
+      // Are we within the budget?
+      if (this.mTotalBytes <= pMaxBytes) {
+        return;
+      }
+      // Sort the Entries so that the least recently used come first.
+      final List<Map.Entry<String, Entry>> lEntries = new ArrayList<Map.Entry<String, Entry>>(this.getEntries().entrySet());
+      Collections.sort(lEntries, new Comparator<Map.Entry<String, Entry>>() { @Override public final int compare(final Map.Entry<String, Entry> pA, final Map.Entry<String, Entry> pB) {
+        return Long.compare(pA.getValue().getAccessedAt(), pB.getValue().getAccessedAt());
+      } });
+      // Iterate the Entries.
+      for (final Map.Entry<String, Entry> lEntry : lEntries) {
+        // Have we made enough space?
+        if (this.mTotalBytes <= pMaxBytes) {
+          break;
+        }
+        // Fetch the corresponding File.
+        final File lFile = new File(this.getFile().getParentFile(), lEntry.getKey());
+        // Is the File still in use?
+        if (!pPinned.contains(lFile) && !RNCustomFontsCacheManifest.isPartial(lEntry.getKey())) {
+          // Delete the File.
+          lFile.delete();
+          // Forget the Entry.
+          this.getEntries().remove(lEntry.getKey());
+          this.mTotalBytes -= lEntry.getValue().getSize();
+          lIsModified       = true;
+        }
+      }
+      // Did we evict anything?
+      if (lIsModified) {
+        // Persist the change.
+        this.onChanged();
+      }
+    }
+  }
+
+  /** Serializes the manifest, or returns null if it could not be serialized. (Must be called whilst synchronized.) */
+  private final byte[] serialize() {
+    try {
+      // Allocate the serialized Entries.
+      final JSONObject lJSONEntries = new JSONObject();
+      // Iterate the Entries.
+      for (final Map.Entry<String, Entry> lEntry : this.getEntries().entrySet()) {
+        // Serialize the Entry.
+        lJSONEntries.put(lEntry.getKey(), lEntry.getValue().toJSONObject());
+      }
+      // Serialize the manifest.
+      return new JSONObject()
+        .put("version", RNCustomFontsCacheManifest.VERSION)
+        .put("entries", lJSONEntries)
+        .toString()
+        .getBytes("UTF-8");
+    } catch (final Exception pException) {
+      // Failing to persist the manifest only means that fonts will be fetched again on the next launch.
+      Log.w(RNCustomFontsModule.TAG, "Failed to serialize the cache manifest.", pException);
+      return null;
+    }
+  }
+
+  /** Writes a serialized manifest to disk. The manifest is written to a temporary file first, so that an interruption cannot corrupt it. (Must be called whilst holding the save lock.) */
+  private final void save(final byte[] pBytes) {
+    // Declare the temporary file.
+    final File   lTempFile     = new File(this.getFile().getPath() + ".tmp");
+    OutputStream lOutputStream = null;
+    try {
+      // Ensure the directory exists.
+      this.getFile().getParentFile().mkdirs();
+      // Write the manifest.
+      lOutputStream = new FileOutputStream(lTempFile);
+      lOutputStream.write(pBytes);
+      lOutputStream.close();
+      lOutputStream = null;
+      // Move the manifest into place.
+      if (!lTempFile.renameTo(this.getFile())) {
+        throw new IOException("Failed to move " + lTempFile + " to " + this.getFile() + ".");
+      }
+    } catch (final Exception pException) {
+      // Prevent memory leaks, if possible.
+      if (lOutputStream != null) { try { lOutputStream.close(); } catch (final Exception pIgnoredException) { /* Ignore. */ } }
+      // Failing to persist the manifest only means that fonts will be fetched again on the next launch.
+      Log.w(RNCustomFontsModule.TAG, "Failed to write the cache manifest.", pException);
+    }
+  }
+
+  /* Getters. */
+  private final File getFile() {
+    return this.mFile;
+  }
+
+  private final Map<String, Entry> getEntries() {
+    return this.mEntries;
+  }
+
+  private final ScheduledThreadPoolExecutor getScheduledThreadPoolExecutor() {
+    return this.mScheduledThreadPoolExecutor;
+  }
+
+  private final Object getSaveLock() {
+    return this.mSaveLock;
+  }
+
+}
@@ -0,0 +1,117 @@
+package io.github.cawfree.customfonts;
+
+import com.facebook.react.bridge.ReadableMap;
+
+/** Decides whether a cached font file may be used as-is, used whilst it is revalidated in the background, or must be revalidated before use, and how large the caches may grow. */
+final class RNCustomFontsCachePolicy {
+
+  /* Static Declarations. */
+  public static final long DEFAULT_MAX_AGE        = 7L * 24L * 60L * 60L * 1000L;
+  public static final long DEFAULT_MAX_STALE      = Long.MAX_VALUE;
+  public static final long DEFAULT_MAX_DISK_BYTES = 50L * 1024L * 1024L;
+
+  /** Returns the default policy; files are considered fresh for a week unless the server says otherwise, and stale files are always usable whilst they're revalidated. */
+  static final RNCustomFontsCachePolicy getDefault() {
+    return new RNCustomFontsCachePolicy(
+      RNCustomFontsCachePolicy.DEFAULT_MAX_AGE,
+      RNCustomFontsCachePolicy.DEFAULT_MAX_STALE,
+      RNCustomFontsTypefaceCache.getDefaultMaxBytes(),
+      RNCustomFontsCachePolicy.DEFAULT_MAX_DISK_BYTES
+    );
+  }
+
+  /** Reads a policy from the options supplied to onFontFacesChanged. Any values that are not specified fall back to their defaults. */
+  static final RNCustomFontsCachePolicy fromReadableMap(final ReadableMap pReadableMap) {
+    // Were no options specified?
+    if (pReadableMap == null) {
+      return RNCustomFontsCachePolicy.getDefault();
+    }
+    // Allocate the policy.
+    return new RNCustomFontsCachePolicy(
+      RNCustomFontsCachePolicy.getLong(pReadableMap, "maxAge", RNCustomFontsCachePolicy.DEFAULT_MAX_AGE),
+      RNCustomFontsCachePolicy.getLong(pReadableMap, "maxStale", RNCustomFontsCachePolicy.DEFAULT_MAX_STALE),
+      RNCustomFontsCachePolicy.getLong(pReadableMap, "maxMemoryBytes", RNCustomFontsTypefaceCache.getDefaultMaxBytes()),
+      RNCustomFontsCachePolicy.getLong(pReadableMap, "maxDiskBytes", RNCustomFontsCachePolicy.DEFAULT_MAX_DISK_BYTES)
+    );
+  }
+
+  /** Fetches a non-negative quantity from a ReadableMap, such as a duration in milliseconds or a size in bytes. */
+  static final long getLong(final ReadableMap pReadableMap, final String pKey, final long pDefault) {
+    // Was the value not specified?
+    if (!pReadableMap.hasKey(pKey) || pReadableMap.isNull(pKey)) {
+      return pDefault;
+    }
+    // Fetch the value. (Numbers are passed across the bridge as doubles.)
+    final double lValue = pReadableMap.getDouble(pKey);
+    // Treat infinite quantities as unbounded.
+    if (Double.isInfinite(lValue) || lValue >= Long.MAX_VALUE) {
+      return Long.MAX_VALUE;
+    }
+    // Quantities cannot be negative.
+    return Math.max(0L, (long)lValue);
+  }
+
+  /** Adds two durations without overflowing. */
+  private static final long addSaturated(final long pA, final long pB) {
+    // Would the addition overflow?
+    if (pB > 0 && pA > Long.MAX_VALUE - pB) {
+      return Long.MAX_VALUE;
+    }
+    return pA + pB;
+  }
+
+  /* Member Variables. */
+  private final long mMaxAge;
+  private final long mMaxStale;
+  private final long mMaxMemoryBytes;
+  private final long mMaxDiskBytes;
+
+  /** Constructor. */
+  RNCustomFontsCachePolicy(final long pMaxAge, final long pMaxStale, final long pMaxMemoryBytes, final long pMaxDiskBytes) {
+    // Initialize Member Variables.
+    this.mMaxAge         = pMaxAge;
+    this.mMaxStale       = pMaxStale;
+    this.mMaxMemoryBytes = pMaxMemoryBytes;
+    this.mMaxDiskBytes   = pMaxDiskBytes;
+  }
+
+  /** Returns the time at which the Entry expires; servers which supply an explicit lifetime take precedence over our default maxAge. */
+  private final long getExpiresAt(final RNCustomFontsCacheManifest.Entry pEntry) {
+    // Did the server specify a lifetime?
+    if (pEntry.getExpiresAt() >= 0) {
+      return pEntry.getExpiresAt();
+    }
+    // Otherwise, fall back to the configured maxAge.
+    return RNCustomFontsCachePolicy.addSaturated(pEntry.getFetchedAt(), this.getMaxAge());
+  }
+
+  /** Defines whether the cached file can be used without contacting the server at all. */
+  final boolean isFresh(final RNCustomFontsCacheManifest.Entry pEntry, final long pNow) {
+    return pNow < this.getExpiresAt(pEntry);
+  }
+
+  /** Defines whether a stale cached file can be used immediately, whilst it is revalidated in the background. */
+  final boolean isUsableWhileStale(final RNCustomFontsCacheManifest.Entry pEntry, final long pNow) {
+    return pNow < RNCustomFontsCachePolicy.addSaturated(this.getExpiresAt(pEntry), this.getMaxStale());
+  }
+
+  /* Getters. */
+  private final long getMaxAge() {
+    return this.mMaxAge;
+  }
+
+  private final long getMaxStale() {
+    return this.mMaxStale;
+  }
+
+  /** Returns the estimated number of bytes that decoded Typefaces may occupy. */
+  final long getMaxMemoryBytes() {
+    return this.mMaxMemoryBytes;
+  }
+
+  /** Returns the number of bytes that cached font files may occupy on disk. */
+  final long getMaxDiskBytes() {
+    return this.mMaxDiskBytes;
+  }
+
+}
@@ -0,0 +1,104 @@
+package io.github.cawfree.customfonts;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.lang.Runnable;
+
+/** A dedicated executor which turns font files into Typefaces, so that decoding never occupies the main thread, the native modules thread or a download slot. */
+final class RNCustomFontsDecodeEngine {
+
+  /* Static Declarations. */
+  private static final long KEEP_ALIVE_MS = 30000L;
+
+  /** Returns the default number of decode threads; decoding is CPU bound, so we leave a core free for the rest of the application. */
+  static final int getDefaultMaxConcurrentDecodes() {
+    return Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1));
+  }
+
+  /* Member Variables. */
+  private final ThreadPoolExecutor mThreadPoolExecutor;
+  private final Set<File>          mQueuedDecodes;
+
+  /** Constructor. */
+  RNCustomFontsDecodeEngine(final int pMaxConcurrentDecodes) {
+    // Declare a counter to name our threads; this makes them identifiable in traces.
+    final AtomicInteger lThreadCount = new AtomicInteger(0);
+    // Initialize Member Variables.
+    this.mThreadPoolExecutor = new ThreadPoolExecutor(
+      pMaxConcurrentDecodes,
+      pMaxConcurrentDecodes,
+      RNCustomFontsDecodeEngine.KEEP_ALIVE_MS,
+      TimeUnit.MILLISECONDS,
+      // XXX: Requests for the same File are merged before they get here, so this is bounded by the number of FontFaces.
+      new LinkedBlockingQueue<Runnable>(),
+      new ThreadFactory() { @Override public final Thread newThread(final Runnable pRunnable) {
+        // Allocate a daemon. (Text is waiting on the result, so we sit just beneath normal priority rather than at the bottom like downloads.)
+        final Thread lThread = new Thread(pRunnable, RNCustomFontsModule.TAG + "-Decode-" + lThreadCount.incrementAndGet());
+        lThread.setDaemon(true);
+        lThread.setPriority(Thread.NORM_PRIORITY - 1);
+        return lThread;
+      } }
+    );
+    this.mQueuedDecodes      = new HashSet<File>();
+    // Allow idle threads to be reclaimed once all of the fonts have been decoded.
+    this.mThreadPoolExecutor.allowCoreThreadTimeOut(true);
+  }
+
+  /** Schedules a decode of the specified File. If a decode of the same File is already waiting to start, it will observe the latest contents of the File, so the request is merged into it. Throws a RejectedExecutionException if the engine has been shut down. */
+  final void execute(final File pFile, final Runnable pRunnable) throws RejectedExecutionException {
+    // Synchronize upon ourself.
+    synchronized(this) {
+      // Is a decode of this File already waiting?
+      if (!this.getQueuedDecodes().add(pFile)) {
+        return;
+      }
+    }
+    try {
+      // Execute the decode along the executor.
+      this.getThreadPoolExecutor().execute(new Runnable() { @Override public final void run() {
+        // Synchronize upon the engine.
+        synchronized(RNCustomFontsDecodeEngine.this) {
+          // The decode has started; any further requests must run again, since the File may change underneath us.
+          RNCustomFontsDecodeEngine.this.getQueuedDecodes().remove(pFile);
+        }
+        // Perform the decode.
+        pRunnable.run();
+      } });
+    } catch (final RejectedExecutionException pRejectedExecutionException) {
+      // Synchronize upon ourself.
+      synchronized(this) {
+        // Forget the decode.
+        this.getQueuedDecodes().remove(pFile);
+      }
+      // Propagate the rejection back to the caller.
+      throw pRejectedExecutionException;
+    }
+  }
+
+  /** Schedules work which must not be merged with any other, such as the composition of several decoded Typefaces. Throws a RejectedExecutionException if the engine has been shut down. */
+  final void execute(final Runnable pRunnable) throws RejectedExecutionException {
+    this.getThreadPoolExecutor().execute(pRunnable);
+  }
+
+  /** Abandons any decodes that have not yet started and prevents further decodes from being scheduled. */
+  final void shutdown() {
+    this.getThreadPoolExecutor().shutdownNow();
+  }
+
+  /* Getters. */
+  private final ThreadPoolExecutor getThreadPoolExecutor() {
+    return this.mThreadPoolExecutor;
+  }
+
+  private final Set<File> getQueuedDecodes() {
+    return this.mQueuedDecodes;
+  }
+
+}
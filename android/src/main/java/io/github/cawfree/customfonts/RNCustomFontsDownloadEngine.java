@@ -0,0 +1,276 @@
+package io.github.cawfree.customfonts;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.lang.Runnable;
+import java.net.URL;
+
+/** A dedicated executor for font downloads, which bounds global concurrency, per-host concurrency and the number of queued downloads. */
+final class RNCustomFontsDownloadEngine {
+
+  /* Static Declarations. */
+  public  static final int  DEFAULT_MAX_CONCURRENT_DOWNLOADS          = 4;
+  public  static final int  DEFAULT_MAX_CONCURRENT_DOWNLOADS_PER_HOST = 2;
+  public  static final int  DEFAULT_MAX_QUEUED_DOWNLOADS              = 256;
+  private static final long KEEP_ALIVE_MS                             = 30000L;
+
+  /** Returns the host a download will be made against, which is used to partition per-host concurrency. */
+  private static final String getHostOf(final String pUri) {
+    try {
+      // Parse the host from the Uri.
+      final String lHost = new URL(pUri).getHost();
+      // Normalize missing hosts. (i.e. for file:// uris.)
+      return (lHost == null) ? "" : lHost.toLowerCase();
+    } catch (final Exception pException) {
+      // Malformed uris all share a single partition; the download itself will report the failure.
+      return "";
+    }
+  }
+
+  /** A download which is informed if it is never going to run, so that anybody waiting upon it can be settled. */
+  interface Download extends Runnable {
+    /** Called in place of run() if the engine is shut down before the download has begun. */
+    void onRejected(final RejectedExecutionException pRejectedExecutionException);
+  }
+
+  /* Member Variables. */
+  private final ThreadPoolExecutor           mThreadPoolExecutor;
+  private final int                          mMaxConcurrentDownloads;
+  private final int                          mMaxConcurrentDownloadsPerHost;
+  private final int                          mMaxQueuedDownloads;
+  private final Map<String, Integer>         mActiveDownloads;
+  private final Map<String, Deque<Download>> mQueuedDownloads;
+  private       int                          mNumberOfActiveDownloads;
+  private       int                          mNumberOfQueuedDownloads;
+  private       boolean                      mIsShutdown;
+
+  /** Constructor. */
+  RNCustomFontsDownloadEngine(final int pMaxConcurrentDownloads, final int pMaxConcurrentDownloadsPerHost, final int pMaxQueuedDownloads) {
+    // Ensure the configuration is sane.
+    if (pMaxConcurrentDownloads <= 0 || pMaxConcurrentDownloadsPerHost <= 0 || pMaxQueuedDownloads < 0) {
+      throw new IllegalArgumentException(
+        "Expected positive download concurrency, encountered maxConcurrentDownloads " + pMaxConcurrentDownloads + ", maxConcurrentDownloadsPerHost " + pMaxConcurrentDownloadsPerHost + " and maxQueuedDownloads " + pMaxQueuedDownloads + "."
+      );
+    }
+    // Declare a counter to name our threads; this makes them identifiable in traces.
+    final AtomicInteger lThreadCount = new AtomicInteger(0);
+    // Initialize Member Variables.
+    this.mThreadPoolExecutor            = new ThreadPoolExecutor(
+      pMaxConcurrentDownloads,
+      pMaxConcurrentDownloads,
+      RNCustomFontsDownloadEngine.KEEP_ALIVE_MS,
+      TimeUnit.MILLISECONDS,
+      // Work is only handed to the executor whilst fewer than pMaxConcurrentDownloads are outstanding, so the queue can never hold more than that; everything else waits in our own per-host queues, which are bounded by pMaxQueuedDownloads.
+      new ArrayBlockingQueue<Runnable>(pMaxConcurrentDownloads),
+      new ThreadFactory() { @Override public final Thread newThread(final Runnable pRunnable) {
+        // Allocate a low-priority daemon; font downloads must never hold up the rest of the application.
+        final Thread lThread = new Thread(pRunnable, RNCustomFontsModule.TAG + "-Download-" + lThreadCount.incrementAndGet());
+        lThread.setDaemon(true);
+        lThread.setPriority(Thread.MIN_PRIORITY);
+        return lThread;
+      } }
+    );
+    this.mMaxConcurrentDownloads        = pMaxConcurrentDownloads;
+    this.mMaxConcurrentDownloadsPerHost = pMaxConcurrentDownloadsPerHost;
+    this.mMaxQueuedDownloads            = pMaxQueuedDownloads;
+    this.mActiveDownloads               = new HashMap<String, Integer>();
+    // Hosts are served in the order they began waiting; see onDownloadFinished.
+    this.mQueuedDownloads               = new LinkedHashMap<String, Deque<Download>>();
+    this.mNumberOfActiveDownloads       = 0;
+    this.mNumberOfQueuedDownloads       = 0;
+    this.mIsShutdown                    = false;
+    // Allow idle threads to be reclaimed once all of the fonts have been fetched.
+    this.mThreadPoolExecutor.allowCoreThreadTimeOut(true);
+  }
+
+  /** Schedules a download against the Uri's host. Throws a RejectedExecutionException if the engine has been shut down, or if the queue is full; once accepted, the Download is guaranteed to either run or be rejected. */
+  final void execute(final String pUri, final Download pDownload) throws RejectedExecutionException {
+    // Determine the partition for this download.
+    final String lHost = RNCustomFontsDownloadEngine.getHostOf(pUri);
+    // Synchronize upon ourself.
+    synchronized(this) {
+      // Have we been shut down?
+      if (this.isShutdown()) {
+        throw new RejectedExecutionException("Unable to download \"" + pUri + "\"; the download engine has been shut down.");
+      }
+      // Is there capacity to begin this download immediately?
+      if (this.hasCapacityFor(lHost)) {
+        // Dispatch the download.
+        this.dispatch(lHost, pDownload);
+      } else {
+        // Is the queue already full?
+        if (this.mNumberOfQueuedDownloads >= this.getMaxQueuedDownloads()) {
+          throw new RejectedExecutionException("Unable to download \"" + pUri + "\"; there are already " + this.mNumberOfQueuedDownloads + " downloads queued.");
+        }
+        // Attempt to fetch the queue for this host.
+        Deque<Download> lQueuedDownloads = this.getQueuedDownloads().get(lHost);
+        // Does the queue not yet exist?
+        if (lQueuedDownloads == null) {
+          // Allocate the queue.
+          lQueuedDownloads = new ArrayDeque<Download>();
+          // Buffer the queue for future fetches.
+          this.getQueuedDownloads().put(lHost, lQueuedDownloads);
+        }
+        // Wait for a slot to become available.
+        lQueuedDownloads.addLast(pDownload);
+        // Track the size of the queue.
+        this.mNumberOfQueuedDownloads += 1;
+      }
+    }
+  }
+
+  /** Determines whether a download against the specified host may begin immediately. (Must be called whilst synchronized.) */
+  private final boolean hasCapacityFor(final String pHost) {
+    return this.mNumberOfActiveDownloads < this.getMaxConcurrentDownloads() && this.getActiveDownloadsFor(pHost) < this.getMaxConcurrentDownloadsPerHost();
+  }
+
+  /** Hands a download to the executor, occupying a slot for the host until it completes. (Must be called whilst synchronized.) */
+  private final void dispatch(final String pHost, final Download pDownload) {
+    // Occupy a slot for the host.
+    this.getActiveDownloads().put(pHost, this.getActiveDownloadsFor(pHost) + 1);
+    this.mNumberOfActiveDownloads += 1;
+    try {
+      // Execute the download along the executor.
+      this.getThreadPoolExecutor().execute(new Download() {
+        @Override public final void run() {
+          try {
+            // Perform the download.
+            pDownload.run();
+          } finally {
+            // Release the slot, and allow the next download to begin.
+            RNCustomFontsDownloadEngine.this.onDownloadFinished(pHost);
+          }
+        }
+        @Override public final void onRejected(final RejectedExecutionException pRejectedExecutionException) {
+          // The engine was shut down before the executor got around to the download.
+          pDownload.onRejected(pRejectedExecutionException);
+        }
+      });
+    } catch (final RejectedExecutionException pRejectedExecutionException) {
+      // Release the slot we occupied.
+      this.getActiveDownloads().put(pHost, this.getActiveDownloadsFor(pHost) - 1);
+      this.mNumberOfActiveDownloads -= 1;
+      // Propagate the rejection back to the caller.
+      throw pRejectedExecutionException;
+    }
+  }
+
+  /** Called once a download for the specified host has completed, regardless of the outcome. */
+  private final void onDownloadFinished(final String pHost) {
+    // Synchronize upon ourself.
+    synchronized(this) {
+      // Release the slot for the host.
+      final int lActiveDownloads = this.getActiveDownloadsFor(pHost) - 1;
+      this.mNumberOfActiveDownloads -= 1;
+      // Are there no more downloads for this host?
+      if (lActiveDownloads <= 0) {
+        // Prevent the map from growing with every host we've ever seen.
+        this.getActiveDownloads().remove(pHost);
+      } else {
+        // Update the number of active downloads.
+        this.getActiveDownloads().put(pHost, lActiveDownloads);
+      }
+      // Have we been shut down?
+      if (this.isShutdown()) {
+        return;
+      }
+      // Iterate the hosts with downloads waiting, in the order they began waiting.
+      final Iterator<Map.Entry<String, Deque<Download>>> lIterator = this.getQueuedDownloads().entrySet().iterator();
+      while (lIterator.hasNext()) {
+        // Fetch the host.
+        final Map.Entry<String, Deque<Download>> lQueuedDownloads = lIterator.next();
+        // Is there capacity for this host? (The slot we released may belong to a different host from the one which is waiting.)
+        if (this.hasCapacityFor(lQueuedDownloads.getKey())) {
+          // Fetch the next download.
+          final Download lDownload = lQueuedDownloads.getValue().pollFirst();
+          // Release the queue; if there's still work waiting, it rejoins at the back, so that no host can starve the others.
+          lIterator.remove();
+          if (!lQueuedDownloads.getValue().isEmpty()) {
+            this.getQueuedDownloads().put(lQueuedDownloads.getKey(), lQueuedDownloads.getValue());
+          }
+          // Track the size of the queue.
+          this.mNumberOfQueuedDownloads -= 1;
+          // Begin the download.
+          this.dispatch(lQueuedDownloads.getKey(), lDownload);
+          // Only a single slot was released.
+          return;
+        }
+      }
+    }
+  }
+
+  /** Rejects all queued downloads, interrupts any that are in flight and prevents further downloads from being scheduled. Every download which had been accepted but not yet begun is informed, so that nothing waiting upon it is left unsettled. */
+  final void shutdown() {
+    // Declare the downloads which will never run.
+    final List<Download> lRejectedDownloads = new ArrayList<Download>();
+    // Synchronize upon ourself.
+    synchronized(this) {
+      // Assert that we've been shut down.
+      this.mIsShutdown = true;
+      // Drain any downloads which are waiting for a slot.
+      for (final Deque<Download> lQueuedDownloads : this.getQueuedDownloads().values()) {
+        lRejectedDownloads.addAll(lQueuedDownloads);
+      }
+      this.getQueuedDownloads().clear();
+      this.mNumberOfQueuedDownloads = 0;
+    }
+    // Interrupt the in-flight downloads, and drain any which the executor had yet to begin.
+    for (final Runnable lRunnable : this.getThreadPoolExecutor().shutdownNow()) {
+      lRejectedDownloads.add((Download)lRunnable);
+    }
+    // Fail each of the downloads outside of the lock, since their callbacks may call back into the engine.
+    for (final Download lDownload : lRejectedDownloads) {
+      lDownload.onRejected(new RejectedExecutionException("The download engine was shut down before the download could begin."));
+    }
+  }
+
+  /** Returns the number of downloads currently executing against the specified host. (Must be called whilst synchronized.) */
+  private final int getActiveDownloadsFor(final String pHost) {
+    // Fetch the number of active downloads.
+    final Integer lActiveDownloads = this.getActiveDownloads().get(pHost);
+    // Return the number of active downloads; hosts we haven't seen yet have none.
+    return (lActiveDownloads == null) ? 0 : lActiveDownloads.intValue();
+  }
+
+  /* Getters. */
+  private final ThreadPoolExecutor getThreadPoolExecutor() {
+    return this.mThreadPoolExecutor;
+  }
+
+  private final int getMaxConcurrentDownloads() {
+    return this.mMaxConcurrentDownloads;
+  }
+
+  private final int getMaxConcurrentDownloadsPerHost() {
+    return this.mMaxConcurrentDownloadsPerHost;
+  }
+
+  private final int getMaxQueuedDownloads() {
+    return this.mMaxQueuedDownloads;
+  }
+
+  private final Map<String, Integer> getActiveDownloads() {
+    return this.mActiveDownloads;
+  }
+
+  private final Map<String, Deque<Download>> getQueuedDownloads() {
+    return this.mQueuedDownloads;
+  }
+
+  private final boolean isShutdown() {
+    return this.mIsShutdown;
+  }
+
+}
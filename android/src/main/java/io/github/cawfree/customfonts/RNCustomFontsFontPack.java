@@ -0,0 +1,264 @@
+package io.github.cawfree.customfonts;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+
+/** A zip archive holding many fonts, which is memory-mapped and indexed once, so that individual fonts can be read straight from the mapping. Fonts which are stored without compression can be handed to the platform as-is; compressed fonts must be extracted first. */
+final class RNCustomFontsFontPack {
+
+  /* Static Declarations. */
+  private static final int SIGNATURE_LOCAL_HEADER       = 0x04034B50;
+  private static final int SIGNATURE_CENTRAL_DIRECTORY  = 0x02014B50;
+  private static final int SIGNATURE_END_OF_DIRECTORY   = 0x06054B50;
+  private static final int LOCAL_HEADER_SIZE            = 30;
+  private static final int CENTRAL_DIRECTORY_ENTRY_SIZE = 46;
+  private static final int END_OF_DIRECTORY_SIZE        = 22;
+  private static final int MAX_COMMENT_SIZE             = 0xFFFF;
+  private static final int METHOD_STORED                = 0;
+  private static final int METHOD_DEFLATED              = 8;
+
+  /** Describes a single font within the pack. */
+  static final class Entry {
+    /* Member Variables. */
+    private final String mName;
+    private final int    mMethod;
+    private final long   mCrc;
+    private final int    mDataOffset;
+    private final int    mCompressedSize;
+    private final int    mSize;
+    /** Constructor. */
+    private Entry(final String pName, final int pMethod, final long pCrc, final int pDataOffset, final int pCompressedSize, final int pSize) {
+      // Initialize Member Variables.
+      this.mName           = pName;
+      this.mMethod         = pMethod;
+      this.mCrc            = pCrc;
+      this.mDataOffset     = pDataOffset;
+      this.mCompressedSize = pCompressedSize;
+      this.mSize           = pSize;
+    }
+    /** Defines whether the font is stored without compression, and can therefore be read straight from the mapping. */
+    final boolean isStored() {
+      return this.mMethod == RNCustomFontsFontPack.METHOD_STORED;
+    }
+    /* Getters. */
+    final String getName() {
+      return this.mName;
+    }
+    /** Returns the CRC-32 of the font, which identifies its content. */
+    final long getCrc() {
+      return this.mCrc;
+    }
+    /** Returns the size of the font once extracted. */
+    final int getSize() {
+      return this.mSize;
+    }
+  }
+
+  /** Maps and indexes a pack which is stored on the device. */
+  static final RNCustomFontsFontPack open(final File pFile) throws IOException {
+    // Open the File.
+    final RandomAccessFile lRandomAccessFile = new RandomAccessFile(pFile, "r");
+    try {
+      // Map the File. (The mapping outlives the File being closed.)
+      return RNCustomFontsFontPack.index(
+        lRandomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, lRandomAccessFile.length()),
+        pFile.getPath()
+      );
+    } finally {
+      // Release the File.
+      lRandomAccessFile.close();
+    }
+  }
+
+  /** Maps and indexes a pack which ships within the APK. The pack must be stored without compression by the build, (i.e. aaptOptions { noCompress 'zip' }) so that it can be mapped in place. */
+  static final RNCustomFontsFontPack open(final AssetManager pAssetManager, final String pPath) throws IOException {
+    // Open the asset. This throws if the asset has been compressed into the APK.
+    final AssetFileDescriptor lAssetFileDescriptor = pAssetManager.openFd(pPath);
+    try {
+      // Fetch the APK; the asset lies somewhere within it.
+      final FileInputStream lFileInputStream = lAssetFileDescriptor.createInputStream();
+      try {
+        // Map only the asset.
+        return RNCustomFontsFontPack.index(
+          lFileInputStream.getChannel().map(FileChannel.MapMode.READ_ONLY, lAssetFileDescriptor.getStartOffset(), lAssetFileDescriptor.getLength()),
+          pPath
+        );
+      } finally {
+        // Release the APK.
+        lFileInputStream.close();
+      }
+    } finally {
+      // Release the asset.
+      lAssetFileDescriptor.close();
+    }
+  }
+
+  /** Reads the central directory of the mapped pack. */
+  private static final RNCustomFontsFontPack index(final MappedByteBuffer pMappedByteBuffer, final String pName) throws IOException {
+    // Zip archives are little-endian.
+    final ByteBuffer lByteBuffer = pMappedByteBuffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    // Find the end of the central directory. It lies at the end of the archive, followed only by an optional comment.
+    int lEnd = -1;
+    for (int i = lByteBuffer.limit() - RNCustomFontsFontPack.END_OF_DIRECTORY_SIZE; i >= Math.max(0, lByteBuffer.limit() - RNCustomFontsFontPack.END_OF_DIRECTORY_SIZE - RNCustomFontsFontPack.MAX_COMMENT_SIZE); i -= 1) {
+      if (lByteBuffer.getInt(i) == RNCustomFontsFontPack.SIGNATURE_END_OF_DIRECTORY) {
+        lEnd = i;
+        break;
+      }
+    }
+    // Is this a zip archive?
+    if (lEnd < 0) {
+      throw new IOException("\"" + pName + "\" is not a zip archive.");
+    }
+    // Read the location of the central directory.
+    final int  lNumberOfEntries = lByteBuffer.getShort(lEnd + 10) & 0xFFFF;
+    final long lDirectoryOffset = lByteBuffer.getInt(lEnd + 16) & 0xFFFFFFFFL;
+    // Is this a Zip64 archive? These are only necessary beyond 4GB, which no font pack should approach.
+    if (lNumberOfEntries == 0xFFFF || lDirectoryOffset == 0xFFFFFFFFL || lDirectoryOffset > lEnd) {
+      throw new IOException("\"" + pName + "\" uses an unsupported zip format.");
+    }
+    // Declare the index.
+    final Map<String, Entry> lEntries = new HashMap<String, Entry>();
+    // Iterate the central directory.
+    int lPosition = (int)lDirectoryOffset;
+    for (int i = 0; i < lNumberOfEntries; i += 1) {
+      // Ensure the entry is well formed.
+      if (lPosition + RNCustomFontsFontPack.CENTRAL_DIRECTORY_ENTRY_SIZE > lEnd || lByteBuffer.getInt(lPosition) != RNCustomFontsFontPack.SIGNATURE_CENTRAL_DIRECTORY) {
+        throw new IOException("\"" + pName + "\" contains a malformed central directory.");
+      }
+      // Read the entry.
+      final int  lMethod         = lByteBuffer.getShort(lPosition + 10) & 0xFFFF;
+      final long lCrc            = lByteBuffer.getInt(lPosition + 16) & 0xFFFFFFFFL;
+      final long lCompressedSize = lByteBuffer.getInt(lPosition + 20) & 0xFFFFFFFFL;
+      final long lSize           = lByteBuffer.getInt(lPosition + 24) & 0xFFFFFFFFL;
+      final int  lNameLength     = lByteBuffer.getShort(lPosition + 28) & 0xFFFF;
+      final int  lExtraLength    = lByteBuffer.getShort(lPosition + 30) & 0xFFFF;
+      final int  lCommentLength  = lByteBuffer.getShort(lPosition + 32) & 0xFFFF;
+      final long lHeaderOffset   = lByteBuffer.getInt(lPosition + 42) & 0xFFFFFFFFL;
+      // Read the name.
+      final byte[] lName = new byte[lNameLength];
+      for (int j = 0; j < lNameLength; j += 1) {
+        lName[j] = lByteBuffer.get(lPosition + RNCustomFontsFontPack.CENTRAL_DIRECTORY_ENTRY_SIZE + j);
+      }
+      // Advance to the next entry.
+      lPosition += RNCustomFontsFontPack.CENTRAL_DIRECTORY_ENTRY_SIZE + lNameLength + lExtraLength + lCommentLength;
+      // Is this a font we're able to read? (Directories and exotic compression methods are ignored.)
+      if (lSize == 0 || (lMethod != RNCustomFontsFontPack.METHOD_STORED && lMethod != RNCustomFontsFontPack.METHOD_DEFLATED)) {
+        continue;
+      }
+      // Ensure the local header lies within the archive.
+      if (lHeaderOffset + RNCustomFontsFontPack.LOCAL_HEADER_SIZE > lEnd || lByteBuffer.getInt((int)lHeaderOffset) != RNCustomFontsFontPack.SIGNATURE_LOCAL_HEADER) {
+        throw new IOException("\"" + pName + "\" contains a malformed local header.");
+      }
+      // The data follows the local header, whose variable fields need not match those of the central directory.
+      final long lDataOffset = lHeaderOffset + RNCustomFontsFontPack.LOCAL_HEADER_SIZE + (lByteBuffer.getShort((int)lHeaderOffset + 26) & 0xFFFF) + (lByteBuffer.getShort((int)lHeaderOffset + 28) & 0xFFFF);
+      // Ensure the data lies within the archive.
+      if (lDataOffset + lCompressedSize > lEnd || lSize > Integer.MAX_VALUE) {
+        throw new IOException("\"" + pName + "\" contains a truncated entry.");
+      }
+      // Buffer the entry.
+      final String lEntryName = new String(lName, "UTF-8");
+      lEntries.put(lEntryName, new Entry(lEntryName, lMethod, lCrc, (int)lDataOffset, (int)lCompressedSize, (int)lSize));
+    }
+    // Allocate the pack.
+    return new RNCustomFontsFontPack(pMappedByteBuffer, Collections.unmodifiableMap(lEntries));
+  }
+
+  /* Member Variables. */
+  private final MappedByteBuffer   mMappedByteBuffer;
+  private final Map<String, Entry> mEntries;
+
+  /** Constructor. */
+  private RNCustomFontsFontPack(final MappedByteBuffer pMappedByteBuffer, final Map<String, Entry> pEntries) {
+    // Initialize Member Variables.
+    this.mMappedByteBuffer = pMappedByteBuffer;
+    this.mEntries          = pEntries;
+  }
+
+  /** Returns the Entry with the specified name, or null if the pack does not contain it. */
+  final Entry getEntry(final String pName) {
+    return this.getEntries().get(pName);
+  }
+
+  /** Returns the raw bytes of the Entry, as stored within the mapping. */
+  private final ByteBuffer getRawBytesOf(final Entry pEntry) {
+    // Take an independent view of the mapping, so that concurrent readers don't interfere.
+    final ByteBuffer lByteBuffer = this.getMappedByteBuffer().duplicate();
+    // Narrow the view to the Entry.
+    lByteBuffer.position(pEntry.mDataOffset);
+    lByteBuffer.limit(pEntry.mDataOffset + pEntry.mCompressedSize);
+    // Return the view.
+    return lByteBuffer.slice();
+  }
+
+  /** Returns a read-only view of a stored Entry, without copying it. Pages are only read from disk once they're touched. */
+  final ByteBuffer slice(final Entry pEntry) {
+    // Can the Entry be read in place?
+    if (!pEntry.isStored()) {
+      throw new IllegalArgumentException("\"" + pEntry.getName() + "\" is compressed, so it must be extracted before use.");
+    }
+    // Return the view.
+    return this.getRawBytesOf(pEntry);
+  }
+
+  /** Writes the Entry to the specified File, verifying its content as we go. */
+  final void extract(final Entry pEntry, final File pTarget) throws IOException {
+    // Fetch the raw bytes.
+    final ByteBuffer lRawBytes = this.getRawBytesOf(pEntry);
+    // Copy the raw bytes onto the heap; the Inflater can't read from a ByteBuffer on older platforms. (Deflate streams need a trailing byte when read without a header.)
+    final byte[]     lBytes    = new byte[lRawBytes.remaining() + 1];
+    lRawBytes.get(lBytes, 0, lBytes.length - 1);
+    // Declare how the Entry is to be read.
+    final InputStream  lInputStream  = pEntry.isStored() ? new ByteArrayInputStream(lBytes, 0, lBytes.length - 1) : new InflaterInputStream(new ByteArrayInputStream(lBytes), new Inflater(true));
+    final OutputStream lOutputStream = new BufferedOutputStream(new FileOutputStream(pTarget), 64 * 1024);
+    try {
+      // Copy the Entry, tracking its checksum.
+      final CRC32  lCrc32    = new CRC32();
+      final byte[] lBuffer   = new byte[8192];
+            long   lWritten  = 0L;
+            int    lCount    = 0;
+      while ((lCount = lInputStream.read(lBuffer)) > 0) {
+        lCrc32.update(lBuffer, 0, lCount);
+        lOutputStream.write(lBuffer, 0, lCount);
+        lWritten += lCount;
+      }
+      // Does the Entry match the central directory?
+      if (lWritten != pEntry.getSize() || lCrc32.getValue() != pEntry.getCrc()) {
+        throw new IOException("\"" + pEntry.getName() + "\" is corrupt.");
+      }
+    } finally {
+      // Release the I/O dependencies.
+      lInputStream.close();
+      lOutputStream.close();
+    }
+  }
+
+  /* Getters. */
+  private final MappedByteBuffer getMappedByteBuffer() {
+    return this.mMappedByteBuffer;
+  }
+
+  private final Map<String, Entry> getEntries() {
+    return this.mEntries;
+  }
+
+}
@@ -0,0 +1,80 @@
+package io.github.cawfree.customfonts;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+
+/** Issues exactly one request per font over the platform's keep-alive connection pool. A connection only returns to the pool once its response has been consumed in full, so responses without a useful body (i.e. 304s and errors) are drained and closed rather than abandoned. Per-host concurrency is bounded by the RNCustomFontsDownloadEngine, so we never hold more connections to a host than it's allowed to use at once. */
+final class RNCustomFontsHttpClient {
+
+  /* Static Declarations. */
+  private static final int MAX_DRAIN_BYTES = 64 * 1024;
+
+  /** Constructor. */
+  RNCustomFontsHttpClient() { }
+
+  /** Prepares a request for the specified uri. Nothing is sent until the caller asks for the response. */
+  final URLConnection open(final String pUri, final RNCustomFontsLoadPolicy pLoadPolicy) throws IOException {
+    // Allocate the connection. (For http(s) uris, the platform draws this from its keep-alive pool.)
+    final URLConnection lUrlConnection = new URL(pUri).openConnection();
+    // Give up on servers which stall, rather than occupying a download slot indefinitely.
+    lUrlConnection.setConnectTimeout(pLoadPolicy.getConnectTimeoutMs());
+    lUrlConnection.setReadTimeout(pLoadPolicy.getReadTimeoutMs());
+    // We maintain our own cache, so there's no need for the platform to keep a second copy.
+    lUrlConnection.setUseCaches(false);
+    // Is this a HTTP transaction?
+    if (lUrlConnection instanceof HttpURLConnection) {
+      // Ask the server to keep the connection open for the next font. (This is the default for HTTP/1.1, but some proxies need to be told.)
+      lUrlConnection.setRequestProperty("Connection", "keep-alive");
+    }
+    // Return the connection.
+    return lUrlConnection;
+  }
+
+  /** Consumes whatever remains of a response whose body we don't need, so that its connection can be reused. Large bodies are not worth reading, so their connection is closed instead. */
+  final void release(final URLConnection pUrlConnection) {
+    // Is this a HTTP transaction? (Other schemes don't pool their connections.)
+    if (!(pUrlConnection instanceof HttpURLConnection)) {
+      return;
+    }
+    // Fetch the connection.
+    final HttpURLConnection lHttpUrlConnection = (HttpURLConnection)pUrlConnection;
+    // Declare the body of the response.
+    InputStream lInputStream = null;
+    try {
+      // Error responses deliver their body along a separate stream.
+      lInputStream = (lHttpUrlConnection.getResponseCode() >= 400) ? lHttpUrlConnection.getErrorStream() : lHttpUrlConnection.getInputStream();
+      // Is there a body to drain?
+      if (lInputStream != null) {
+        // Read until the end of the body, or we've read more than it's worth.
+        final byte[] lBuffer  = new byte[4096];
+              int    lDrained = 0;
+              int    lCount   = 0;
+        while (lDrained <= RNCustomFontsHttpClient.MAX_DRAIN_BYTES && (lCount = lInputStream.read(lBuffer)) >= 0) {
+          lDrained += lCount;
+        }
+        // Did we give up before the end of the body? Then the connection can't be reused.
+        if (lCount >= 0) {
+          lHttpUrlConnection.disconnect();
+        }
+      }
+    } catch (final IOException pIOException) {
+      // The connection is unusable.
+      lHttpUrlConnection.disconnect();
+    } finally {
+      // Release the body. (Closing a fully consumed body returns the connection to the pool.)
+      if (lInputStream != null) { try { lInputStream.close(); } catch (final Exception pIgnoredException) { /* Ignore. */ } }
+    }
+  }
+
+  /** Closes the connection of a response which was abandoned part way through; a partially read body can't be shared with the next request. */
+  final void abandon(final URLConnection pUrlConnection) {
+    // Is this a HTTP transaction?
+    if (pUrlConnection instanceof HttpURLConnection) {
+      ((HttpURLConnection)pUrlConnection).disconnect();
+    }
+  }
+
+}
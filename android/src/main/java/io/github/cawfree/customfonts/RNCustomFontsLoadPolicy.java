@@ -0,0 +1,85 @@
+package io.github.cawfree.customfonts;
+
+import com.facebook.react.bridge.ReadableMap;
+
+/** Decides how long the caller of onFontFacesChanged is prepared to wait for its FontFaces, and how long an individual request may stall before it is abandoned. */
+final class RNCustomFontsLoadPolicy {
+
+  /* Static Declarations. */
+  public static final long DEFAULT_DEADLINE        = 10000L;
+  public static final long DEFAULT_CONNECT_TIMEOUT = 15000L;
+  public static final long DEFAULT_READ_TIMEOUT    = 30000L;
+
+  /** Returns the default policy; the caller waits up to ten seconds for its FontFaces, and a server which stops responding is given up on. */
+  static final RNCustomFontsLoadPolicy getDefault() {
+    return new RNCustomFontsLoadPolicy(
+      RNCustomFontsLoadPolicy.DEFAULT_DEADLINE,
+      RNCustomFontsLoadPolicy.DEFAULT_CONNECT_TIMEOUT,
+      RNCustomFontsLoadPolicy.DEFAULT_READ_TIMEOUT
+    );
+  }
+
+  /** Reads a policy from the options supplied to onFontFacesChanged. Any values that are not specified fall back to their defaults. */
+  static final RNCustomFontsLoadPolicy fromReadableMap(final ReadableMap pReadableMap) {
+    // Were no options specified?
+    if (pReadableMap == null) {
+      return RNCustomFontsLoadPolicy.getDefault();
+    }
+    // Fetch the deadline; zero waits for every FontFace.
+    final long lDeadline = RNCustomFontsCachePolicy.getLong(pReadableMap, "deadline", RNCustomFontsLoadPolicy.DEFAULT_DEADLINE);
+    // Allocate the policy.
+    return new RNCustomFontsLoadPolicy(
+      (lDeadline == 0L) ? Long.MAX_VALUE : lDeadline,
+      RNCustomFontsCachePolicy.getLong(pReadableMap, "connectTimeout", RNCustomFontsLoadPolicy.DEFAULT_CONNECT_TIMEOUT),
+      RNCustomFontsCachePolicy.getLong(pReadableMap, "readTimeout", RNCustomFontsLoadPolicy.DEFAULT_READ_TIMEOUT)
+    );
+  }
+
+  /** Converts a timeout into the form expected by URLConnection, where zero waits indefinitely. */
+  private static final int toConnectionTimeout(final long pTimeout) {
+    return (int)Math.min(pTimeout, Integer.MAX_VALUE);
+  }
+
+  /* Member Variables. */
+  private final long mDeadline;
+  private final long mConnectTimeout;
+  private final long mReadTimeout;
+
+  /** Constructor. */
+  RNCustomFontsLoadPolicy(final long pDeadline, final long pConnectTimeout, final long pReadTimeout) {
+    // Initialize Member Variables.
+    this.mDeadline       = pDeadline;
+    this.mConnectTimeout = pConnectTimeout;
+    this.mReadTimeout    = pReadTimeout;
+  }
+
+  /** Defines whether the caller would rather hear about the FontFaces which are ready than wait for all of them. */
+  final boolean hasDeadline() {
+    return this.getDeadline() != Long.MAX_VALUE;
+  }
+
+  /** Returns the time in milliseconds a connection may take to be established; zero waits indefinitely. */
+  final int getConnectTimeoutMs() {
+    return RNCustomFontsLoadPolicy.toConnectionTimeout(this.getConnectTimeout());
+  }
+
+  /** Returns the time in milliseconds a connection may go without receiving data; zero waits indefinitely. */
+  final int getReadTimeoutMs() {
+    return RNCustomFontsLoadPolicy.toConnectionTimeout(this.getReadTimeout());
+  }
+
+  /* Getters. */
+  /** Returns the time in milliseconds after which onFontFacesChanged resolves, whether or not every FontFace has finished. */
+  final long getDeadline() {
+    return this.mDeadline;
+  }
+
+  private final long getConnectTimeout() {
+    return this.mConnectTimeout;
+  }
+
+  private final long getReadTimeout() {
+    return this.mReadTimeout;
+  }
+
+}
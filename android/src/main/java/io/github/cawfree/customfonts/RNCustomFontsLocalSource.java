@@ -0,0 +1,94 @@
+package io.github.cawfree.customfonts;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+import android.graphics.Typeface;
+
+/** Describes fonts which are already present on the device, so that they can be used in place rather than downloaded. "asset://" fonts ship within the APK and "file://" fonts lie on disk; either may refer to a font within a pack using a fragment, i.e. "asset://fonts/base.zip#Inter-Bold.ttf". */
+final class RNCustomFontsLocalSource {
+
+  /* Static Declarations. */
+  private static final String SCHEME_ASSET = "asset://";
+  private static final String SCHEME_FILE  = "file://";
+
+  /** Defines whether the uri refers to a font which is present on the device. */
+  static final boolean isLocal(final String pUri) {
+    return pUri.startsWith(RNCustomFontsLocalSource.SCHEME_ASSET) || pUri.startsWith(RNCustomFontsLocalSource.SCHEME_FILE);
+  }
+
+  /** Defines whether the uri refers to a font within a pack. */
+  static final boolean isPackEntry(final String pUri) {
+    return RNCustomFontsLocalSource.isLocal(pUri) && pUri.indexOf('#') >= 0;
+  }
+
+  /** Returns the uri of the pack which contains the font. */
+  static final String getPackUriOf(final String pUri) {
+    return pUri.substring(0, pUri.indexOf('#'));
+  }
+
+  /** Returns the name of the font within its pack. */
+  static final String getEntryNameOf(final String pUri) {
+    return pUri.substring(pUri.indexOf('#') + 1);
+  }
+
+  /** Defines whether the uri refers to an asset. */
+  private static final boolean isAsset(final String pUri) {
+    return pUri.startsWith(RNCustomFontsLocalSource.SCHEME_ASSET);
+  }
+
+  /** Returns the path of the asset or file referenced by the uri. */
+  private static final String getPathOf(final String pUri) {
+    return pUri.substring((RNCustomFontsLocalSource.isAsset(pUri) ? RNCustomFontsLocalSource.SCHEME_ASSET : RNCustomFontsLocalSource.SCHEME_FILE).length());
+  }
+
+  /** Maps and indexes the pack referenced by the uri. */
+  static final RNCustomFontsFontPack openPack(final AssetManager pAssetManager, final String pPackUri) throws IOException {
+    // Is the pack an asset?
+    if (RNCustomFontsLocalSource.isAsset(pPackUri)) {
+      return RNCustomFontsFontPack.open(pAssetManager, RNCustomFontsLocalSource.getPathOf(pPackUri));
+    }
+    return RNCustomFontsFontPack.open(new File(RNCustomFontsLocalSource.getPathOf(pPackUri)));
+  }
+
+  /** Returns the size in bytes of a font which is not within a pack. */
+  static final long getSizeOf(final AssetManager pAssetManager, final String pUri) throws IOException {
+    // Is the font on disk?
+    if (!RNCustomFontsLocalSource.isAsset(pUri)) {
+      return new File(RNCustomFontsLocalSource.getPathOf(pUri)).length();
+    }
+    try {
+      // Fetch the descriptor of the asset. (This is only possible for assets which are stored uncompressed.)
+      final AssetFileDescriptor lAssetFileDescriptor = pAssetManager.openFd(RNCustomFontsLocalSource.getPathOf(pUri));
+      try {
+        // Return the length of the asset.
+        return lAssetFileDescriptor.getLength();
+      } finally {
+        // Release the descriptor.
+        lAssetFileDescriptor.close();
+      }
+    } catch (final IOException pIOException) {
+      // The asset is compressed; its stream reports the uncompressed size of whatever remains.
+      final InputStream lInputStream = pAssetManager.open(RNCustomFontsLocalSource.getPathOf(pUri));
+      try {
+        return lInputStream.available();
+      } finally {
+        // Release the stream.
+        lInputStream.close();
+      }
+    }
+  }
+
+  /** Creates the Typeface of a font which is not within a pack. Nothing is copied; the platform reads the font from where it lies. */
+  static final Typeface createTypeface(final AssetManager pAssetManager, final String pUri) {
+    // Is the font an asset?
+    if (RNCustomFontsLocalSource.isAsset(pUri)) {
+      return Typeface.createFromAsset(pAssetManager, RNCustomFontsLocalSource.getPathOf(pUri));
+    }
+    return Typeface.createFromFile(new File(RNCustomFontsLocalSource.getPathOf(pUri)));
+  }
+
+}
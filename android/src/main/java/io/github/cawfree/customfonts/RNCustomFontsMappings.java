@@ -0,0 +1,83 @@
+package io.github.cawfree.customfonts;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/** Shares read-only memory mappings of font files, so that every Font created from the same content reads from a single mapping. Mapped fonts live outside of the Java heap, and their pages are only read from disk once they're touched. Mappings are held weakly; once no Font refers to one, it is released by the collector. */
+final class RNCustomFontsMappings {
+
+  /** Returns the key which identifies the content of a File. Files with a known content hash share a mapping with every other File of identical content; otherwise the key changes whenever the File is replaced. */
+  static final String getKeyOf(final File pFile, final String pContentHash) {
+    return (pContentHash != null) ? pContentHash : (pFile.getPath() + ":" + pFile.length() + ":" + pFile.lastModified());
+  }
+
+  /* Member Variables. */
+  private final Map<String, WeakReference<ByteBuffer>> mMappings;
+
+  /** Constructor. */
+  RNCustomFontsMappings() {
+    // Initialize Member Variables.
+    this.mMappings = new HashMap<String, WeakReference<ByteBuffer>>();
+  }
+
+  /** Returns a mapping of the File, sharing any existing mapping of the same content. The mapping is shared, so callers must never modify its position or limit. */
+  final ByteBuffer map(final File pFile, final String pKey) throws IOException {
+    // Is there an existing mapping?
+    final ByteBuffer lExisting = this.get(pKey);
+    if (lExisting != null) {
+      return lExisting;
+    }
+    // Open the File. (We map outside of the lock; at worst, two threads map the same File at once, and one mapping is discarded.)
+    final RandomAccessFile lRandomAccessFile = new RandomAccessFile(pFile, "r");
+    final ByteBuffer       lByteBuffer;
+    try {
+      // Map the File. (The mapping outlives the File being closed.)
+      lByteBuffer = lRandomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, lRandomAccessFile.length());
+    } finally {
+      // Release the File.
+      lRandomAccessFile.close();
+    }
+    // Synchronize upon ourself.
+    synchronized(this) {
+      // Did somebody else map the File in the meantime? If so, share theirs.
+      final WeakReference<ByteBuffer> lReference = this.getMappings().get(pKey);
+      final ByteBuffer                lRacer     = (lReference != null) ? lReference.get() : null;
+      if (lRacer != null) {
+        return lRacer;
+      }
+      // Forget any mappings which have been collected.
+      for (final Iterator<WeakReference<ByteBuffer>> i = this.getMappings().values().iterator(); i.hasNext(); ) {
+        if (i.next().get() == null) {
+          i.remove();
+        }
+      }
+      // Buffer the mapping.
+      this.getMappings().put(pKey, new WeakReference<ByteBuffer>(lByteBuffer));
+    }
+    // Return the mapping.
+    return lByteBuffer;
+  }
+
+  /** Returns the existing mapping for the key, or null if there isn't one. */
+  private final ByteBuffer get(final String pKey) {
+    // Synchronize upon ourself.
+    synchronized(this) {
+      // Fetch the mapping, if it is still alive.
+      final WeakReference<ByteBuffer> lReference = this.getMappings().get(pKey);
+      return (lReference != null) ? lReference.get() : null;
+    }
+  }
+
+  /* Getters. */
+  private final Map<String, WeakReference<ByteBuffer>> getMappings() {
+    return this.mMappings;
+  }
+
+}
@@ -0,0 +1,290 @@
+package io.github.cawfree.customfonts;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Counters and timings which describe the behaviour of the font pipeline, both in aggregate and per FontFace. Every method is lock-free, so that recording never contends with the work being measured. */
+final class RNCustomFontsMetrics {
+
+  /* Static Declarations. */
+  public static final String CAUSE_TIMEOUT  = "timeout";
+  public static final String CAUSE_NETWORK  = "network";
+  public static final String CAUSE_REJECTED = "rejected";
+  public static final String CAUSE_DECODE   = "decode";
+  public static final String CAUSE_REQUEST  = "request";
+  public static final String CAUSE_UNKNOWN  = "unknown";
+
+  /** Classifies the Exception which caused a download to fail. */
+  static final String getCauseOf(final Exception pException) {
+    // Did the server fail to respond in time?
+    if (pException instanceof SocketTimeoutException) {
+      return RNCustomFontsMetrics.CAUSE_TIMEOUT;
+    }
+    // Was the download turned away before it began?
+    if (pException instanceof RejectedExecutionException) {
+      return RNCustomFontsMetrics.CAUSE_REJECTED;
+    }
+    // Did we receive a font we can't decode? (Fetching it again won't help.)
+    if (pException instanceof RNCustomFontsWoffDecoder.FormatException) {
+      return RNCustomFontsMetrics.CAUSE_DECODE;
+    }
+    // Did the transfer itself fail?
+    if (pException instanceof IOException) {
+      return RNCustomFontsMetrics.CAUSE_NETWORK;
+    }
+    return RNCustomFontsMetrics.CAUSE_UNKNOWN;
+  }
+
+  /** Raises the maximum to the specified value, if it is larger. */
+  private static final void accumulateMax(final AtomicLong pMax, final long pValue) {
+    // Fetch the current maximum.
+    long lMax = pMax.get();
+    // Attempt to raise it until we succeed, or somebody else raises it further.
+    while (pValue > lMax && !pMax.compareAndSet(lMax, pValue)) {
+      lMax = pMax.get();
+    }
+  }
+
+  /** Converts a duration in nanoseconds to fractional milliseconds for JavaScript. */
+  private static final double toMillis(final long pNanos) {
+    return pNanos / 1000000.0;
+  }
+
+  /** The metrics of a single FontFace. */
+  private static final class FaceMetrics {
+    /* Member Variables. */
+    private final    String     mUri;
+    private final    AtomicLong mRequestedAt;
+    private final    AtomicLong mTimeToReadyNanos;
+    private volatile long       mBytesDownloaded;
+    private volatile long       mDownloadNanos;
+    private volatile long       mDecodeNanos;
+    private volatile int        mDownloads;
+    private volatile int        mFailures;
+    /** Constructor. */
+    private FaceMetrics(final String pUri) {
+      // Initialize Member Variables.
+      this.mUri              = pUri;
+      this.mRequestedAt      = new AtomicLong(-1L);
+      this.mTimeToReadyNanos = new AtomicLong(-1L);
+      this.mBytesDownloaded  = 0L;
+      this.mDownloadNanos    = -1L;
+      this.mDecodeNanos      = -1L;
+      this.mDownloads        = 0;
+      this.mFailures         = 0;
+    }
+  }
+
+  /* Member Variables. */
+  private final AtomicLong                        mBytesDownloaded;
+  private final AtomicLong                        mDownloads;
+  private final AtomicLong                        mNotModified;
+  private final AtomicLong                        mDownloadNanos;
+  private final AtomicLong                        mMaxDownloadNanos;
+  private final AtomicLong                        mDecodes;
+  private final AtomicLong                        mDecodeNanos;
+  private final AtomicLong                        mMaxDecodeNanos;
+  private final AtomicLong                        mTypefaceHits;
+  private final AtomicLong                        mTypefaceMisses;
+  private final AtomicLong                        mDiskHits;
+  private final AtomicLong                        mDiskMisses;
+  private final AtomicLong                        mMaxTimeToReadyNanos;
+  private final ConcurrentMap<String, AtomicLong> mFailures;
+  private final Map<File, FaceMetrics>            mFaces;
+
+  /** Constructor. */
+  RNCustomFontsMetrics() {
+    // Initialize Member Variables.
+    this.mBytesDownloaded     = new AtomicLong(0L);
+    this.mDownloads           = new AtomicLong(0L);
+    this.mNotModified         = new AtomicLong(0L);
+    this.mDownloadNanos       = new AtomicLong(0L);
+    this.mMaxDownloadNanos    = new AtomicLong(0L);
+    this.mDecodes             = new AtomicLong(0L);
+    this.mDecodeNanos         = new AtomicLong(0L);
+    this.mMaxDecodeNanos      = new AtomicLong(0L);
+    this.mTypefaceHits        = new AtomicLong(0L);
+    this.mTypefaceMisses      = new AtomicLong(0L);
+    this.mDiskHits            = new AtomicLong(0L);
+    this.mDiskMisses          = new AtomicLong(0L);
+    this.mMaxTimeToReadyNanos = new AtomicLong(0L);
+    this.mFailures            = new ConcurrentHashMap<String, AtomicLong>();
+    this.mFaces               = new ConcurrentHashMap<File, FaceMetrics>();
+  }
+
+  /** Returns the metrics for the specified FontFace, allocating them if necessary. */
+  private final FaceMetrics getFaceMetricsOf(final File pFile, final String pUri) {
+    // Attempt to fetch the existing metrics.
+    final FaceMetrics lFaceMetrics = this.getFaces().get(pFile);
+    // Do the metrics refer to the same uri? (A File may be reassigned to a new uri, in which case we start again.)
+    if (lFaceMetrics != null && lFaceMetrics.mUri.equals(pUri)) {
+      return lFaceMetrics;
+    }
+    // Allocate new metrics.
+    final FaceMetrics lNewFaceMetrics = new FaceMetrics(pUri);
+    // Buffer the metrics.
+    this.getFaces().put(pFile, lNewFaceMetrics);
+    // Return the metrics.
+    return lNewFaceMetrics;
+  }
+
+  /** Records that a FontFace has been requested by the fontFaces prop; this marks the beginning of its time-to-ready. */
+  final void onFontFaceRequested(final File pFile, final String pUri) {
+    this.getFaceMetricsOf(pFile, pUri).mRequestedAt.compareAndSet(-1L, System.nanoTime());
+  }
+
+  /** Records that the Typeface for a FontFace is ready for use. Only the first occasion counts towards time-to-ready. */
+  final void onFontFaceReady(final File pFile, final String pUri) {
+    // Fetch the metrics for the FontFace.
+    final FaceMetrics lFaceMetrics = this.getFaceMetricsOf(pFile, pUri);
+    final long        lRequestedAt = lFaceMetrics.mRequestedAt.get();
+    // Were we aware of when the FontFace was requested?
+    if (lRequestedAt >= 0) {
+      // Compute the time to ready.
+      final long lTimeToReadyNanos = System.nanoTime() - lRequestedAt;
+      // Is this the first time the FontFace has become ready?
+      if (lFaceMetrics.mTimeToReadyNanos.compareAndSet(-1L, lTimeToReadyNanos)) {
+        RNCustomFontsMetrics.accumulateMax(this.mMaxTimeToReadyNanos, lTimeToReadyNanos);
+      }
+    }
+  }
+
+  /** Records the completion of a download, or a revalidation which found the file to be unmodified. */
+  final void onDownloadFinished(final File pFile, final String pUri, final long pBytesDownloaded, final long pDurationNanos, final boolean pIsModified) {
+    // Fetch the metrics for the FontFace.
+    final FaceMetrics lFaceMetrics = this.getFaceMetricsOf(pFile, pUri);
+    // Update the aggregate metrics.
+    this.mBytesDownloaded.addAndGet(pBytesDownloaded);
+    this.mDownloads.incrementAndGet();
+    this.mDownloadNanos.addAndGet(pDurationNanos);
+    RNCustomFontsMetrics.accumulateMax(this.mMaxDownloadNanos, pDurationNanos);
+    // Was the cached file still current?
+    if (!pIsModified) {
+      this.mNotModified.incrementAndGet();
+    }
+    // Update the FontFace. (Downloads of the same File are serialized by the module, so these needn't be atomic.)
+    lFaceMetrics.mBytesDownloaded += pBytesDownloaded;
+    lFaceMetrics.mDownloadNanos    = pDurationNanos;
+    lFaceMetrics.mDownloads       += 1;
+  }
+
+  /** Records the completion of a decode, whether or not it produced a Typeface. */
+  final void onDecodeFinished(final File pFile, final String pUri, final long pDurationNanos) {
+    // Update the aggregate metrics.
+    this.mDecodes.incrementAndGet();
+    this.mDecodeNanos.addAndGet(pDurationNanos);
+    RNCustomFontsMetrics.accumulateMax(this.mMaxDecodeNanos, pDurationNanos);
+    // Update the FontFace.
+    this.getFaceMetricsOf(pFile, pUri).mDecodeNanos = pDurationNanos;
+  }
+
+  /** Records whether a decoded Typeface was resident when it was needed. */
+  final void onTypefaceLookup(final boolean pIsHit) {
+    (pIsHit ? this.mTypefaceHits : this.mTypefaceMisses).incrementAndGet();
+  }
+
+  /** Records whether a font file could be used straight from disk, without waiting for the network. */
+  final void onDiskLookup(final boolean pIsHit) {
+    (pIsHit ? this.mDiskHits : this.mDiskMisses).incrementAndGet();
+  }
+
+  /** Records a failure for the specified cause. If a File is supplied, it is attributed to that FontFace. */
+  final void onFailure(final File pFile, final String pUri, final String pCause) {
+    // Attempt to fetch the counter for the cause.
+    AtomicLong lCounter = this.getFailures().get(pCause);
+    // Does the counter not yet exist?
+    if (lCounter == null) {
+      // Allocate the counter.
+      final AtomicLong lNewCounter = new AtomicLong(0L);
+      // Buffer the counter. (If we race, the first counter wins.)
+      lCounter = this.getFailures().putIfAbsent(pCause, lNewCounter);
+      lCounter = (lCounter == null) ? lNewCounter : lCounter;
+    }
+    // Increment the counter.
+    lCounter.incrementAndGet();
+    // Can we attribute the failure to a FontFace?
+    if (pFile != null) {
+      this.getFaceMetricsOf(pFile, pUri).mFailures += 1;
+    }
+  }
+
+  /** Returns a snapshot of the metrics, along with the current depth of the queue of callers waiting on FontFaces. */
+  final WritableMap toWritableMap(final int pPendingFontFaces, final int pPendingFiles) {
+    // Allocate the snapshot.
+    final WritableMap lMetrics = Arguments.createMap();
+    // Fetch the counters which are used as denominators.
+    final long        lDownloads = this.mDownloads.get();
+    final long        lDecodes   = this.mDecodes.get();
+    final long        lTypefaces = this.mTypefaceHits.get() + this.mTypefaceMisses.get();
+    final long        lDisk      = this.mDiskHits.get() + this.mDiskMisses.get();
+    // Describe the download stage.
+    lMetrics.putDouble("bytesDownloaded", this.mBytesDownloaded.get());
+    lMetrics.putDouble("downloads", lDownloads);
+    lMetrics.putDouble("notModified", this.mNotModified.get());
+    lMetrics.putDouble("meanDownloadMs", (lDownloads == 0) ? 0.0 : RNCustomFontsMetrics.toMillis(this.mDownloadNanos.get()) / lDownloads);
+    lMetrics.putDouble("maxDownloadMs", RNCustomFontsMetrics.toMillis(this.mMaxDownloadNanos.get()));
+    // Describe the decode stage.
+    lMetrics.putDouble("decodes", lDecodes);
+    lMetrics.putDouble("meanDecodeMs", (lDecodes == 0) ? 0.0 : RNCustomFontsMetrics.toMillis(this.mDecodeNanos.get()) / lDecodes);
+    lMetrics.putDouble("maxDecodeMs", RNCustomFontsMetrics.toMillis(this.mMaxDecodeNanos.get()));
+    // Describe the caches.
+    lMetrics.putDouble("typefaceHits", this.mTypefaceHits.get());
+    lMetrics.putDouble("typefaceMisses", this.mTypefaceMisses.get());
+    lMetrics.putDouble("typefaceHitRatio", (lTypefaces == 0) ? 0.0 : ((double)this.mTypefaceHits.get()) / lTypefaces);
+    lMetrics.putDouble("diskHits", this.mDiskHits.get());
+    lMetrics.putDouble("diskMisses", this.mDiskMisses.get());
+    lMetrics.putDouble("diskHitRatio", (lDisk == 0) ? 0.0 : ((double)this.mDiskHits.get()) / lDisk);
+    // Describe the waiters.
+    lMetrics.putInt("pendingFontFaces", pPendingFontFaces);
+    lMetrics.putInt("pendingFiles", pPendingFiles);
+    lMetrics.putDouble("maxTimeToReadyMs", RNCustomFontsMetrics.toMillis(this.mMaxTimeToReadyNanos.get()));
+    // Describe the failures.
+    final WritableMap lFailures = Arguments.createMap();
+    for (final Map.Entry<String, AtomicLong> lEntry : this.getFailures().entrySet()) {
+      lFailures.putDouble(lEntry.getKey(), lEntry.getValue().get());
+    }
+    lMetrics.putMap("failures", lFailures);
+    // Describe each FontFace, keyed by uri.
+    final WritableMap lFaces = Arguments.createMap();
+    for (final FaceMetrics lFaceMetrics : this.getFaces().values()) {
+      // Allocate the FontFace.
+      final WritableMap lFace = Arguments.createMap();
+      lFace.putDouble("bytesDownloaded", lFaceMetrics.mBytesDownloaded);
+      lFace.putInt("downloads", lFaceMetrics.mDownloads);
+      lFace.putInt("failures", lFaceMetrics.mFailures);
+      // Only describe timings which have been observed.
+      if (lFaceMetrics.mDownloadNanos >= 0) {
+        lFace.putDouble("downloadMs", RNCustomFontsMetrics.toMillis(lFaceMetrics.mDownloadNanos));
+      }
+      if (lFaceMetrics.mDecodeNanos >= 0) {
+        lFace.putDouble("decodeMs", RNCustomFontsMetrics.toMillis(lFaceMetrics.mDecodeNanos));
+      }
+      if (lFaceMetrics.mTimeToReadyNanos.get() >= 0) {
+        lFace.putDouble("timeToReadyMs", RNCustomFontsMetrics.toMillis(lFaceMetrics.mTimeToReadyNanos.get()));
+      }
+      lFaces.putMap(lFaceMetrics.mUri, lFace);
+    }
+    lMetrics.putMap("fontFaces", lFaces);
+    // Return the snapshot.
+    return lMetrics;
+  }
+
+  /* Getters. */
+  private final ConcurrentMap<String, AtomicLong> getFailures() {
+    return this.mFailures;
+  }
+
+  private final Map<File, FaceMetrics> getFaces() {
+    return this.mFaces;
+  }
+
+}
@@ -8,48 +8,85 @@ import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.ReadableMap;
 import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMapKeySetIterator;
+import com.facebook.react.bridge.ReadableType;
 import com.facebook.react.bridge.ReadableNativeArray;
 import com.facebook.react.bridge.ReadableNativeMap;
 import com.facebook.react.bridge.Arguments;
-import com.facebook.react.modules.core.ChoreographerCompat;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
+import com.facebook.react.uimanager.NativeViewHierarchyManager;
+import com.facebook.react.uimanager.UIBlock;
+import com.facebook.react.uimanager.UIManagerModule;
 
 import java.io.File;
+import java.lang.ref.WeakReference;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Set;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.lang.Runnable;
 import java.io.IOException;
-import java.io.BufferedInputStream;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.zip.GZIPInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.nio.channels.FileChannel;
 import java.net.URLConnection;
+import java.net.HttpURLConnection;
 
-import android.os.AsyncTask;
 import android.content.Context;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.View;
 import android.widget.TextView;
 import android.graphics.Typeface;
+import android.graphics.fonts.Font;
+import android.graphics.fonts.FontFamily;
+import android.graphics.fonts.FontStyle;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 /** A React Native module used to cache fonts specified via a network connection. */
 public class RNCustomFontsModule extends ReactContextBaseJavaModule {
 
   /* Static Declarations. */
-  private static final String TAG                 = "RNCustomFonts";
+  /* package */ static final String   TAG             = "RNCustomFonts";
+  private       static final int      NUMBER_OF_LOCKS = 32;
+  private       static final String   EVENT_METRICS   = "RNCustomFontsMetrics";
+  private       static final String   STATUS_READY    = "ready";
+  private       static final String   STATUS_PENDING  = "pending";
+  private       static final String   STATUS_FAILED   = "failed";
+  /** The fields of a FontFace which determine its font, in the order they contribute to its signature. */
+  private       static final String[] SIGNATURE_KEYS  = new String[] { "uri", "fontFamily", "fontWeight", "fontStyle", "unicodeRange", "fontVariationSettings", "fontStretch" };
 
   /** A generic callback class. */
-  private static interface ICallback <T> {
+  /* package */ static interface ICallback <T> {
     /** Called on success of the asynchronous action. */
     public void onSuccess(final T pT);
     /** Called when the asynchronous action has failed. */
     public void onFailure(final Exception pException);
   }
 
-  // TODO: be sure these don't get kept in memory
   /** A class which accepts a Promise, and decides to resolve or reject once all of it's dependencies have been resolved. */
   private static class PendingFontFace {
     /* Member Variables. */
@@ -73,6 +110,8 @@ public class RNCustomFontsModule extends ReactContextBaseJavaModule {
         if (this.getPending().containsKey(pFile)) {
           // Remove the File from Pending.
           this.getPending().remove(pFile);
+          // Allow subclasses to track the outcome.
+          this.onResolved(pFile, pIsSuccessful);
         }
         // Have we finished waiting for all pending transactions?
         if (this.getPending().size() == 0) {
@@ -81,7 +120,8 @@ public class RNCustomFontsModule extends ReactContextBaseJavaModule {
         }
       }
     }
-    // TODO: create a list of errors and successes to be handled back in js for resolve/reject functionality
+    /** Called whilst synchronized upon ourself each time one of the dependencies resolves. */
+    protected void onResolved(final File pFile, final boolean pIsSuccessful) { }
     /** Called by the class once waiting for the dependencies has finished. */
     protected void onFinishedPending(final boolean pIsSuccessful) {
       this.getPromise().resolve(
@@ -89,99 +129,721 @@ public class RNCustomFontsModule extends ReactContextBaseJavaModule {
       );
     }
     /* Getters. */
-    private final Promise getPromise() {
+    protected final Promise getPromise() {
       return this.mPromise;
     }
-    private final Map<File, String> getPending() {
+    protected final Map<File, String> getPending() {
       return this.mPending;
     }
   }
 
-  /** Writes the contents of an InputStream to an OutputStream. */
-  private static final void channelStreams(final InputStream pInputStream, final OutputStream pOutputStream) throws IOException {
-    // Declare the read buffer. (TODO: Configurable length?)
-    final byte[] bytes        = new byte[1024];
-    // Allocate a variable to track how many bytes we read.
-          int    numberOfBytes = 0;
-    // Iteratively read the streams.
-    while((numberOfBytes = pInputStream.read(bytes)) != -1) {
-      // Write the data to the OutputStream.
-      pOutputStream.write(bytes, 0, numberOfBytes);
+  /** Resolves the Promise of onFontFacesChanged with the status of each FontFace, either once every FontFace has finished or once the deadline has passed, whichever is sooner. FontFaces which are still pending continue to load in the background, and are applied to any TextViews waiting on them once they arrive. */
+  private static final class DeadlineFontFace extends PendingFontFace implements Runnable {
+    /* Member Variables. */
+    private final File[]   mFiles;
+    private final String[] mStatuses;
+    private final Handler  mHandler;
+    private       boolean  mIsSettled;
+    /** Constructor. Files which are not waited upon are null. */
+    private DeadlineFontFace(final Promise pPromise, final Map<File, String> pPending, final File[] pFiles, final String[] pStatuses) {
+      // Implement the parent.
+      super(pPromise, pPending);
+      // Initialize Member Variables.
+      this.mFiles     = pFiles;
+      this.mStatuses  = pStatuses;
+      this.mHandler   = new Handler(Looper.getMainLooper());
+      this.mIsSettled = false;
+    }
+    /** Begins counting down to the deadline. (Must be called once every dependency has been managed.) */
+    private final void start(final RNCustomFontsLoadPolicy pLoadPolicy) {
+      // Synchronize upon ourself.
+      synchronized(this) {
+        // Is there nothing left to wait for?
+        if (this.getPending().isEmpty()) {
+          this.settle();
+        } else if (!this.mIsSettled && pLoadPolicy.hasDeadline()) {
+          this.getHandler().postDelayed(this, pLoadPolicy.getDeadline());
+        }
+      }
+    }
+    /** Records the outcome of a File. */
+    @Override protected final void onResolved(final File pFile, final boolean pIsSuccessful) {
+      // Update each of the FontFaces which share the File.
+      for (int i = 0; i < this.getFiles().length; i += 1) {
+        if (pFile.equals(this.getFiles()[i])) {
+          this.getStatuses()[i] = pIsSuccessful ? RNCustomFontsModule.STATUS_READY : RNCustomFontsModule.STATUS_FAILED;
+        }
+      }
+    }
+    /** Called by the class once waiting for the dependencies has finished. */
+    @Override protected final void onFinishedPending(final boolean pIsSuccessful) {
+      this.settle();
+    }
+    /** Called once the deadline has passed. */
+    @Override public final void run() {
+      // Synchronize upon ourself.
+      synchronized(this) {
+        this.settle();
+      }
+    }
+    /** Resolves the Promise with the status of each FontFace, in the order they were supplied. (Must be called whilst synchronized upon ourself.) */
+    private final void settle() {
+      // Have we already resolved?
+      if (this.mIsSettled) {
+        return;
+      }
+      this.mIsSettled = true;
+      // There's no longer any need for the deadline.
+      this.getHandler().removeCallbacks(this);
+      // Declare the statuses.
+      final WritableArray lStatuses = Arguments.createArray();
+      for (final String lStatus : this.getStatuses()) {
+        lStatuses.pushString(lStatus);
+      }
+      // Declare the result.
+      final WritableMap lResult = Arguments.createMap();
+      lResult.putArray("statuses", lStatuses);
+      // Resolve to the caller.
+      this.getPromise().resolve(lResult);
+    }
+    /* Getters. */
+    private final File[] getFiles() {
+      return this.mFiles;
+    }
+    private final String[] getStatuses() {
+      return this.mStatuses;
+    }
+    private final Handler getHandler() {
+      return this.mHandler;
+    }
+  }
+
+  /** Waits on behalf of a TextView for its Typefaces to become ready. The TextView is only weakly referenced, so that a slow download can't keep an unmounted screen alive; if the TextView is detached or collected first, the PendingView withdraws from every File it waits on and the caller is informed. */
+  private abstract class PendingView extends PendingFontFace {
+    /* Member Variables. */
+    private final RNCustomFontsViewRegistry.Waiter mWaiter;
+    private final ICallback<Typeface>              mCallback;
+    /** Constructor. */
+    private PendingView(final TextView pTextView, final Map<File, String> pPending, final ICallback<Typeface> pCallback) {
+      // Implement the parent.
+      super(null, pPending);
+      // Initialize Member Variables.
+      this.mWaiter   = new RNCustomFontsViewRegistry.Waiter(RNCustomFontsModule.this.getViewRegistry(), pTextView) {
+        @Override final void onAbandoned(final String pReason) {
+          PendingView.this.onAbandoned(pReason);
+        }
+      };
+      this.mCallback = pCallback;
+    }
+    /** Begins to watch the TextView. (Must be called once the PendingView has been scheduled.) */
+    private final void watch() {
+      RNCustomFontsModule.this.getViewRegistry().watch(this.getWaiter());
+    }
+    /** Called by the class once waiting for the dependencies has finished. */
+    @Override protected final void onFinishedPending(final boolean pIsSuccessful) {
+      // Has the TextView already been abandoned? If so, the caller has already been informed.
+      if (!this.getWaiter().settle()) {
+        return;
+      }
+      // Fetch the TextView.
+      final TextView lTextView = this.getWaiter().get();
+      // Was it collected in the meantime?
+      if (lTextView == null) {
+        this.getCallback().onFailure(new Exception("The TextView was collected before its Typeface became ready."));
+        return;
+      }
+      // Deliver the result.
+      this.onFinishedPending(lTextView, pIsSuccessful, this.getCallback());
+    }
+    /** Called once every dependency has resolved, whilst the TextView is still alive. */
+    protected abstract void onFinishedPending(final TextView pTextView, final boolean pIsSuccessful, final ICallback<Typeface> pCallback);
+    /** Called when the TextView will never display the Typeface. */
+    private final void onAbandoned(final String pReason) {
+      // Have we already been settled?
+      if (!this.getWaiter().settle()) {
+        return;
+      }
+      // Fetch the Files we're still waiting on.
+      final Set<File> lFiles;
+      synchronized(this) {
+        lFiles = new HashSet<File>(this.getPending().keySet());
+      }
+      // Withdraw from each of the Files, so that we're no longer reachable.
+      for (final File lFile : lFiles) {
+        // Synchronize upon the File.
+        synchronized(RNCustomFontsModule.this.getLockFor(lFile)) {
+          // Fetch the PendingFontFaces of the File. (These will have been detached if the File has resolved in the meantime.)
+          final List<PendingFontFace> lPendingFontFaces = RNCustomFontsModule.this.getPendingFontFaces().get(lFile);
+          if (lPendingFontFaces != null) {
+            lPendingFontFaces.remove(this);
+          }
+        }
+      }
+      // Inform the caller.
+      this.getCallback().onFailure(new Exception(pReason));
+    }
+    /* Getters. */
+    private final RNCustomFontsViewRegistry.Waiter getWaiter() {
+      return this.mWaiter;
+    }
+    private final ICallback<Typeface> getCallback() {
+      return this.mCallback;
+    }
+  }
+
+  /** Collects the outcomes of a batch of font requests, and resolves the Promise once every request has completed. */
+  private static final class PendingRequests {
+    /* Member Variables. */
+    private final Promise   mPromise;
+    private final String[]  mErrors;
+    private final boolean[] mIsResolved;
+    private       int       mRemaining;
+    /** Constructor. */
+    private PendingRequests(final Promise pPromise, final int pNumberOfRequests) {
+      // Initialize Member Variables.
+      this.mPromise    = pPromise;
+      this.mErrors     = new String[pNumberOfRequests];
+      this.mIsResolved = new boolean[pNumberOfRequests];
+      this.mRemaining  = pNumberOfRequests;
+      // Is there nothing to wait for?
+      if (pNumberOfRequests == 0) {
+        this.onFinishedPending();
+      }
+    }
+    /** A call to define that the request at the specified index has completed. The Exception is null on success. Only the first outcome of each request is recorded. */
+    private final void onResolutionOf(final int pIndex, final Exception pException) {
+      // Synchronize upon ourself.
+      synchronized(this) {
+        // Has the request already completed?
+        if (this.mIsResolved[pIndex]) {
+          return;
+        }
+        this.mIsResolved[pIndex] = true;
+        // Record the outcome.
+        this.mErrors[pIndex] = (pException == null) ? null : String.valueOf(pException.getMessage());
+        // Have we finished waiting for all of the requests?
+        if ((this.mRemaining -= 1) == 0) {
+          this.onFinishedPending();
+        }
+      }
+    }
+    /** Resolves the Promise with the outcome of each request. */
+    private final void onFinishedPending() {
+      // Allocate the outcomes.
+      final WritableArray lErrors = Arguments.createArray();
+      // Iterate the outcomes.
+      for (final String lError : this.mErrors) {
+        // Was the request successful?
+        if (lError == null) {
+          lErrors.pushNull();
+        } else {
+          lErrors.pushString(lError);
+        }
+      }
+      // Resolve the Promise.
+      this.mPromise.resolve(lErrors);
+    }
+  }
+
+  /** Writes the contents of an InputStream to the end of a FileOutputStream, and returns the number of bytes written. File sources are transferred by the kernel without passing through user space; everything else is read straight into the array of a pooled buffer, which is then written to the file. */
+  /* package */ static final long channelStreams(final InputStream pInputStream, final FileOutputStream pFileOutputStream, final RNCustomFontsBufferPool pBufferPool) throws IOException {
+    // Fetch the destination Channel. (We write at its current end, so that appends are supported.)
+    final FileChannel lFileChannel = pFileOutputStream.getChannel();
+    // Is the source a file?
+    if (pInputStream instanceof FileInputStream) {
+      // Fetch the source Channel.
+      final FileChannel lSource   = ((FileInputStream)pInputStream).getChannel();
+      final long        lStart    = lFileChannel.size();
+            long        lPosition = lStart;
+            long        lCount    = 0L;
+      // Transfer the file directly. (transferFrom may move fewer bytes than requested, so we must iterate.)
+      while ((lCount = lFileChannel.transferFrom(lSource, lPosition, lSource.size() - lSource.position())) > 0) {
+        // Advance the destination. (transferFrom moves the source on by itself, but never the destination.)
+        lPosition += lCount;
+      }
+      // Return the number of bytes written.
+      return lPosition - lStart;
+    }
+    // Fetch a buffer from the pool. (We read into its array ourselves; Channels.newChannel would copy through an array of its own.)
+    final ByteBuffer lByteBuffer = pBufferPool.acquire();
+    final byte[]     lBytes      = lByteBuffer.array();
+    // Track the number of bytes written.
+          long       lTotal      = 0L;
+    try {
+      // Track whether we've exhausted the source.
+      boolean lIsEndOfStream = false;
+      // Iteratively read the source.
+      while (!lIsEndOfStream) {
+        // Fill the buffer as far as we can, so that we write in large blocks.
+        while (lByteBuffer.hasRemaining()) {
+          // Read from the source.
+          final int lCount = pInputStream.read(lBytes, lByteBuffer.arrayOffset() + lByteBuffer.position(), lByteBuffer.remaining());
+          // Has the source been exhausted?
+          if (lCount < 0) {
+            lIsEndOfStream = true;
+            break;
+          }
+          // Advance the buffer past what we've read.
+          lByteBuffer.position(lByteBuffer.position() + lCount);
+        }
+        // Prepare the buffer to be drained.
+        lByteBuffer.flip();
+        // Drain the buffer into the file.
+        while (lByteBuffer.hasRemaining()) {
+          lTotal += lFileChannel.write(lByteBuffer);
+        }
+        // Prepare the buffer to be filled.
+        lByteBuffer.clear();
+      }
+    } finally {
+      // Return the buffer to the pool.
+      pBufferPool.release(lByteBuffer);
+    }
+    // Return the number of bytes written.
+    return lTotal;
+  }
+
+  /** Describes the outcome of a successful download. */
+  /* package */ static final class DownloadResult {
+    /* Member Variables. */
+    private final RNCustomFontsCacheManifest.Entry mEntry;
+    private final boolean                          mIsModified;
+    private final long                             mBytesTransferred;
+    /** Constructor. */
+    private DownloadResult(final RNCustomFontsCacheManifest.Entry pEntry, final boolean pIsModified, final long pBytesTransferred) {
+      // Initialize Member Variables.
+      this.mEntry            = pEntry;
+      this.mIsModified       = pIsModified;
+      this.mBytesTransferred = pBytesTransferred;
+    }
+    /* Getters. */
+    private final RNCustomFontsCacheManifest.Entry getEntry() {
+      return this.mEntry;
+    }
+    /** Returns false if the server confirmed that our cached copy is still current. */
+    /* package */ final boolean isModified() {
+      return this.mIsModified;
+    }
+    /** Returns the number of bytes received from the server. (When resuming, this excludes the bytes we already had.) */
+    private final long getBytesTransferred() {
+      return this.mBytesTransferred;
+    }
+  }
+
+  /** Describes a FontFace which only covers part of its FontFamily. */
+  private static final class FontSubset {
+    /* Member Variables. */
+    private final String                    mUri;
+    private final RNCustomFontsUnicodeRange mUnicodeRange;
+    /** Constructor. */
+    private FontSubset(final String pUri, final RNCustomFontsUnicodeRange pUnicodeRange) {
+      // Initialize Member Variables.
+      this.mUri          = pUri;
+      this.mUnicodeRange = pUnicodeRange;
+    }
+    /* Getters. */
+    private final String getUri() {
+      return this.mUri;
+    }
+    private final RNCustomFontsUnicodeRange getUnicodeRange() {
+      return this.mUnicodeRange;
+    }
+  }
+
+  /** Describes a face whose uri has changed, but which continues to be served by its previous uri until the replacement is ready. */
+  private static final class HotSwap {
+    /* Member Variables. */
+    private final String mFontFamily;
+    private final String mFontWeight;
+    private final String mUri;
+    /** Constructor. */
+    private HotSwap(final String pFontFamily, final String pFontWeight, final String pUri) {
+      // Initialize Member Variables.
+      this.mFontFamily = pFontFamily;
+      this.mFontWeight = pFontWeight;
+      this.mUri        = pUri;
     }
-    // Ensure all of the bytes are written.
-    pOutputStream.flush();
+    /* Getters. */
+    private final String getFontFamily() {
+      return this.mFontFamily;
+    }
+    private final String getFontWeight() {
+      return this.mFontWeight;
+    }
+    private final String getUri() {
+      return this.mUri;
+    }
+  }
+
+  /** Remembers what we've learned about a FontFace declared by the fontFaces prop, so that it needn't be learned again whilst the FontFace remains unchanged. */
+  private static final class FontFaceRecord {
+    /* Member Variables. */
+    private final boolean mIsInError;
+    private final boolean mIsFontSubset;
+    private final String  mFontFamily;
+    private final File    mFile;
+    /** Constructor. */
+    private FontFaceRecord(final boolean pIsInError, final boolean pIsFontSubset, final String pFontFamily, final File pFile) {
+      // Initialize Member Variables.
+      this.mIsInError    = pIsInError;
+      this.mIsFontSubset = pIsFontSubset;
+      this.mFontFamily   = pFontFamily;
+      this.mFile         = pFile;
+    }
+    /* Getters. */
+    private final boolean isInError() {
+      return this.mIsInError;
+    }
+    private final boolean isFontSubset() {
+      return this.mIsFontSubset;
+    }
+    /** Returns the FontFamily of the FontFace, or null if it is erroneous. */
+    private final String getFontFamily() {
+      return this.mFontFamily;
+    }
+    /** Returns the File of the FontFace, or null if it is erroneous or a subset. */
+    private final File getFile() {
+      return this.mFile;
+    }
+  }
+
+  /** Determines when a response expires, using the Cache-Control and Expires headers. Returns a negative value if the server did not say. */
+  private static final long getExpiresAt(final URLConnection pUrlConnection, final long pNow) {
+    // Fetch the Cache-Control header.
+    final String lCacheControl = pUrlConnection.getHeaderField("Cache-Control");
+    // Has the header been specified?
+    if (lCacheControl != null) {
+      // Iterate the directives.
+      for (final String lDirective : lCacheControl.toLowerCase().split(",")) {
+        // Remove surrounding whitespace.
+        final String lTrimmed = lDirective.trim();
+        // Must the response be revalidated before each use?
+        if (lTrimmed.equals("no-cache") || lTrimmed.equals("no-store")) {
+          return pNow;
+        }
+        // Has the server specified a lifetime?
+        if (lTrimmed.startsWith("max-age=")) {
+          try {
+            // Compute the expiry time.
+            return pNow + Long.parseLong(lTrimmed.substring("max-age=".length()).trim()) * 1000L;
+          } catch (final NumberFormatException pNumberFormatException) {
+            // Ignore malformed lifetimes.
+          }
+        }
+      }
+    }
+    // Fall back to the Expires header, if any.
+    final long lExpiration = pUrlConnection.getExpiration();
+    // Return the expiry time.
+    return (lExpiration > 0) ? lExpiration : -1L;
+  }
+
+  /** Parses a numeric header, returning a negative value if it is absent or malformed. */
+  private static final long getLongHeaderField(final URLConnection pUrlConnection, final String pName) {
+    // Fetch the header.
+    final String lValue = pUrlConnection.getHeaderField(pName);
+    try {
+      // Parse the value.
+      return (lValue == null) ? -1L : Long.parseLong(lValue.trim());
+    } catch (final NumberFormatException pNumberFormatException) {
+      // The header is malformed.
+      return -1L;
+    }
+  }
+
+  /** Returns the file that a download is written to before it is moved into place. A partially downloaded file may be resumed later. */
+  private static final File getTempFileOf(final File pFile) {
+    return new File(pFile.getPath() + ".download");
   }
 
-  /** Downloads a file from the network to the specified file path. */
-  private static final void downloadFileTo(
+  /** Downloads a file from the network to the specified file path, along the DownloadEngine. If a previous Entry is supplied, the request is made conditionally, and the file is left untouched if it has not been modified. The content is written to a temporary file which is checked for length and then atomically moved into place; if a previous attempt was interrupted, it is resumed using a Range request where the server allows. The Callback is invoked on the download thread. */
+  /* package */ static final void downloadFileTo(
+      final RNCustomFontsDownloadEngine pDownloadEngine,
+      final RNCustomFontsCacheManifest pCacheManifest,
+      final RNCustomFontsBufferPool pBufferPool,
+      final RNCustomFontsHttpClient pHttpClient,
+      final RNCustomFontsLoadPolicy pLoadPolicy,
       final String pUri,
       final File pFile,
-      final ICallback<Void> pCallback
+      final RNCustomFontsCacheManifest.Entry pEntry,
+      final ICallback<DownloadResult> pCallback
   ) throws IOException {
-    // Allocate an AsyncTask to handle file downloads.
-    final AsyncTask<Void, Void, Exception> lAsyncTask = new AsyncTask<Void, Void, Exception>() {
-      /** Implements the file download. */
-      @Override protected final Exception doInBackground(final Void ... pIsUnused) {
+    // Schedule the download along the DownloadEngine.
+    pDownloadEngine.execute(pUri, new RNCustomFontsDownloadEngine.Download() {
+      /** Settles the caller if the module is torn down before the download begins. */
+      @Override public final void onRejected(final RejectedExecutionException pRejectedExecutionException) {
+        pCallback.onFailure(pRejectedExecutionException);
+      }
+      @Override public final void run() {
         // Fetch the parent directory.
-        final File          lParent        = pFile.getParentFile();
+        final File   lParent        = pFile.getParentFile();
+        // Declare a temporary file to write to; the existing file may still be in use, so we must only replace it once we're done.
+        final File   lTempFile      = RNCustomFontsModule.getTempFileOf(pFile);
+        // Fetch the record of any partial download. We can only resume if it came from the same uri, and the server gave us a validator to resume against.
+        final RNCustomFontsCacheManifest.Entry lPartialEntry = pCacheManifest.get(lTempFile);
+        final long   lResumeFrom    = (lPartialEntry != null && lPartialEntry.getUri().equals(pUri) && lPartialEntry.hasValidators() && lTempFile.exists()) ? lTempFile.length() : 0L;
         // Declare the I/O dependencies.
-        InputStream  lInputStream  = null;
-        OutputStream lOutputStream = null;
+        URLConnection    lUrlConnection = null;
+        boolean          lIsReleased    = false;
+        InputStream      lInputStream   = null;
+        FileOutputStream lOutputStream  = null;
+        // Declare the result.
+        DownloadResult lDownloadResult = null;
+        // Track whether the partial download is worth keeping if we fail.
+        boolean lIsResumable = false;
         try {
-          // Fetch the Url.
-          final URL           lUrl           = new URL(pUri);
-          final URLConnection lUrlConnection = lUrl.openConnection();
+          // Prepare the request. This is the only request we make for the font; its connection is drawn from, and returned to, the keep-alive pool.
+          lUrlConnection = pHttpClient.open(pUri, pLoadPolicy);
+          // Are we resuming a partial download?
+          if (lResumeFrom > 0 && lUrlConnection instanceof HttpURLConnection) {
+            // Request the remainder of the file, but only if it hasn't changed since; otherwise the server will send all of it.
+            lUrlConnection.setRequestProperty("Range", "bytes=" + lResumeFrom + "-");
+            lUrlConnection.setRequestProperty("If-Range", (lPartialEntry.getETag() != null) ? lPartialEntry.getETag() : lPartialEntry.getLastModified());
+            // Byte ranges refer to the encoded representation, so we must resume the representation we started with.
+            lUrlConnection.setRequestProperty("Accept-Encoding", "identity");
+          } else if (lUrlConnection instanceof HttpURLConnection) {
+            // Ask for a compressed transfer. (We decompress it ourselves, rather than relying upon the platform to do so transparently.)
+            lUrlConnection.setRequestProperty("Accept-Encoding", "gzip");
+          }
+          // Are we revalidating an existing copy?
+          if (lResumeFrom <= 0 && pEntry != null && lUrlConnection instanceof HttpURLConnection) {
+            // Supply the validators, so that we can revalidate our existing copy.
+            if (pEntry.getETag() != null) {
+              lUrlConnection.setRequestProperty("If-None-Match", pEntry.getETag());
+            }
+            if (pEntry.getLastModified() != null) {
+              lUrlConnection.setRequestProperty("If-Modified-Since", pEntry.getLastModified());
+            }
+          }
           // Establish the connection.
           lUrlConnection.connect();
-          // Does the target directory not yet exist? (This would be on first file download.)
-          if (!lParent.exists()) {
-            // Ensure the directory can be written.
-            lParent.mkdirs();
+          // Fetch the time of the response.
+          final long lNow = System.currentTimeMillis();
+          // Declare whether the server is honouring our Range request.
+          boolean lIsPartialContent = false;
+          // Is this a HTTP transaction?
+          if (lUrlConnection instanceof HttpURLConnection) {
+            // Fetch the response code.
+            final int lResponseCode = ((HttpURLConnection)lUrlConnection).getResponseCode();
+            // Has the server confirmed that our copy is current?
+            if (lResponseCode == HttpURLConnection.HTTP_NOT_MODIFIED && pEntry != null) {
+              // Refresh the Entry. (A 304 need not repeat the validators, so we fall back to the ones we had.)
+              lDownloadResult = new DownloadResult(
+                new RNCustomFontsCacheManifest.Entry(
+                  pUri,
+                  pEntry.getSize(),
+                  lNow,
+                  (lUrlConnection.getHeaderField("ETag") != null) ? lUrlConnection.getHeaderField("ETag") : pEntry.getETag(),
+                  (lUrlConnection.getHeaderField("Last-Modified") != null) ? lUrlConnection.getHeaderField("Last-Modified") : pEntry.getLastModified(),
+                  RNCustomFontsModule.getExpiresAt(lUrlConnection, lNow),
+                  pEntry.getContentHash()
+                ),
+                false,
+                0L
+              );
+              // There's no body to read, so the connection can be reused straight away.
+              pHttpClient.release(lUrlConnection);
+              lIsReleased = true;
+            } else if (lResponseCode == HttpURLConnection.HTTP_PARTIAL && lResumeFrom > 0) {
+              // Ensure the server is continuing from where we left off. (Content-Range takes the form "bytes start-end/total".)
+              final String lContentRange = lUrlConnection.getHeaderField("Content-Range");
+              if (lContentRange == null || !lContentRange.trim().startsWith("bytes " + lResumeFrom + "-")) {
+                throw new IOException("Unexpected Content-Range \"" + lContentRange + "\" when resuming \"" + pUri + "\" from byte " + lResumeFrom + ".");
+              }
+              // We can append to the partial download.
+              lIsPartialContent = true;
+            } else if (lResponseCode / 100 != 2) {
+              // Allow the connection to be reused.
+              pHttpClient.release(lUrlConnection);
+              lIsReleased = true;
+              // The server failed to deliver the font.
+              throw new IOException("Unexpected response code " + lResponseCode + " when downloading \"" + pUri + "\".");
+            }
+          }
+          // Do we still need to fetch the content?
+          if (lDownloadResult == null) {
+            // Does the target directory not yet exist? (This would be on first file download.)
+            if (!lParent.exists()) {
+              // Ensure the directory can be written.
+              lParent.mkdirs();
+            }
+            // Has the server compressed the transfer? (A compressed transfer can't be resumed by offset into the decompressed file, and its Content-Length does not describe the file we write.)
+            final boolean lIsCompressed = !lIsPartialContent && "gzip".equalsIgnoreCase(lUrlConnection.getContentEncoding());
+            // Determine how many bytes we expect the finished file to contain, if the server has told us.
+            final long lContentLength = lIsCompressed ? -1L : RNCustomFontsModule.getLongHeaderField(lUrlConnection, "Content-Length");
+            final long lExpectedSize  = (lContentLength < 0) ? -1L : (lIsPartialContent ? lResumeFrom + lContentLength : lContentLength);
+            // Fetch the validators for this response. When resuming, the server has promised these match the ones we resumed against.
+            final String lETag         = lIsPartialContent ? lPartialEntry.getETag() : lUrlConnection.getHeaderField("ETag");
+            final String lLastModified = lIsPartialContent ? lPartialEntry.getLastModified() : lUrlConnection.getHeaderField("Last-Modified");
+            // Is this a fresh response?
+            if (!lIsPartialContent) {
+              // Record what we're downloading, so that an interruption can be resumed; if the server hasn't given us a validator, there's nothing to resume against.
+              if ((lETag != null || lLastModified != null) && !lIsCompressed) {
+                pCacheManifest.put(lTempFile, new RNCustomFontsCacheManifest.Entry(pUri, lExpectedSize, lNow, lETag, lLastModified, -1L, null));
+              } else {
+                pCacheManifest.remove(lTempFile);
+              }
+            }
+            // Attempt to allocate the I/O Streams. (When resuming, we append to the partial download; otherwise it is truncated.)
+            lInputStream  = lIsCompressed ? new GZIPInputStream(lUrlConnection.getInputStream(), RNCustomFontsBufferPool.DEFAULT_BUFFER_SIZE) : lUrlConnection.getInputStream();
+            lOutputStream = new FileOutputStream(lTempFile, lIsPartialContent);
+            // From here on, an interruption leaves behind a file which may be resumed.
+            lIsResumable  = (lETag != null || lLastModified != null) && !lIsCompressed;
+            // Write the contents of the InputStream to the OutputStream.
+            final long lBytesTransferred = RNCustomFontsModule.channelStreams(lInputStream, lOutputStream, pBufferPool);
+            // Release the I/O Streams. (Closing a fully consumed body returns the connection to the pool.)
+            lInputStream.close();
+            lOutputStream.close();
+            lIsReleased = true;
+            // Did we receive everything the server promised? (A truncated font must never be moved into place.)
+            if (lExpectedSize >= 0 && lTempFile.length() != lExpectedSize) {
+              // A file which has overrun can never be resumed.
+              lIsResumable = lTempFile.length() < lExpectedSize;
+              throw new IOException("Expected " + lExpectedSize + " bytes from \"" + pUri + "\", but received " + lTempFile.length() + ".");
+            }
+            // The transfer is complete, so there's nothing left to resume.
+            lIsResumable = false;
+            // Is the font wrapped in a web font container? Typeface only understands sfnt, so it must be unwrapped first.
+            if (RNCustomFontsWoffDecoder.isWoff(lTempFile)) {
+              // Declare the file to decode into. (This is named as a partial download, so that it's never mistaken for an orphan.)
+              final File lDecodedFile = new File(pFile.getPath() + ".sfnt.download");
+              try {
+                // Decode the font.
+                RNCustomFontsWoffDecoder.decode(lTempFile, lDecodedFile);
+                // Replace the container with the decoded font.
+                if (!lDecodedFile.renameTo(lTempFile)) {
+                  throw new IOException("Failed to move " + lDecodedFile + " to " + lTempFile + ".");
+                }
+              } finally {
+                // Clean up after a failed decode.
+                lDecodedFile.delete();
+              }
+            }
+            // Identify the content, so that identical fonts served from different uris can share a Typeface.
+            final String lContentHash = RNCustomFontsModule.getContentHashOf(lTempFile, pBufferPool);
+            // Move the file into place. (Any Typeface which has mapped the previous file continues to reference the old contents.)
+            if (!lTempFile.renameTo(pFile)) {
+              throw new IOException("Failed to move " + lTempFile + " to " + pFile + ".");
+            }
+            // The partial download has been consumed.
+            pCacheManifest.remove(lTempFile);
+            // Describe the new file.
+            lDownloadResult = new DownloadResult(
+              new RNCustomFontsCacheManifest.Entry(
+                pUri,
+                pFile.length(),
+                lNow,
+                lETag,
+                lLastModified,
+                RNCustomFontsModule.getExpiresAt(lUrlConnection, lNow),
+                lContentHash
+              ),
+              true,
+              lBytesTransferred
+            );
           }
-          // Attempt to allocate the I/O Streams.
-          lInputStream  = new BufferedInputStream(lUrl.openStream());
-          lOutputStream = new FileOutputStream(pFile);
-          // Write the contents of the InputStream to the OutputStream.
-          RNCustomFontsModule.channelStreams(lInputStream, lOutputStream);
-          // Return without error.
-          return null;
         }
         catch(final Exception pException) {
           // Prevent memory leaks, if possible.
           if ( lInputStream != null) { try {  lInputStream.close(); } catch(final Exception pIgnoredException) { /* Ignore. */ } }
           if (lOutputStream != null) { try { lOutputStream.close(); } catch(final Exception pIgnoredException) { /* Ignore. */ } }
-          // Return the Exception to onPostExecute.
-          return pException;
-        }
-      }
-      /** Communicates the result back to the caller along the UI thread. */
-      @Override public final void onPostExecute(final Exception pException) {
-        // Did the application encounter an Exception?
-        if (pException != null) {
+          // A connection which was abandoned part way through can't be reused.
+          if (lUrlConnection != null && !lIsReleased) {
+            pHttpClient.abandon(lUrlConnection);
+          }
+          // Can the partial download not be resumed?
+          if (!lIsResumable) {
+            // Discard the incomplete file.
+            lTempFile.delete();
+            pCacheManifest.remove(lTempFile);
+          }
           // Inform the Callback.
           pCallback.onFailure(pException);
-        } else {
-          // Assert that the task was successful.
-          pCallback.onSuccess(null);
+          return;
         }
+        // Assert that the task was successful.
+        pCallback.onSuccess(lDownloadResult);
       }
-      /* Unused overrides. */
-      @Override protected final void onPreExecute() {}
-    };
-    // Execute the AsyncTask along an executor.
-    lAsyncTask.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+    });
   }
 
-  /** Determines the file extension of the specified String. */
-  private static final String getFileExtensionOf(final String pString) {
+  /** Determines the file extension of the resource referenced by the specified uri, or an empty String if it does not have a sensible one. */
+  private static final String getFileExtensionOf(final String pUri) {
+    // Ignore any query or fragment.
+    final String lPath = pUri.split("[?#]", 2)[0];
     // Fetch the final index.
-    final int i = pString.lastIndexOf('.');
-    // Return the remainder of the string (inclusive).
-    return pString.substring(i);
+    final int    i     = lPath.lastIndexOf('.');
+    // Fetch the remainder of the path (inclusive).
+    final String lExtension = (i < 0) ? "" : lPath.substring(i);
+    // Only keep extensions which are safe to use in a file name.
+    return lExtension.matches("\\.[A-Za-z0-9]{1,8}") ? lExtension : "";
+  }
+
+  /** Completes the MessageDigest and returns the result in hexadecimal. */
+  private static final String toHexDigest(final MessageDigest pMessageDigest) {
+    // Fetch the digest.
+    final byte[]        lDigest        = pMessageDigest.digest();
+    // Allocate a buffer for the hexadecimal representation.
+    final StringBuilder lStringBuilder = new StringBuilder(lDigest.length * 2);
+    // Iterate the bytes.
+    for (final byte lByte : lDigest) {
+      lStringBuilder.append(Character.forDigit((lByte >> 4) & 0xF, 16)).append(Character.forDigit(lByte & 0xF, 16));
+    }
+    // Return the hexadecimal representation.
+    return lStringBuilder.toString();
+  }
+
+  /** Returns the hash used to identify the specified uri on disk. */
+  private static final String getUriHashOf(final String pUri) {
+    try {
+      // Allocate the digest.
+      final MessageDigest lMessageDigest = MessageDigest.getInstance("SHA-1");
+      // Digest the uri.
+      lMessageDigest.update(pUri.getBytes("UTF-8"));
+      // Return the hash.
+      return RNCustomFontsModule.toHexDigest(lMessageDigest);
+    } catch (final Exception pException) {
+      // SHA-1 and UTF-8 are guaranteed to be available on every platform.
+      throw new IllegalStateException(pException);
+    }
+  }
+
+  /** Returns the hash of the contents of the specified File, which identifies fonts that are byte-for-byte identical regardless of where they were fetched from. */
+  /* package */ static final String getContentHashOf(final File pFile, final RNCustomFontsBufferPool pBufferPool) throws IOException {
+    // Declare the digest.
+    final MessageDigest lMessageDigest;
+    try {
+      // Allocate the digest.
+      lMessageDigest = MessageDigest.getInstance("SHA-1");
+    } catch (final NoSuchAlgorithmException pNoSuchAlgorithmException) {
+      // SHA-1 is guaranteed to be available on every platform.
+      throw new IllegalStateException(pNoSuchAlgorithmException);
+    }
+    // Allocate the I/O dependencies.
+    final FileInputStream lFileInputStream = new FileInputStream(pFile);
+    final ByteBuffer      lByteBuffer      = pBufferPool.acquire();
+    try {
+      // Fetch the Channel.
+      final FileChannel lFileChannel = lFileInputStream.getChannel();
+      // Iteratively read the File.
+      while (lFileChannel.read(lByteBuffer) >= 0) {
+        // Digest what we've read.
+        lByteBuffer.flip();
+        lMessageDigest.update(lByteBuffer);
+        // Prepare the buffer to be filled.
+        lByteBuffer.clear();
+      }
+    } finally {
+      // Release the I/O dependencies.
+      pBufferPool.release(lByteBuffer);
+      lFileInputStream.close();
+    }
+    // Return the hash.
+    return RNCustomFontsModule.toHexDigest(lMessageDigest);
   }
 
   /** Returns the directory where cached fonts are stored. */
-  private static final File getCustomFontsDirectory(final Context pContext) throws IOException {
+  private static final File getCustomFontsDirectory(final Context pContext) {
     return new File(
       pContext.getFilesDir() + File.separator + RNCustomFontsModule.TAG
     );
@@ -194,63 +856,97 @@ public class RNCustomFontsModule extends ReactContextBaseJavaModule {
     final String lUri        = pFontFace.getString("uri");
     final String lFontFamily = pFontFace.getString("fontFamily");
     final String lFontWeight = pFontFace.getString("fontWeight");
+    // Is the unicodeRange malformed?
+    if (RNCustomFontsModule.isFontSubset(pFontFace)) {
+      try {
+        // Attempt to parse the unicodeRange.
+        RNCustomFontsUnicodeRange.parse(pFontFace.getString("unicodeRange"));
+      } catch (final IllegalArgumentException pIllegalArgumentException) {
+        Log.w(RNCustomFontsModule.TAG, "Ignoring fontFamily \"" + lFontFamily + "\" with an invalid unicodeRange.", pIllegalArgumentException);
+        return true;
+      }
+    }
     // Determine whether the font is configured correctly.
     return lUri == null || lFontFamily == null;
   }
 
-  /** Returns a list of only the valid FontFaces from a specified ReadableArray of FontFaces,*/
-  private static final List<ReadableMap> getValidFontFaces(final ReadableArray pFontFaces) {
-    // Declare the List to return,
-    final List<ReadableMap> lFontFaces = new ArrayList();
-    // Iterate the ReadableArray.
-    for (int i = 0; i < pFontFaces.size(); i += 1) {
-      // Fetch the FontFace.
-      final ReadableMap lFontFace = pFontFaces.getMap(i);
-      // If it is valid, add to the FontFaces to return.
-      if (!RNCustomFontsModule.isFontFaceInError(lFontFace)) {
-        // Buffer the FontFace.
-        lFontFaces.add(lFontFace);
+  /** Defines whether a FontFace only covers part of its FontFamily, as described by a CSS-style unicodeRange. Subsets are only fetched once text that needs them is displayed. */
+  private static final boolean isFontSubset(final ReadableMap pFontFace) {
+    return pFontFace.hasKey("unicodeRange") && !pFontFace.isNull("unicodeRange");
+  }
+
+  /** Returns a key which identifies everything a FontFace declares about its font, so that an unchanged FontFace can be recognised between calls to onFontFacesChanged. The fields are visited in a fixed order, and each value is prefixed by its length so that no two declarations share a key; styling which doesn't affect the font, such as a color, is ignored. */
+  /* package */ static final String getSignatureOf(final ReadableMap pFontFace) {
+    // Allocate the StringBuilder.
+    final StringBuilder lStringBuilder = new StringBuilder();
+    // Iterate the fields.
+    for (final String lKey : RNCustomFontsModule.SIGNATURE_KEYS) {
+      // Fetch the value. (Missing and null values are equivalent.)
+      final String lValue = RNCustomFontsModule.getSignatureValueOf(pFontFace, lKey);
+      // Append the value, or a marker if there isn't one.
+      if (lValue != null) {
+        lStringBuilder.append(lValue.length()).append(':').append(lValue);
+      } else {
+        lStringBuilder.append('-');
       }
     }
-    // Return the FontFaces.
-    return lFontFaces;
+    // Return the signature.
+    return lStringBuilder.toString();
   }
 
-  /** Returns a deterministic file location of a FontFace.*/
-  private static final File getCustomFontFile(final Context pContext, final String pUri, final String pFontFamily, final String pFontWeight) throws IOException {
-    return new File(
-      RNCustomFontsModule.getCustomFontsDirectory(pContext) + File.separator + pFontFamily + "-" + pFontWeight + RNCustomFontsModule.getFileExtensionOf(pUri)
-    );
+  /** Returns the value of a field of a FontFace as it contributes to its signature, or null if it isn't specified. */
+  private static final String getSignatureValueOf(final ReadableMap pFontFace, final String pKey) {
+    // Is the field unspecified?
+    if (!pFontFace.hasKey(pKey) || pFontFace.isNull(pKey)) {
+      return null;
+    }
+    // Convert the value according to its type.
+    switch (pFontFace.getType(pKey)) {
+      case String:
+        return "s" + pFontFace.getString(pKey);
+      case Number:
+        return "n" + pFontFace.getDouble(pKey);
+      case Boolean:
+        return "b" + pFontFace.getBoolean(pKey);
+      default:
+        // None of the fields may be a collection; the FontFace is rejected once it is validated.
+        return "?" + pFontFace.getType(pKey);
+    }
   }
 
-  /** Converts a FontFace into an equivalent Map. */
-  private static final Map<File, String> getPendingMap(final ReactApplicationContext pReactApplicationContext, final List<ReadableMap> pFontFaces) throws IOException {
-    // Allocate the PendingMap.
-    final Map<File, String> lPendingMap = new HashMap();
-    // Iterate the FontFaces.
-    for (int i = 0; i < pFontFaces.size(); i += 1) {
-      // Fetch the FontFace.
-      final ReadableMap lFontFace = pFontFaces.get(i);
-      // Fetch the Uri.
-      final String      lUri      = lFontFace.getString("uri");
-      // Buffer the corresponding implementation into the PendingMap.
-      lPendingMap.put(
-        RNCustomFontsModule.getCustomFontFile(pReactApplicationContext, lUri, lFontFace.getString("fontFamily"), lFontFace.getString("fontWeight")),
-        lUri
-      );
+  /** Validates a FontFace, and locates its File. */
+  private static final FontFaceRecord createFontFaceRecordOf(final Context pContext, final ReadableMap pFontFace) throws IOException {
+    // Is the FontFace erroneous?
+    if (RNCustomFontsModule.isFontFaceInError(pFontFace)) {
+      return new FontFaceRecord(true, false, null, null);
     }
-    // Return the PendingMap.
-    return lPendingMap;
+    // Subsets are tracked separately, and only fetched once they're needed.
+    if (RNCustomFontsModule.isFontSubset(pFontFace)) {
+      return new FontFaceRecord(false, true, pFontFace.getString("fontFamily"), null);
+    }
+    // Locate the File.
+    return new FontFaceRecord(false, false, pFontFace.getString("fontFamily"), RNCustomFontsModule.getCustomFontFile(pContext, pFontFace.getString("uri")));
+  }
+
+  /** Returns a deterministic file location of a FontFace. Files are addressed by the uri they're fetched from, so every FontFace which declares the same uri shares a single download, file and Typeface. */
+  /* package */ static final File getCustomFontFile(final Context pContext, final String pUri) throws IOException {
+    return new File(
+      RNCustomFontsModule.getCustomFontsDirectory(pContext) + File.separator + RNCustomFontsModule.getUriHashOf(pUri) + RNCustomFontsModule.getFileExtensionOf(pUri)
+    );
   }
 
   /** Declares the structure of the FontFamilies sourced by the fontFaces prop. */
-  private static final Map<String, Map<String, String>> getFontFamilies(final List<ReadableMap> pFontFaces) {
+  /* package */ static final Map<String, Map<String, String>> getFontFamilies(final List<ReadableMap> pFontFaces) {
     // Declare the Map. (<fontFamily, <fontWeight, uri>)
     final Map<String, Map<String, String>> lFontFamilies = new HashMap();
     // Iterate the FontFaces.
     for (int i = 0; i < pFontFaces.size(); i += 1) {
       // Fetch the FontFace.
       final ReadableMap lFontFace   = pFontFaces.get(i);
+      // Subsets are tracked separately.
+      if (RNCustomFontsModule.isFontSubset(lFontFace)) {
+        continue;
+      }
       // Fetch the FontFamily.
       final String      lFontFamily = lFontFace.getString("fontFamily");
       final String      lUri        = lFontFace.getString("uri");
@@ -271,183 +967,957 @@ public class RNCustomFontsModule extends ReactContextBaseJavaModule {
     return lFontFamilies;
   }
 
+  /** Declares the subsets of each FontFamily and FontWeight, in the order they were declared. (<fontFamily, <fontWeight, [subset]>) */
+  private static final Map<String, Map<String, List<FontSubset>>> getFontSubsets(final List<ReadableMap> pFontFaces) {
+    // Declare the Map.
+    final Map<String, Map<String, List<FontSubset>>> lFontSubsets = new HashMap();
+    // Iterate the FontFaces.
+    for (int i = 0; i < pFontFaces.size(); i += 1) {
+      // Fetch the FontFace.
+      final ReadableMap lFontFace = pFontFaces.get(i);
+      // Is this a subset?
+      if (!RNCustomFontsModule.isFontSubset(lFontFace)) {
+        continue;
+      }
+      // Fetch the FontFamilyMap.
+      Map<String, List<FontSubset>> lFontFamilyMap = lFontSubsets.get(lFontFace.getString("fontFamily"));
+      // Does it not yet exist?
+      if (lFontFamilyMap == null) {
+        lFontFamilyMap = new HashMap();
+        lFontSubsets.put(lFontFace.getString("fontFamily"), lFontFamilyMap);
+      }
+      // Fetch the subsets for the FontWeight.
+      List<FontSubset> lSubsets = lFontFamilyMap.get(lFontFace.getString("fontWeight"));
+      // Do they not yet exist?
+      if (lSubsets == null) {
+        lSubsets = new ArrayList();
+        lFontFamilyMap.put(lFontFace.getString("fontWeight"), lSubsets);
+      }
+      // Buffer the subset.
+      lSubsets.add(
+        new FontSubset(
+          lFontFace.getString("uri"),
+          RNCustomFontsUnicodeRange.parse(lFontFace.getString("unicodeRange"))
+        )
+      );
+    }
+    // Return the accumulated subsets.
+    return lFontSubsets;
+  }
+
+  /** Declares the fallback chain of each FontFamily, as supplied by the fontFallbacks option, i.e. { fontFamily: [fallback] }. Fallbacks which are themselves declared by the fontFaces prop are consulted in order; the first which isn't names the system family used for anything that remains. (<fontFamily, [fallback]>) */
+  private static final Map<String, List<String>> getFontFallbacks(final ReadableMap pFontFallbacks) {
+    // Declare the Map.
+    final Map<String, List<String>> lFontFallbacks = new HashMap();
+    // Were no fallbacks specified?
+    if (pFontFallbacks == null) {
+      return lFontFallbacks;
+    }
+    // Iterate the FontFamilies.
+    for (final ReadableMapKeySetIterator i = pFontFallbacks.keySetIterator(); i.hasNextKey(); ) {
+      // Fetch the FontFamily.
+      final String        lFontFamily = i.nextKey();
+      // Fetch the fallbacks.
+      final ReadableArray lFallbacks  = pFontFallbacks.isNull(lFontFamily) ? null : pFontFallbacks.getArray(lFontFamily);
+      // Were there none?
+      if (lFallbacks == null) {
+        continue;
+      }
+      // Declare the chain.
+      final List<String> lChain = new ArrayList<String>();
+      for (int j = 0; j < lFallbacks.size(); j += 1) {
+        lChain.add(lFallbacks.getString(j));
+      }
+      // Buffer the chain.
+      lFontFallbacks.put(lFontFamily, Collections.unmodifiableList(lChain));
+    }
+    // Return the accumulated fallbacks.
+    return lFontFallbacks;
+  }
+
+  /** Declares how each FontFamily and FontWeight would like to be instantiated from a variable font. Only faces which declare a fontVariationSettings or fontStretch are included. (<faceKey, Declaration>) */
+  private static final Map<String, RNCustomFontsVariations.Declaration> getFontVariations(final List<ReadableMap> pFontFaces) {
+    // Declare the Map.
+    final Map<String, RNCustomFontsVariations.Declaration> lFontVariations = new HashMap();
+    // Iterate the FontFaces.
+    for (int i = 0; i < pFontFaces.size(); i += 1) {
+      // Fetch the FontFace.
+      final ReadableMap lFontFace              = pFontFaces.get(i);
+      // Fetch the declared variations.
+      final boolean     lHasSettings           = lFontFace.hasKey("fontVariationSettings") && !lFontFace.isNull("fontVariationSettings");
+      final boolean     lHasStretch            = lFontFace.hasKey("fontStretch") && !lFontFace.isNull("fontStretch");
+      // Is this a subset, or a face without any declared variations?
+      if (RNCustomFontsModule.isFontSubset(lFontFace) || (!lHasSettings && !lHasStretch)) {
+        continue;
+      }
+      // Buffer the Declaration.
+      lFontVariations.put(
+        RNCustomFontsViewRegistry.getFaceKeyOf(lFontFace.getString("fontFamily"), lFontFace.getString("fontWeight")),
+        new RNCustomFontsVariations.Declaration(
+          lHasSettings ? lFontFace.getString("fontVariationSettings") : null,
+          lHasStretch ? (float)lFontFace.getDouble("fontStretch") : Float.NaN
+        )
+      );
+    }
+    // Return the accumulated Declarations.
+    return lFontVariations;
+  }
+
   /* Member Variables. */
-  private final Map<File, Typeface>              mTypefaces;
-  private final Map<File, String>                mUris;
-  private final Map<File, List<PendingFontFace>> mPendingFontFaces;
-  private final Map<String, Map<String, String>> mFontFamilies;
+  private final    RNCustomFontsTypefaceCache                 mTypefaces;
+  private final    Map<File, String>                          mUris;
+  private final    Map<File, List<PendingFontFace>>           mPendingFontFaces;
+  private volatile Map<String, Map<String, String>>           mFontFamilies;
+  private volatile Map<String, Map<String, List<FontSubset>>> mFontSubsets;
+  private volatile Map<String, RNCustomFontsVariations.Declaration> mFontVariations;
+  private volatile Map<String, List<String>>                  mFontFallbacks;
+  private          Map<String, FontFaceRecord>                mFontFaceRecords;
+  private          List<String>                               mSignatures;
+  private volatile RNCustomFontsCachePolicy                   mCachePolicy;
+  private volatile RNCustomFontsLoadPolicy                    mLoadPolicy;
+  private final    Map<String, Typeface>                      mComposedTypefaces;
+  private final    Map<List<File>, Typeface>                  mComposedSubsets;
+  private final    Object[]                                   mLocks;
+  private final    RNCustomFontsDownloadEngine                mDownloadEngine;
+  private final    RNCustomFontsHttpClient                    mHttpClient;
+  private final    RNCustomFontsCacheManifest                 mCacheManifest;
+  private final    RNCustomFontsBufferPool                    mBufferPool;
+  private final    RNCustomFontsTypefaceApplier               mTypefaceApplier;
+  private final    RNCustomFontsDecodeEngine                  mDecodeEngine;
+  private final    RNCustomFontsMetrics                       mMetrics;
+  private          ScheduledExecutorService                   mMetricsScheduler;
+  private volatile long                                       mMaxDiskBytes;
+  private final    Map<String, HotSwap>                       mHotSwaps;
+  private final    Map<String, RNCustomFontsFontPack>         mFontPacks;
+  private final    RNCustomFontsMappings                      mMappings;
+  private final    RNCustomFontsViewRegistry                  mViewRegistry;
+  private final    RNCustomFontsReactFonts                    mReactFonts;
+  private final    RNCustomFontsVariations                    mVariations;
 
   /** Default constructor. */
   public RNCustomFontsModule(final ReactApplicationContext pReactApplicationContext) {
+    this(
+      pReactApplicationContext,
+      RNCustomFontsDownloadEngine.DEFAULT_MAX_CONCURRENT_DOWNLOADS,
+      RNCustomFontsDownloadEngine.DEFAULT_MAX_CONCURRENT_DOWNLOADS_PER_HOST,
+      RNCustomFontsDownloadEngine.DEFAULT_MAX_QUEUED_DOWNLOADS
+    );
+  }
+
+  /** Constructor, which allows the concurrency of font downloads to be tuned. */
+  public RNCustomFontsModule(
+    final ReactApplicationContext pReactApplicationContext,
+    final int pMaxConcurrentDownloads,
+    final int pMaxConcurrentDownloadsPerHost,
+    final int pMaxQueuedDownloads
+  ) {
     // Implement the parent.
     super(pReactApplicationContext);
     // Initialize member variables.
-    this.mTypefaces        = new HashMap<File, Typeface>();
-    this.mUris             = new HashMap<File, String>();
-    this.mPendingFontFaces = new HashMap<File, List<PendingFontFace>>();
-    this.mFontFamilies     = new HashMap<String, Map<String, String>>();
+    this.mTypefaces         = new RNCustomFontsTypefaceCache(RNCustomFontsTypefaceCache.getDefaultMaxBytes());
+    this.mUris              = new ConcurrentHashMap<File, String>();
+    this.mPendingFontFaces  = new ConcurrentHashMap<File, List<PendingFontFace>>();
+    this.mFontFamilies      = Collections.<String, Map<String, String>>emptyMap();
+    this.mFontSubsets       = Collections.<String, Map<String, List<FontSubset>>>emptyMap();
+    this.mFontVariations    = Collections.<String, RNCustomFontsVariations.Declaration>emptyMap();
+    this.mFontFallbacks     = Collections.<String, List<String>>emptyMap();
+    this.mFontFaceRecords   = Collections.<String, FontFaceRecord>emptyMap();
+    this.mSignatures        = null;
+    this.mCachePolicy       = RNCustomFontsCachePolicy.getDefault();
+    this.mLoadPolicy        = RNCustomFontsLoadPolicy.getDefault();
+    this.mComposedTypefaces = new ConcurrentHashMap<String, Typeface>();
+    this.mComposedSubsets   = new ConcurrentHashMap<List<File>, Typeface>();
+    this.mLocks             = new Object[RNCustomFontsModule.NUMBER_OF_LOCKS];
+    this.mDownloadEngine    = new RNCustomFontsDownloadEngine(
+      pMaxConcurrentDownloads,
+      pMaxConcurrentDownloadsPerHost,
+      pMaxQueuedDownloads
+    );
+    this.mHttpClient        = new RNCustomFontsHttpClient();
+    this.mCacheManifest     = RNCustomFontsCacheManifest.load(
+      RNCustomFontsModule.getCustomFontsDirectory(pReactApplicationContext)
+    );
+    this.mMaxDiskBytes      = RNCustomFontsCachePolicy.DEFAULT_MAX_DISK_BYTES;
+    // (We only ever need as many buffers as there are concurrent downloads; each transfers and then hashes along its own thread, releasing one buffer before acquiring the next.)
+    this.mBufferPool        = new RNCustomFontsBufferPool(RNCustomFontsBufferPool.DEFAULT_BUFFER_SIZE, pMaxConcurrentDownloads);
+    this.mTypefaceApplier   = new RNCustomFontsTypefaceApplier();
+    this.mDecodeEngine      = new RNCustomFontsDecodeEngine(RNCustomFontsDecodeEngine.getDefaultMaxConcurrentDecodes());
+    this.mMetrics           = new RNCustomFontsMetrics();
+    this.mMetricsScheduler  = null;
+    this.mHotSwaps          = new HashMap<String, HotSwap>();
+    this.mFontPacks         = new HashMap<String, RNCustomFontsFontPack>();
+    this.mMappings          = new RNCustomFontsMappings();
+    this.mViewRegistry      = new RNCustomFontsViewRegistry();
+    this.mVariations        = new RNCustomFontsVariations();
+    this.mReactFonts        = new RNCustomFontsReactFonts(
+      pReactApplicationContext,
+      new RNCustomFontsReactFonts.Source() {
+        @Override public final Typeface getTypefaceOf(final String pFontFamily, final String pFontWeight, final String pUri) throws IOException {
+          return RNCustomFontsModule.this.getResidentTypefaceOf(
+            RNCustomFontsModule.getCustomFontFile(pReactApplicationContext, pUri),
+            pFontFamily,
+            pFontWeight
+          );
+        }
+      }
+    );
+    // Allocate the lock stripes.
+    for (int i = 0; i < this.mLocks.length; i += 1) {
+      this.mLocks[i] = new Object();
+    }
   }
 
+  /** Called when the module is invalidated. */
+  @Override public final void onCatalystInstanceDestroy() {
+    // Implement the parent.
+    super.onCatalystInstanceDestroy();
+    // Abandon any outstanding downloads and decodes; nobody is left to observe them.
+    this.getDownloadEngine().shutdown();
+    this.getDecodeEngine().shutdown();
+    // Stop emitting metrics.
+    this.setMetricsInterval(0);
+    // Persist any changes to the cache manifest which are still waiting to be written.
+    this.getCacheManifest().flush();
+  }
+
+  /** Called whenever the fontFaces prop changes. The FontFaces are diffed against the previous call; only those which were added or changed are validated and managed again, and unchanged FontFaces whose Typeface is resident are ready immediately. */
   @ReactMethod
   public final void onFontFacesChanged(
     final ReadableArray pReadableArray,
+    final ReadableMap pOptions,
     final Promise pPromise
   ) {
-    // Filter the FontFaces.
-    final List<ReadableMap> lFontFaces = RNCustomFontsModule.getValidFontFaces(pReadableArray); 
-    // Ensure we update the FontFamilies.
-    this.isolateExecutionOf(new Runnable() { @Override public final void run() {
-      // Fetch the FontFamilies.
-      final Map<String, Map<String, String>> lFontFamilies = RNCustomFontsModule.this.getFontFamilies();
-      // Clear the existing FontFamilies that are latched by the member variable.
-      RNCustomFontsModule.this.getFontFamilies().clear();
-      // Buffer the new FontFamilies reference into the instance.
-      RNCustomFontsModule.this.getFontFamilies().putAll(RNCustomFontsModule.getFontFamilies(lFontFaces));
-    }});
-    // Are there any FontFaces to manage?
-    if (lFontFaces.size() == 0) {
-      // Then terminate early; the below arcitecture works by interacting with a valid PendingFontFace; but there's nothing to pend on for this case.
-      pPromise.resolve(
-        // TODO: need to test this case
-        Arguments.createMap()
-      );
-    } else {
-      // Declare our logic dependencies.
-      PendingFontFace   lPendingFontFace = null;
-      Map<File, String> lPendingMap      = null;
-      // Attempt to allocate these dependencies.
-      try {
-        // Declare the PendingMap.
-        lPendingMap = RNCustomFontsModule.getPendingMap(
-          this.getReactApplicationContext(),
-          lFontFaces
-        );
-        // Allocate the PendingFontFace. (Notice that we make a safe clone of the PendingMap, as the PendingFontFace will attempt to modify it!)
-        lPendingFontFace = new PendingFontFace(pPromise, new HashMap<File, String>(lPendingMap));
-      }
-      catch (final Exception pException) {
-        // Propagate the error back to the caller.
-        pPromise.reject(pException);
-      }
-      finally {
-        // Did we manage to allocate the logic dependencies?
-        if (lPendingFontFace != null && lPendingMap != null) {
-          // Iterate the PendingFontFaces.
-          for (final Map.Entry<File, String> lEntry : lPendingMap.entrySet()) {
-            // Fetch the File and Uri.
-            final File   lFile = lEntry.getKey();
-            final String lUri  = lEntry.getValue();
-            // Determine whether we've encountered this font before.
-            final boolean isPreviouslyEncountered = RNCustomFontsModule.this.didPreviouslyEncounter(
-              lFile,
-              lUri
-            );
-            // Did we previously encounter it?
-            if (isPreviouslyEncountered) {
-              // So, it looks like we've seen this FontFace before. Do we have a result for the Font?
-              final boolean  lHasTypefaceResult = RNCustomFontsModule.this.getTypefaces().containsKey(lFile);
-              // Is there a result for the Typeface?
-              if (lHasTypefaceResult) {
-                // Attempt to fetch the Typeface. Note, this could be either a valid typeface, or null, to indicate a failed transaction.
-                final Typeface lTypeface = RNCustomFontsModule.this.getTypefaces().get(lFile);
-                // Is the result non-null? This means we actually have the Typeface!
-                if (lTypeface != null) {
-                  // Assert that we already have the FontFace.
-                  lPendingFontFace.onResolutionOf(lFile, lUri, true);
-                } else {
-                  // Indicate that we attempted this transaction before, and it had failed.
-                  lPendingFontFace.onResolutionOf(lFile, lUri, false);
-                }
-              } else {
-                // Allow the PendingFontFace to await resolution.
-                RNCustomFontsModule.this.schedulePendingFontFace(lFile, lUri, lPendingFontFace);
-              }
-            } else {
-              // Has the referenced file been encountered before?
-              final boolean lIsAttemptingOverwrite = RNCustomFontsModule.this.getUris().containsKey(lFile);
-              // Is the user attempting an overwrite? (i.e. the File reference has been enountered, but the uri has changed.
-              if (lIsAttemptingOverwrite) {
-                // TODO: It should be possible to do this.
-                lPendingFontFace.onResolutionOf(lFile, lUri, false);
-              } else {
-                // Let's mark the File as encountered.
-                RNCustomFontsModule.this.assertEncountered(lFile, lUri);
-                // Allow the PendingFontFace to await resolution.
-                RNCustomFontsModule.this.schedulePendingFontFace(lFile, lUri, lPendingFontFace);
-                // Attempt to download the file.
-                try {
-                  RNCustomFontsModule.this.manageDownloadOf(lFile, lUri);
-                } catch (final Exception pException) {
-                  // Catch the exception and clear any pending listeners on this file.
-                  RNCustomFontsModule.this.onUpdatePendingFontFaces(lFile, lUri, false);
-                }
-              }
-            }
-          }
+    // Fetch what we learned about the FontFaces supplied by the previous call. (These are only accessed along the native modules thread.)
+    final Map<String, FontFaceRecord> lPreviousRecords = this.getFontFaceRecords();
+    // Declare the records of the FontFaces, in the order they were supplied.
+    final Map<String, FontFaceRecord> lRecords         = new HashMap<String, FontFaceRecord>();
+    final List<String>                lSignatures      = new ArrayList<String>(pReadableArray.size());
+    final List<ReadableMap>           lFontFaces       = new ArrayList<ReadableMap>(pReadableArray.size());
+    try {
+      // Iterate the FontFaces.
+      for (int i = 0; i < pReadableArray.size(); i += 1) {
+        // Fetch the FontFace.
+        final ReadableMap    lFontFace  = pReadableArray.getMap(i);
+        final String         lSignature = RNCustomFontsModule.getSignatureOf(lFontFace);
+        // Has the FontFace changed? Only then do we need to validate it and locate its File.
+        final FontFaceRecord lPrevious  = lPreviousRecords.get(lSignature);
+        final FontFaceRecord lRecord    = (lPrevious != null) ? lPrevious : RNCustomFontsModule.createFontFaceRecordOf(this.getReactApplicationContext(), lFontFace);
+        // Buffer the record.
+        lRecords.put(lSignature, lRecord);
+        lSignatures.add(lSignature);
+        // Is the FontFace valid?
+        if (!lRecord.isInError()) {
+          lFontFaces.add(lFontFace);
         }
       }
+    } catch (final Exception pException) {
+      // Propagate the error back to the caller.
+      pPromise.reject(pException);
+      return;
     }
-  }
-
-  /** Iterates through all of the PendingFontFaces for a given file and updates them with the result. */
-  private final void onUpdatePendingFontFaces(final File pFile, final String pUri, final boolean pIsSuccessful) {
-    // Fetch the PendingFontFaces interested in this result.
-    final List<PendingFontFace> lPendingFontFaces = this.getPendingFontFaces().get(pFile);
-    // Are there any listeners at all?
-    if (!lPendingFontFaces.isEmpty()) {
-      // Iterate the PendingFontFaces.
-      for (final PendingFontFace lPendingFontFace : lPendingFontFaces) {
-        // Update the PendingFontFace.
-        lPendingFontFace.onResolutionOf(pFile, pUri, pIsSuccessful);
-      }
-      // Finally, clear the PendingFontFaces from listening to further transactions. (Allows the List to be reused.)
-      lPendingFontFaces.clear();
-    }
-  }
+    // Have the FontFaces changed at all since the previous call? If not, the published state already describes them.
+    final boolean                  lIsChanged     = !lSignatures.equals(this.getSignatures());
+    // Determine how the cached files should be treated.
+    final RNCustomFontsCachePolicy lCachePolicy   = RNCustomFontsCachePolicy.fromReadableMap(
+      (pOptions != null && pOptions.hasKey("cachePolicy") && !pOptions.isNull("cachePolicy")) ? pOptions.getMap("cachePolicy") : null
+    );
+    // Determine how long the caller is prepared to wait.
+    final RNCustomFontsLoadPolicy  lLoadPolicy    = RNCustomFontsLoadPolicy.fromReadableMap(
+      (pOptions != null && pOptions.hasKey("loadPolicy") && !pOptions.isNull("loadPolicy")) ? pOptions.getMap("loadPolicy") : null
+    );
+    // Determine the fallback chains, and whether they've changed.
+    final Map<String, List<String>> lFontFallbacks = RNCustomFontsModule.getFontFallbacks(
+      (pOptions != null && pOptions.hasKey("fontFallbacks") && !pOptions.isNull("fontFallbacks")) ? pOptions.getMap("fontFallbacks") : null
+    );
+    final Map<String, List<String>> lPrevFallbacks = this.getFontFallbacks();
+    final boolean                   lIsRecomposed  = lIsChanged || !lFontFallbacks.equals(lPrevFallbacks);
+    // Apply the cache budgets.
+    this.getTypefaces().setMaxBytes(lCachePolicy.getMaxMemoryBytes());
+    this.mMaxDiskBytes = lCachePolicy.getMaxDiskBytes();
+    // Declare the replacements of any faces whose uri has changed. (<File, uri>)
+    Map<File, String> lHotSwaps = Collections.<File, String>emptyMap();
+    // Have the FontFaces changed?
+    if (lIsChanged) {
+      // Publish how each face is instantiated ahead of the faces themselves, so that a face is never served with stale variations.
+      this.mFontVariations = Collections.unmodifiableMap(RNCustomFontsModule.getFontVariations(lFontFaces));
+      // Publish the new FontFamilies. Faces whose uri has changed keep their current Typeface until the replacement is ready.
+      lHotSwaps          = this.publishFontFamilies(RNCustomFontsModule.getFontFamilies(lFontFaces));
+      this.mFontSubsets  = Collections.unmodifiableMap(RNCustomFontsModule.getFontSubsets(lFontFaces));
+    }
+    // Publish the fallback chains.
+    this.mFontFallbacks = Collections.unmodifiableMap(lFontFallbacks);
+    // Remember the policies, so that they can be applied to subsets as they're fetched.
+    this.mCachePolicy  = lCachePolicy;
+    this.mLoadPolicy   = lLoadPolicy;
+    // Have the FontFaces changed?
+    if (lIsChanged) {
+      // Faces which are no longer declared must not be selected by style.
+      this.getReactFonts().retain(this.getFontFamilies());
+      // Release whatever the removed faces were holding on to.
+      this.releaseFontFacesOf(lPreviousRecords, lRecords);
+    }
+    // Are the compositions out of date?
+    if (lIsRecomposed) {
+      // Compose the FontFamilies whose faces or fallbacks have changed, so that their resident faces can be selected by style straight away. (Every other composition remains valid.)
+      this.scheduleRecompositionOf(RNCustomFontsModule.getChangedFontFamiliesOf(lPreviousRecords, lRecords, lPrevFallbacks, lFontFallbacks));
+    }
+    // Remember the FontFaces, so that the next call only needs to deal with what's different.
+    this.mFontFaceRecords    = lRecords;
+    this.mSignatures = lSignatures;
+    // Determine which files are replacing a face which is still being served by its previous uri; this includes replacements started by an earlier call.
+    final Set<File> lSwapping = new HashSet<File>(lHotSwaps.keySet());
+    synchronized(this.getHotSwaps()) {
+      for (final HotSwap lHotSwap : this.getHotSwaps().values()) {
+        try {
+          lSwapping.add(RNCustomFontsModule.getCustomFontFile(this.getReactApplicationContext(), lHotSwap.getUri()));
+        } catch (final IOException pIOException) {
+          // The replacement can't be located, so the face waits on it like any other.
+        }
+      }
+    }
+    // Determine the initial status of each FontFace, in the order they were supplied, and the files we need to wait on. (<File, uri>)
+    final Map<File, String> lPendingMap = new HashMap<File, String>();
+    final File[]            lFiles      = new File[pReadableArray.size()];
+    final String[]          lStatuses   = new String[pReadableArray.size()];
+    for (int i = 0; i < pReadableArray.size(); i += 1) {
+      // Fetch the record of the FontFace.
+      final FontFaceRecord lRecord = lRecords.get(lSignatures.get(i));
+      // Is the FontFace erroneous?
+      if (lRecord.isInError()) {
+        lStatuses[i] = RNCustomFontsModule.STATUS_FAILED;
+        continue;
+      }
+      // Subsets are only fetched once they're needed.
+      if (lRecord.isFontSubset()) {
+        lStatuses[i] = RNCustomFontsModule.STATUS_PENDING;
+        continue;
+      }
+      // Fetch the File.
+      final File lFile = lRecord.getFile();
+      // Faces which are being hot-swapped continue to be served by their previous uri.
+      if (lSwapping.contains(lFile)) {
+        lStatuses[i] = RNCustomFontsModule.STATUS_READY;
+        continue;
+      }
+      // Is the FontFace unchanged, and already resident? Then there's nothing to do. (Lookups never lock.)
+      if (lPreviousRecords.containsKey(lSignatures.get(i)) && this.getTypefaces().get(lFile) != null) {
+        lStatuses[i] = RNCustomFontsModule.STATUS_READY;
+        continue;
+      }
+      // Wait for the File.
+      lPendingMap.put(lFile, pReadableArray.getMap(i).getString("uri"));
+      lFiles[i]    = lFile;
+      lStatuses[i] = RNCustomFontsModule.STATUS_PENDING;
+    }
+    // Allocate the DeadlineFontFace. (Notice that we make a safe clone of the PendingMap, as the PendingFontFace will attempt to modify it!)
+    final DeadlineFontFace lDeadlineFontFace = new DeadlineFontFace(pPromise, new HashMap<File, String>(lPendingMap), lFiles, lStatuses);
+    // Iterate the FontFaces which have been added or changed, or are still on their way.
+    for (final Map.Entry<File, String> lEntry : lPendingMap.entrySet()) {
+      // Manage the FontFace.
+      this.onManageFontFace(lEntry.getKey(), lEntry.getValue(), lDeadlineFontFace, lCachePolicy);
+    }
+    // Resolve once every FontFace has finished, or the deadline has passed. (If nothing is left to wait for, we resolve immediately.)
+    lDeadlineFontFace.start(lLoadPolicy);
+    // Fetch the replacements of any faces whose uri has changed.
+    for (final Map.Entry<File, String> lEntry : lHotSwaps.entrySet()) {
+      // Fetch the dependencies.
+      final File   lFile = lEntry.getKey();
+      final String lUri  = lEntry.getValue();
+      // Manage the FontFace, and switch to it once it's ready.
+      this.onManageFontFace(
+        lFile,
+        lUri,
+        new PendingFontFace(
+          null,
+          new HashMap<File, String>() { { this.put(lFile, lUri); }}
+        ) {
+          @Override protected final void onFinishedPending(final boolean pIsSuccessful) {
+            RNCustomFontsModule.this.onHotSwapFinished(lFile, lUri, pIsSuccessful);
+          }
+        },
+        lCachePolicy
+      );
+    }
+  }
+
+  /** Returns the FontFamilies whose faces or fallbacks differ between two calls to onFontFacesChanged. */
+  private static final Set<String> getChangedFontFamiliesOf(final Map<String, FontFaceRecord> pPreviousRecords, final Map<String, FontFaceRecord> pRecords, final Map<String, List<String>> pPreviousFallbacks, final Map<String, List<String>> pFallbacks) {
+    // Declare the changed FontFamilies.
+    final Set<String> lFontFamilies = new HashSet<String>();
+    // Faces which were removed; a face which changed is both removed and added, since its signature differs.
+    for (final Map.Entry<String, FontFaceRecord> lEntry : pPreviousRecords.entrySet()) {
+      if (!pRecords.containsKey(lEntry.getKey()) && lEntry.getValue().getFontFamily() != null) {
+        lFontFamilies.add(lEntry.getValue().getFontFamily());
+      }
+    }
+    // Faces which were added.
+    for (final Map.Entry<String, FontFaceRecord> lEntry : pRecords.entrySet()) {
+      if (!pPreviousRecords.containsKey(lEntry.getKey()) && lEntry.getValue().getFontFamily() != null) {
+        lFontFamilies.add(lEntry.getValue().getFontFamily());
+      }
+    }
+    // Fallbacks which were removed, added or changed.
+    final Set<String> lFallbacks = new HashSet<String>(pPreviousFallbacks.keySet());
+    lFallbacks.addAll(pFallbacks.keySet());
+    for (final String lFontFamily : lFallbacks) {
+      final List<String> lPrevious = pPreviousFallbacks.get(lFontFamily);
+      if (lPrevious == null || !lPrevious.equals(pFallbacks.get(lFontFamily))) {
+        lFontFamilies.add(lFontFamily);
+      }
+    }
+    // Return the changed FontFamilies.
+    return lFontFamilies;
+  }
+
+  /** Releases the files of faces which were removed since the previous call to onFontFacesChanged, unless a remaining face still uses them; this includes faces which continue to be served by their previous uri whilst they're hot-swapped. Their Typefaces are evicted, so they're decoded again should they ever be declared again, and anybody still waiting on them is told they've failed rather than waiting on the download. (Must be called after the FontFamilies have been published.) */
+  private final void releaseFontFacesOf(final Map<String, FontFaceRecord> pPreviousRecords, final Map<String, FontFaceRecord> pRecords) {
+    // Determine the files which remain in use, or have already been handled.
+    final Set<File>   lFiles = new HashSet<File>();
+    for (final FontFaceRecord lRecord : pRecords.values()) {
+      if (lRecord.getFile() != null) {
+        lFiles.add(lRecord.getFile());
+      }
+    }
+    // Determine the uris which are still being served.
+    final Set<String> lUris  = new HashSet<String>();
+    for (final Map<String, String> lFontWeights : this.getFontFamilies().values()) {
+      lUris.addAll(lFontWeights.values());
+    }
+    // Iterate the faces of the previous call.
+    for (final Map.Entry<String, FontFaceRecord> lEntry : pPreviousRecords.entrySet()) {
+      // Fetch the File of the face.
+      final File lFile = lEntry.getValue().getFile();
+      // Is the face still declared, or its File still in use or already released?
+      if (lFile == null || pRecords.containsKey(lEntry.getKey()) || !lFiles.add(lFile)) {
+        continue;
+      }
+      // Fetch the uri the File was fetched from.
+      final String lUri = this.getUris().get(lFile);
+      // Was the File never managed, or is it still being served?
+      if (lUri == null || lUris.contains(lUri)) {
+        continue;
+      }
+      // Release the Typeface. (The file remains on disk, within the budget of the cache.)
+      this.getTypefaces().evict(lFile);
+      // Release anybody still waiting on the File.
+      this.onUpdatePendingFontFaces(lFile, lUri, false);
+    }
+  }
+
+  /** Publishes the FontFamilies. These are never modified once published, so they can be read without locking. A face whose uri has changed whilst its current Typeface is resident continues to be served by the previous uri until the replacement is ready. Returns the replacements which must be fetched. (<File, uri>) */
+  private final Map<File, String> publishFontFamilies(final Map<String, Map<String, String>> pFontFamilies) {
+    // Declare the replacements.
+    final Map<File, String> lHotSwaps = new HashMap<File, String>();
+    // Synchronize upon the HotSwaps, so that we can't race a replacement which is becoming ready.
+    synchronized(this.getHotSwaps()) {
+      // Any replacements which are still in flight have been superseded.
+      this.getHotSwaps().clear();
+      // Fetch the FontFamilies which are currently being served.
+      final Map<String, Map<String, String>> lPublished = this.getFontFamilies();
+      // Iterate the FontFamilies.
+      for (final Map.Entry<String, Map<String, String>> lFontFamily : pFontFamilies.entrySet()) {
+        // Iterate the FontWeights.
+        for (final Map.Entry<String, String> lFontWeight : lFontFamily.getValue().entrySet()) {
+          // Fetch the uri currently being served for this face.
+          final String lPreviousUri = RNCustomFontsModule.getUriFor(lPublished, lFontFamily.getKey(), lFontWeight.getKey());
+          final String lUri         = lFontWeight.getValue();
+          // Has the uri changed?
+          if (lPreviousUri == null || lPreviousUri.equals(lUri)) {
+            continue;
+          }
+          try {
+            // Fetch the Files of each uri.
+            final File lPreviousFile = RNCustomFontsModule.getCustomFontFile(this.getReactApplicationContext(), lPreviousUri);
+            final File lFile         = RNCustomFontsModule.getCustomFontFile(this.getReactApplicationContext(), lUri);
+            // Is the replacement already ready, or is there nothing to keep serving in the meantime? Then switch straight away.
+            if (this.getTypefaces().get(lFile) != null || this.getTypefaces().get(lPreviousFile) == null) {
+              continue;
+            }
+            // Keep serving the previous uri.
+            lFontWeight.setValue(lPreviousUri);
+            // Remember to switch once the replacement is ready.
+            this.getHotSwaps().put(
+              RNCustomFontsViewRegistry.getFaceKeyOf(lFontFamily.getKey(), lFontWeight.getKey()),
+              new HotSwap(lFontFamily.getKey(), lFontWeight.getKey(), lUri)
+            );
+            lHotSwaps.put(lFile, lUri);
+          } catch (final IOException pIOException) {
+            // We can't tell what's resident, so switch straight away.
+            Log.w(RNCustomFontsModule.TAG, "Unable to hot-swap uri \"" + lUri + "\".", pIOException);
+          }
+        }
+      }
+      // Publish the FontFamilies.
+      this.mFontFamilies = Collections.unmodifiableMap(pFontFamilies);
+    }
+    // Return the replacements.
+    return lHotSwaps;
+  }
 
-  /** Implements a download operation and updates any observers that are interested in the result. */
+  /** Called once the replacement for a face whose uri has changed has either become ready or failed. On success, the FontFamilies are republished to serve the replacement and it is applied to every live TextView which displays the face; otherwise, the previous uri continues to be served. */
+  private final void onHotSwapFinished(final File pFile, final String pUri, final boolean pIsSuccessful) {
+    // Fetch the replacement.
+    final Typeface     lTypeface  = this.getTypefaces().get(pFile);
+    final boolean      lIsReady   = pIsSuccessful && lTypeface != null;
+    // Declare the faces which have been switched.
+    final List<HotSwap> lSwitched = new ArrayList<HotSwap>();
+    // Synchronize upon the HotSwaps.
+    synchronized(this.getHotSwaps()) {
+      // Take a copy of the FontFamilies being served; the published snapshot must never be modified.
+      final Map<String, Map<String, String>> lFontFamilies = new HashMap<String, Map<String, String>>();
+      for (final Map.Entry<String, Map<String, String>> lEntry : this.getFontFamilies().entrySet()) {
+        lFontFamilies.put(lEntry.getKey(), new HashMap<String, String>(lEntry.getValue()));
+      }
+      // Iterate the HotSwaps.
+      for (final Iterator<Map.Entry<String, HotSwap>> i = this.getHotSwaps().entrySet().iterator(); i.hasNext(); ) {
+        // Fetch the HotSwap.
+        final Map.Entry<String, HotSwap> lEntry   = i.next();
+        final HotSwap                    lHotSwap = lEntry.getValue();
+        // Is the HotSwap waiting on this uri? (It may have been superseded in the meantime.)
+        if (!lHotSwap.getUri().equals(pUri)) {
+          continue;
+        }
+        // The HotSwap has finished either way.
+        i.remove();
+        // Is the replacement ready?
+        if (lIsReady) {
+          // Serve the replacement. (Superseded swaps are cleared whilst the FontFamilies are published, so the face is guaranteed to exist.)
+          lFontFamilies.get(lHotSwap.getFontFamily()).put(lHotSwap.getFontWeight(), pUri);
+          // Remember to update the face.
+          lSwitched.add(lHotSwap);
+        }
+      }
+      // Were any faces switched?
+      if (!lSwitched.isEmpty()) {
+        // Atomically publish the FontFamilies.
+        this.mFontFamilies = Collections.unmodifiableMap(lFontFamilies);
+        // Compositions which referenced the previous Typefaces are no longer valid, and text which selects the faces by style must be laid out using the replacements.
+        final Set<String> lFontFamilyNames = new HashSet<String>();
+        for (final HotSwap lHotSwap : lSwitched) {
+          lFontFamilyNames.add(lHotSwap.getFontFamily());
+        }
+        this.scheduleRecompositionOf(lFontFamilyNames);
+      }
+    }
+    // Did the replacement fail?
+    if (!lIsReady) {
+      Log.w(RNCustomFontsModule.TAG, "Failed to fetch uri \"" + pUri + "\"; continuing to serve the fontFace it was intended to replace.");
+      return;
+    }
+    // Iterate the faces which were switched.
+    for (final HotSwap lHotSwap : lSwitched) {
+      // Apply the replacement for this face. (A variable font may serve several faces.)
+      this.applyToViewsOf(pFile, lTypeface, lHotSwap.getFontFamily(), lHotSwap.getFontWeight());
+    }
+  }
+
+  /** Applies the instance of a face to every live TextView which displays it. Used whenever the Typeface behind a face which may already be on screen is replaced. */
+  private final void applyToViewsOf(final File pFile, final Typeface pTypeface, final String pFontFamily, final String pFontWeight) {
+    this.requestInstanceOf(pFile, pTypeface, pFontFamily, pFontWeight, new ICallback<Typeface>() {
+      /** On success... */
+      @Override public final void onSuccess(final Typeface pInstance) {
+        // Apply the replacement to every live TextView which displays the face.
+        for (final TextView lTextView : RNCustomFontsModule.this.getViewRegistry().getViewsFor(RNCustomFontsViewRegistry.getFaceKeyOf(pFontFamily, pFontWeight))) {
+          RNCustomFontsModule.this.getTypefaceApplier().schedule(pInstance, lTextView);
+        }
+      }
+      /** On failure... */
+      @Override public final void onFailure(final Exception pException) {
+        // The module is being torn down; the TextViews are going away too.
+      }
+    });
+  }
+
+  /** Decides what work is required for a single FontFace declared by the fontFaces prop, and performs it. */
+  private final void onManageFontFace(final File pFile, final String pUri, final PendingFontFace pPendingFontFace, final RNCustomFontsCachePolicy pCachePolicy) {
+    // Declare the work we need to perform once we've released the lock.
+    boolean lShouldCreateTypeface = false;
+    boolean lShouldDownload       = false;
+    // Begin measuring the time until the FontFace is ready.
+    this.getMetrics().onFontFaceRequested(pFile, pUri);
+    // Synchronize upon the File.
+    synchronized(this.getLockFor(pFile)) {
+      // Determine whether we've encountered this font before.
+      final boolean isPreviouslyEncountered = this.didPreviouslyEncounter(
+        pFile,
+        pUri
+      );
+      // Did we previously encounter it?
+      if (isPreviouslyEncountered) {
+        // So, it looks like we've seen this FontFace before. Do we have the Typeface?
+        final boolean lIsResident = this.getTypefaces().get(pFile) != null;
+        // Track how effective the Typeface cache is.
+        this.getMetrics().onTypefaceLookup(lIsResident);
+        // Is the Typeface resident?
+        if (lIsResident) {
+          // Assert that we already have the FontFace.
+          pPendingFontFace.onResolutionOf(pFile, pUri, true);
+        } else if (this.getTypefaces().isFailure(pFile)) {
+          // Indicate that we attempted this transaction before, and it had failed.
+          pPendingFontFace.onResolutionOf(pFile, pUri, false);
+        } else {
+          // Allow the PendingFontFace to await resolution.
+          this.schedulePendingFontFace(pFile, pUri, pPendingFontFace);
+          // Was the Typeface evicted? If so, it must be decoded again.
+          lShouldCreateTypeface = this.getTypefaces().claimEviction(pFile);
+        }
+      } else {
+        // Has the referenced file been claimed by a different uri?
+        final boolean lIsCollision = this.getUris().containsKey(pFile);
+        // Files are addressed by a digest of their uri, so a face whose uri changes is given a new File, and is hot-swapped by publishFontFamilies. Two uris only share a File if their digests collide.
+        if (lIsCollision) {
+          // We can't serve both, so the latecomer fails.
+          Log.w(RNCustomFontsModule.TAG, "Uri \"" + pUri + "\" collides with uri \"" + this.getUris().get(pFile) + "\".");
+          pPendingFontFace.onResolutionOf(pFile, pUri, false);
+        } else {
+          // Let's mark the File as encountered.
+          this.assertEncountered(pFile, pUri);
+          // Allow the PendingFontFace to await resolution.
+          this.schedulePendingFontFace(pFile, pUri, pPendingFontFace);
+          // We'll need to download (or revalidate) the file.
+          lShouldDownload = true;
+          // Track whether the file could be served from disk without waiting on the network. (We revise this below.)
+          boolean lIsDiskHit = false;
+          // Is the font already present on the device? Then it is used in place, without touching the network.
+          if (RNCustomFontsLocalSource.isLocal(pUri)) {
+            lShouldCreateTypeface = true;
+            lShouldDownload       = false;
+            lIsDiskHit            = true;
+          } else if (this.getCacheManifest().isCached(pFile, pUri)) {
+            // The file was already fetched by a previous session.
+            // Fetch the record of the previous download.
+            final RNCustomFontsCacheManifest.Entry lCacheEntry = this.getCacheManifest().get(pFile);
+            final long                             lNow        = System.currentTimeMillis();
+            // Is the file still fresh?
+            if (pCachePolicy.isFresh(lCacheEntry, lNow)) {
+              // There's no need to contact the server; create the Typeface straight from disk.
+              lShouldCreateTypeface = true;
+              lShouldDownload       = false;
+              lIsDiskHit            = true;
+            } else if (pCachePolicy.isUsableWhileStale(lCacheEntry, lNow)) {
+              // Create the Typeface straight from disk; the revalidation will complete in the background.
+              lShouldCreateTypeface = true;
+              lIsDiskHit            = true;
+            }
+          }
+          // Track how effective the disk cache is.
+          this.getMetrics().onDiskLookup(lIsDiskHit);
+        }
+      }
+    }
+    // Do we need to create the Typeface from disk?
+    if (lShouldCreateTypeface) {
+      this.manageTypefaceOf(pFile, pUri);
+    }
+    // Do we need to download (or revalidate) the file?
+    if (lShouldDownload) {
+      try {
+        this.manageDownloadOf(pFile, pUri);
+      } catch (final Exception pException) {
+        // Handle the failure.
+        this.onDownloadFailed(pFile, pUri, pException);
+      }
+    }
+  }
+
+  /** Iterates through all of the PendingFontFaces for a given file and updates them with the result. The result must have been published before this is called. */
+  private final void onUpdatePendingFontFaces(final File pFile, final String pUri, final boolean pIsSuccessful) {
+    // Declare the PendingFontFaces interested in this result.
+    final List<PendingFontFace> lPendingFontFaces;
+    // Synchronize upon the File.
+    synchronized(this.getLockFor(pFile)) {
+      // Detach the PendingFontFaces from listening to further transactions. Anybody who arrives after this point will observe the published result instead.
+      lPendingFontFaces = this.getPendingFontFaces().remove(pFile);
+    }
+    // Are there any listeners at all?
+    if (lPendingFontFaces != null) {
+      // Iterate the PendingFontFaces.
+      for (final PendingFontFace lPendingFontFace : lPendingFontFaces) {
+        // Update the PendingFontFace.
+        lPendingFontFace.onResolutionOf(pFile, pUri, pIsSuccessful);
+      }
+    }
+  }
+
+  /** Implements a download operation and updates any observers that are interested in the result. If the file is already cached, it is revalidated instead. */
   private final void manageDownloadOf(final File pFile, final String pUri) throws IOException {
+    // Fetch the time at which the download was requested. (Download latency includes any time spent queueing.)
+    final long lRequestedAt = System.nanoTime();
     RNCustomFontsModule.downloadFileTo(
+      this.getDownloadEngine(),
+      this.getCacheManifest(),
+      this.getBufferPool(),
+      this.getHttpClient(),
+      this.getLoadPolicy(),
       pUri,
       pFile,
-      new ICallback<Void>() {
+      // Supply the cached Entry, if any, so that the server may respond with 304 Not Modified.
+      this.getCacheManifest().isCached(pFile, pUri) ? this.getCacheManifest().get(pFile) : null,
+      new ICallback<DownloadResult>() {
         /** On success... */
-        @Override public final void onSuccess(final Void pIsUnused) {
-          // Synchronize upon ourself.
-          RNCustomFontsModule.this.isolateExecutionOf(new Runnable() { @Override public final void run() {
-            // Attempt to create the Typeface.
-            Typeface lTypeface = null;
-            try {
-              // Attempt to allocate a Typeface.
-              lTypeface = Typeface.createFromFile(pFile);
-              // Is the Typeface valid?
-              if (lTypeface != null) {
-                // Buffer the Typeface.
-                RNCustomFontsModule.this.getTypefaces().put(pFile, lTypeface);
-                // Inform listeners of the success.
-                RNCustomFontsModule.this.onUpdatePendingFontFaces(pFile, pUri, true);
-              }
-            } catch (final Exception pException) {
-              // Register a null value of the File, to indicate that the Typeface for this file is invalid.
-              RNCustomFontsModule.this.getTypefaces().put(pFile, null);
-              // We've failed to create the Typeface for the given file.
-              RNCustomFontsModule.this.onUpdatePendingFontFaces(pFile, pUri, false);
-            }
-          } });
+        @Override public final void onSuccess(final DownloadResult pDownloadResult) {
+          // Record the performance of the download.
+          RNCustomFontsModule.this.getMetrics().onDownloadFinished(pFile, pUri, pDownloadResult.getBytesTransferred(), System.nanoTime() - lRequestedAt, pDownloadResult.isModified());
+          // Record the download, so that the file can be reused after a restart.
+          RNCustomFontsModule.this.getCacheManifest().put(pFile, pDownloadResult.getEntry());
+          // Has the disk cache outgrown its budget? (The manifest tracks its own size, so we only scan the directory once there's something to evict.)
+          if (RNCustomFontsModule.this.getCacheManifest().getTotalBytes() > RNCustomFontsModule.this.mMaxDiskBytes) {
+            // Keep the disk cache within budget, without deleting any of the files we're currently using.
+            RNCustomFontsModule.this.getCacheManifest().trimToSize(RNCustomFontsModule.this.mMaxDiskBytes, RNCustomFontsModule.this.getEncounteredFiles());
+          }
+          // Has the file changed, or have we yet to create a Typeface for it?
+          if (pDownloadResult.isModified() || RNCustomFontsModule.this.getTypefaces().get(pFile) == null) {
+            // Create the Typeface.
+            RNCustomFontsModule.this.manageTypefaceOf(pFile, pUri);
+          }
         }
         /** On failure... */
         @Override public final void onFailure(final Exception pException) {
-          // Synchronize upon ourself.
-          RNCustomFontsModule.this.isolateExecutionOf(new Runnable() { @Override public final void run() {
-            // Inform listeners of the failure.
-            RNCustomFontsModule.this.onUpdatePendingFontFaces(pFile, pUri, false);
-          } });
+          RNCustomFontsModule.this.onDownloadFailed(pFile, pUri, pException);
+        }
+      }
+    );
+  }
+
+  /** Handles a download (or revalidation) which could not be completed. If a copy of the file from the same uri is already on disk, it continues to be served; waiters are only failed if there's nothing to serve them with. */
+  private final void onDownloadFailed(final File pFile, final String pUri, final Exception pException) {
+    // Record the failure.
+    this.getMetrics().onFailure(pFile, pUri, RNCustomFontsMetrics.getCauseOf(pException));
+    // Do we have a stale copy of the file which we can continue to serve? (The Typeface may not have been decoded yet, or may have since been evicted, so we ask the disk rather than the TypefaceCache.)
+    if (this.getCacheManifest().isCached(pFile, pUri)) {
+      Log.w(RNCustomFontsModule.TAG, "Failed to revalidate \"" + pUri + "\"; continuing to use the cached copy.", pException);
+      // Is the Typeface not yet resident? Then the waiters are served from the cached copy. (A decode which is already waiting absorbs this one.)
+      if (this.getTypefaces().get(pFile) == null) {
+        this.manageTypefaceOf(pFile, pUri);
+      }
+      return;
+    }
+    // Synchronize upon the File.
+    synchronized(this.getLockFor(pFile)) {
+      // Forget that we encountered the file, so that the next request for it downloads it again rather than waiting on a download which has already finished.
+      if (pUri.equals(this.getUris().get(pFile))) {
+        this.getUris().remove(pFile);
+      }
+    }
+    // Inform listeners of the failure.
+    this.onUpdatePendingFontFaces(pFile, pUri, false);
+  }
+
+  /** Schedules the Typeface for a file which is present on disk to be created along the decode stage. */
+  private final void manageTypefaceOf(final File pFile, final String pUri) {
+    try {
+      // Decode the file in the background.
+      this.getDecodeEngine().execute(pFile, new Runnable() { @Override public final void run() {
+        RNCustomFontsModule.this.decodeTypefaceOf(pFile, pUri);
+      } });
+    } catch (final RejectedExecutionException pRejectedExecutionException) {
+      // The module is being torn down; nobody will decode the file.
+      this.onUpdatePendingFontFaces(pFile, pUri, false);
+    }
+  }
+
+  /** Creates the Typeface for a file which is present on disk and updates any observers that are interested in the result. Runs along the decode stage; no locks are held whilst the file is decoded. */
+  private final void decodeTypefaceOf(final File pFile, final String pUri) {
+    // Fetch the record of the file, which identifies its content.
+    final RNCustomFontsCacheManifest.Entry lEntry       = this.getCacheManifest().get(pFile);
+    final String                           lContentHash = (lEntry != null) ? lEntry.getContentHash() : null;
+    // Has identical content already been decoded for another uri? If so, we can share its Typeface.
+          Typeface                         lTypeface    = this.getTypefaces().getByContentHash(lContentHash);
+    // Do we need to decode the file?
+    if (lTypeface == null) {
+      // Fetch the time at which the decode began.
+      final long lStartedAt = System.nanoTime();
+      try {
+        // Attempt to allocate a Typeface. (Local fonts are read from where they lie.)
+        lTypeface = RNCustomFontsLocalSource.isLocal(pUri) ? this.createLocalTypefaceOf(pFile, pUri) : this.createCachedTypefaceOf(pFile, lContentHash);
+      } catch (final Exception pException) {
+        // The file could not be processed.
+        Log.w(RNCustomFontsModule.TAG, "Failed to create a Typeface for \"" + pUri + "\".", pException);
+        lTypeface = null;
+      }
+      // Record the performance of the decode.
+      this.getMetrics().onDecodeFinished(pFile, pUri, System.nanoTime() - lStartedAt);
+    }
+    // Is the Typeface valid?
+    if (lTypeface != null) {
+      // Fetch the Typeface being replaced, if any; i.e. a stale copy which was served whilst it was revalidated.
+      final Typeface lPrevious = this.getTypefaces().get(pFile);
+      // Publish the Typeface. (Local fonts aren't necessarily read from the file, so we charge the cache for wherever they were read from.)
+      this.getTypefaces().put(pFile, lTypeface, this.getSourceSizeOf(pFile, pUri), lContentHash);
+      // Subsets which include this file must be composed again.
+      this.forgetSubsetsOf(pFile);
+      // Fetch the faces which use this file. (Every other face is unaffected.)
+      final Map<String, Map<String, String>> lFaces        = RNCustomFontsModule.getFontFamiliesOf(this.getFontFamilies(), pUri);
+      // Compose their FontFamilies again, along with any which fall back to them.
+      final Map<String, Map<String, String>> lFontFamilies = this.getFontFamiliesOf(this.recomposeFontFamilies(lFaces.keySet()));
+      // Create the instance of each face of this file whilst we're still along the decode stage, so that nobody else has to read the file to find it.
+      for (final Map.Entry<String, Map<String, String>> lFontFamily : lFaces.entrySet()) {
+        for (final String lFontWeight : lFontFamily.getValue().keySet()) {
+          this.createInstanceOf(pFile, lTypeface, lFontFamily.getKey(), lFontWeight);
+        }
+      }
+      // Register the faces of every recomposed FontFamily, ahead of informing anybody they're ready.
+      this.getReactFonts().register(lFontFamilies);
+      // Did the content change underneath faces which may already be on screen? Then they must be switched to the new Typeface.
+      if (lPrevious != null && lPrevious != lTypeface) {
+        for (final Map.Entry<String, Map<String, String>> lFontFamily : lFaces.entrySet()) {
+          for (final String lFontWeight : lFontFamily.getValue().keySet()) {
+            this.applyToViewsOf(pFile, lTypeface, lFontFamily.getKey(), lFontWeight);
+          }
         }
       }
+      // Mark the file as recently used, so that it is the last to be evicted from disk.
+      this.getCacheManifest().touch(pFile);
+      // The FontFace is ready for use.
+      this.getMetrics().onFontFaceReady(pFile, pUri);
+      // Inform listeners of the success.
+      this.onUpdatePendingFontFaces(pFile, pUri, true);
+    } else {
+      // Record the failure.
+      this.getMetrics().onFailure(pFile, pUri, RNCustomFontsMetrics.CAUSE_DECODE);
+      // The file is unusable, so it must not be trusted on the next launch.
+      this.getCacheManifest().remove(pFile);
+      // Indicate that the Typeface for this file is invalid.
+      this.getTypefaces().putFailure(pFile);
+      // We've failed to create the Typeface for the given file.
+      this.onUpdatePendingFontFaces(pFile, pUri, false);
+    }
+  }
+
+  /** Returns the size in bytes of the font a Typeface is decoded from. Fonts within the cache are read from the file itself, whereas local fonts are read from their asset, file or pack entry. */
+  private final long getSourceSizeOf(final File pFile, final String pUri) {
+    // Is the font read from the cache?
+    if (!RNCustomFontsLocalSource.isLocal(pUri)) {
+      return pFile.length();
+    }
+    try {
+      // Is the font outside of a pack?
+      if (!RNCustomFontsLocalSource.isPackEntry(pUri)) {
+        return RNCustomFontsLocalSource.getSizeOf(this.getReactApplicationContext().getAssets(), pUri);
+      }
+      // Find the font within the pack. (The pack has already been indexed to decode the font.)
+      final RNCustomFontsFontPack.Entry lEntry = this.getFontPackOf(RNCustomFontsLocalSource.getPackUriOf(pUri)).getEntry(RNCustomFontsLocalSource.getEntryNameOf(pUri));
+      // Return the uncompressed size of the font.
+      return (lEntry != null) ? lEntry.getSize() : pFile.length();
+    } catch (final IOException pIOException) {
+      // The size is only an estimate; fall back to whatever was extracted into the cache.
+      Log.w(RNCustomFontsModule.TAG, "Unable to determine the size of \"" + pUri + "\".", pIOException);
+      return pFile.length();
+    }
+  }
+
+  /** Creates the Typeface of a font within the cache. Where the platform allows it, the Typeface reads from a mapping of the file which is shared with any other file of identical content, so the font never occupies the Java heap. */
+  private final Typeface createCachedTypefaceOf(final File pFile, final String pContentHash) throws IOException {
+    // Are we unable to create a Typeface from a mapping?
+    if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) {
+      return Typeface.createFromFile(pFile);
+    }
+    // Create the Typeface from the shared mapping.
+    return RNCustomFontsModule.createTypefaceFrom(
+      this.getMappings().map(pFile, RNCustomFontsMappings.getKeyOf(pFile, pContentHash))
+    );
+  }
+
+  /** Creates a Font which reads from the shared mapping of a file within the cache. (Requires Android 10.) */
+  private final Font createFontOf(final File pFile) throws IOException {
+    return this.createFontBuilderOf(pFile)
+      .build();
+  }
+
+  /** Creates the Font of a single face of a FontFamily, which the platform selects by weight. Faces of a variable font share a single mapping, and are distinguished by their settings. */
+  private final Font createFontOf(final File pFile, final int pWeight, final String pFontVariationSettings) throws IOException {
+    // Allocate the Builder.
+    final Font.Builder lBuilder = this.createFontBuilderOf(pFile)
+      .setWeight(pWeight)
+      .setSlant(FontStyle.FONT_SLANT_UPRIGHT);
+    // Is this an instance of a variable font?
+    if (pFontVariationSettings != null) {
+      lBuilder.setFontVariationSettings(pFontVariationSettings);
+    }
+    // Create the Font.
+    return lBuilder.build();
+  }
+
+  /** Returns a Font.Builder which reads from the shared mapping of the file. */
+  private final Font.Builder createFontBuilderOf(final File pFile) throws IOException {
+    // Fetch the record of the file, which identifies its content.
+    final RNCustomFontsCacheManifest.Entry lEntry = this.getCacheManifest().get(pFile);
+    // Allocate the Builder.
+    return new Font.Builder(
+      this.getMappings().map(pFile, RNCustomFontsMappings.getKeyOf(pFile, (lEntry != null) ? lEntry.getContentHash() : null))
     );
   }
 
-  /** Defines whether we've 'seen' a particular FontFace before. (Prevents duplicate requests.) */
+  /** Creates the Typeface of a font which is present on the device. Fonts within a pack are read straight from its mapping where the platform allows it; otherwise they're extracted into the cache once, and reused thereafter. */
+  private final Typeface createLocalTypefaceOf(final File pFile, final String pUri) throws IOException {
+    // Is the font outside of a pack? Then the platform can read it directly.
+    if (!RNCustomFontsLocalSource.isPackEntry(pUri)) {
+      return RNCustomFontsLocalSource.createTypeface(this.getReactApplicationContext().getAssets(), pUri);
+    }
+    // Fetch the pack.
+    final RNCustomFontsFontPack       lFontPack = this.getFontPackOf(RNCustomFontsLocalSource.getPackUriOf(pUri));
+    // Find the font within the pack.
+    final RNCustomFontsFontPack.Entry lEntry    = lFontPack.getEntry(RNCustomFontsLocalSource.getEntryNameOf(pUri));
+    if (lEntry == null) {
+      throw new IOException("\"" + RNCustomFontsLocalSource.getPackUriOf(pUri) + "\" does not contain \"" + RNCustomFontsLocalSource.getEntryNameOf(pUri) + "\".");
+    }
+    // Can we create the Typeface straight from the mapping?
+    if (lEntry.isStored() && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+      return RNCustomFontsModule.createTypefaceFrom(lFontPack.slice(lEntry));
+    }
+    // Identify the content of the font, so that we can tell whether a previous extraction is still valid.
+    final String                           lCrc        = Long.toHexString(lEntry.getCrc());
+    final RNCustomFontsCacheManifest.Entry lCacheEntry = this.getCacheManifest().get(pFile);
+    // Do we need to extract the font?
+    if (!this.getCacheManifest().isCached(pFile, pUri) || !lCrc.equals(lCacheEntry.getETag())) {
+      // Extract into a temporary file, so that a failure never leaves behind a partial font.
+      final File lTempFile = RNCustomFontsModule.getTempFileOf(pFile);
+      try {
+        // Ensure the directory exists.
+        pFile.getParentFile().mkdirs();
+        // Extract the font.
+        lFontPack.extract(lEntry, lTempFile);
+        // Move the font into place.
+        if (!lTempFile.renameTo(pFile)) {
+          throw new IOException("Failed to move " + lTempFile + " to " + pFile + ".");
+        }
+      } finally {
+        // Clean up after a failed extraction.
+        lTempFile.delete();
+      }
+      // Record the extraction; the CRC acts as its validator. (Local fonts never expire; they're extracted again only if the pack changes.)
+      this.getCacheManifest().put(pFile, new RNCustomFontsCacheManifest.Entry(pUri, pFile.length(), System.currentTimeMillis(), lCrc, null, Long.MAX_VALUE, null));
+    }
+    // Create the Typeface from the extracted font.
+    return Typeface.createFromFile(pFile);
+  }
+
+  /** Returns the pack referenced by the uri, mapping and indexing it the first time it is used. */
+  private final RNCustomFontsFontPack getFontPackOf(final String pPackUri) throws IOException {
+    // Synchronize upon the packs, so that each is only indexed once.
+    synchronized(this.getFontPacks()) {
+      // Has the pack already been indexed?
+      RNCustomFontsFontPack lFontPack = this.getFontPacks().get(pPackUri);
+      if (lFontPack == null) {
+        // Map and index the pack.
+        lFontPack = RNCustomFontsLocalSource.openPack(this.getReactApplicationContext().getAssets(), pPackUri);
+        // Buffer the pack for future fonts.
+        this.getFontPacks().put(pPackUri, lFontPack);
+      }
+      // Return the pack.
+      return lFontPack;
+    }
+  }
+
+  /** Creates a Typeface which reads the font straight from the supplied buffer, without copying it onto the heap. (Requires Android 10.) */
+  private static final Typeface createTypefaceFrom(final ByteBuffer pByteBuffer) throws IOException {
+    return new Typeface.CustomFallbackBuilder(
+      new FontFamily.Builder(new Font.Builder(pByteBuffer).build()).build()
+    )
+      .build();
+  }
+
+  /** Defines whether we've 'seen' a particular FontFace before. (Prevents duplicate requests.) (Must be called whilst synchronized upon the File.) */
   private final boolean didPreviouslyEncounter(final File pFile, final String pUri) {
     // Have we seen this file key before?
     if (this.getUris().containsKey(pFile)) {
@@ -459,13 +1929,18 @@ public class RNCustomFontsModule extends ReactContextBaseJavaModule {
     return false;
   }
 
-  /** Asserts that we've seen a particular font. */
+  /** Asserts that we've seen a particular font. (Must be called whilst synchronized upon the File.) */
   private final void assertEncountered(final File pFile, final String pUri) {
     // Retain the identifying information of the FontFace.
     this.getUris().put(pFile, pUri);
   }
 
-  /** Schedules a PendingFontFace to wait for events along a particular resource. */
+  /** Returns a snapshot of every File we've been asked to manage during this session. */
+  private final Set<File> getEncounteredFiles() {
+    return new HashSet<File>(this.getUris().keySet());
+  }
+
+  /** Schedules a PendingFontFace to wait for events along a particular resource. (Must be called whilst synchronized upon the File.) */
   private final void schedulePendingFontFace(final File pFile, final String pUri, final PendingFontFace pPendingFontFace) {
     // Attempt to fetch the corresponding List of listeners.
     List<PendingFontFace> lPendingFontFaces = this.getPendingFontFaces().get(pFile);
@@ -482,8 +1957,41 @@ public class RNCustomFontsModule extends ReactContextBaseJavaModule {
 
   /** Returns the uri for a specified FontFamily and FontWeight, or null if it cannot be found. */
   private final String getUriFor(final String pFontFamily, final String pFontWeight) {
+    return RNCustomFontsModule.getUriFor(this.getFontFamilies(), pFontFamily, pFontWeight);
+  }
+
+  /** Returns only the faces of the FontFamilies which are served by the specified uri. (<fontFamily, <fontWeight, uri>) */
+  private static final Map<String, Map<String, String>> getFontFamiliesOf(final Map<String, Map<String, String>> pFontFamilies, final String pUri) {
+    // Declare the Map.
+    final Map<String, Map<String, String>> lFontFamilies = new HashMap();
+    // Iterate the FontFamilies.
+    for (final Map.Entry<String, Map<String, String>> lFontFamily : pFontFamilies.entrySet()) {
+      // Iterate the FontWeights.
+      for (final Map.Entry<String, String> lFontWeight : lFontFamily.getValue().entrySet()) {
+        // Is the face served by the uri?
+        if (pUri.equals(lFontWeight.getValue())) {
+          // Attempt to find the FontFamilyMap.
+          Map<String, String> lFontFamilyMap = lFontFamilies.get(lFontFamily.getKey());
+          // Does it not yet exist?
+          if (lFontFamilyMap == null) {
+            // Allocate the Map.
+            lFontFamilyMap = new HashMap();
+            // Buffer the FontFamilyMap.
+            lFontFamilies.put(lFontFamily.getKey(), lFontFamilyMap);
+          }
+          // Track the face.
+          lFontFamilyMap.put(lFontWeight.getKey(), pUri);
+        }
+      }
+    }
+    // Return the faces.
+    return lFontFamilies;
+  }
+
+  /** Returns the uri for a specified FontFamily and FontWeight within the FontFamilies, or null if it cannot be found. */
+  /* package */ static final String getUriFor(final Map<String, Map<String, String>> pFontFamilies, final String pFontFamily, final String pFontWeight) {
     // Attempt to fetch the FontFamily declaration.
-    final Map<String, String> lFontFamily = this.getFontFamilies().get(pFontFamily);
+    final Map<String, String> lFontFamily = pFontFamilies.get(pFontFamily);
     // Does the Font Family exist?
     if (lFontFamily != null) {
       // Attempt to find the uri for the specified FontWeight. This will be null if the FontWeight does not belong to the family.
@@ -493,24 +2001,262 @@ public class RNCustomFontsModule extends ReactContextBaseJavaModule {
     return null;
   }
 
-  /** Assigns the Typeface to a TextView. */
-  // https://github.com/facebook/react-native/issues/17968
-  private final void assignTypefaceTo(final Typeface pTypeface, final TextView pTextView) {
-    // TODO: verify activity works first
-    this.getReactApplicationContext().getCurrentActivity().runOnUiThread(new Runnable() { @Override public final void run() {
-      // Assign the Typeface.
-      pTextView.setTypeface(pTypeface);
-      // Ensure we update the View layout.
-      pTextView.requestLayout();
-    } });
-  }
-  
   @ReactMethod
   public final void onRequestFontFamily(
     final int pViewHandle,
     final String pFontFamily,
     final String pFontWeight,
     final Promise pPromise
+  ) {
+    this.requestFontFamily(
+      pViewHandle,
+      pFontFamily,
+      pFontWeight,
+      new ICallback<Typeface>() {
+        /** On success... */
+        @Override public final void onSuccess(final Typeface pTypeface) {
+          // Resolve without error.
+          pPromise.resolve(
+            Arguments.createMap()
+          );
+        }
+        /** On failure... */
+        @Override public final void onFailure(final Exception pException) {
+          // Record the failure.
+          RNCustomFontsModule.this.getMetrics().onFailure(null, null, RNCustomFontsMetrics.CAUSE_REQUEST);
+          // Delegate the Exception to the caller.
+          pPromise.reject(
+            pException
+          );
+        }
+      }
+    );
+  }
+
+  /** Applies the FontFamily and FontWeight to the TextView referenced by the ViewHandle, but only if its Typeface is already resident. Returns true if the Typeface will be assigned before the TextView is first drawn, or false if the caller must fall back to onRequestFontFamilies. This never waits upon a lock, a download or a decode, so it is cheap enough to call synchronously from the JS thread. (At most, an instance of a resident variable font is created, which maps the file rather than decoding it again.) */
+  @ReactMethod(isBlockingSynchronousMethod = true)
+  public final boolean onRequestFontFamilySync(
+    final int pViewHandle,
+    final String pFontFamily,
+    final String pFontWeight
+  ) {
+    // Fetch the resident Typeface.
+    final Typeface        lTypeface        = this.getResidentTypefaceOf(pFontFamily, pFontWeight);
+    // Fetch the UIManagerModule, which owns the view hierarchy.
+    final UIManagerModule lUIManagerModule = this.getReactApplicationContext().getNativeModule(UIManagerModule.class);
+    // Is the Typeface not ready? Then the caller must wait for it.
+    if (lTypeface == null || lUIManagerModule == null) {
+      return false;
+    }
+    // Track how effective the Typeface cache is.
+    this.getMetrics().onTypefaceLookup(true);
+    // Assign the Typeface alongside the UI operations which mount the TextView, so that it is never drawn without it.
+    lUIManagerModule.addUIBlock(
+      new UIBlock() {
+        @Override public final void execute(final NativeViewHierarchyManager pNativeViewHierarchyManager) {
+          try {
+            // Fetch the View referenced by the ViewHandle.
+            final View lView = pNativeViewHierarchyManager.resolveView(pViewHandle);
+            // Is this a TextView?
+            if (lView instanceof TextView) {
+              // Fetch the TextView.
+              final TextView lTextView = (TextView)lView;
+              // Remember which face the TextView displays, so that it can be updated if the face is hot-swapped.
+              RNCustomFontsModule.this.getViewRegistry().register(lTextView, RNCustomFontsViewRegistry.getFaceKeyOf(pFontFamily, pFontWeight));
+              // Assign the Typeface within this frame.
+              RNCustomFontsModule.this.getTypefaceApplier().apply(lTypeface, lTextView);
+            } else {
+              Log.w(RNCustomFontsModule.TAG, "Unable to apply fontFamily \"" + pFontFamily + "\"; handle 0x" + Integer.toHexString(pViewHandle) + " does not reference a TextView.");
+            }
+          } catch (final RuntimeException pRuntimeException) {
+            // The View was unmounted before the UIBlock could run.
+            Log.w(RNCustomFontsModule.TAG, "Failed to resolve handle 0x" + Integer.toHexString(pViewHandle) + ".", pRuntimeException);
+          }
+        }
+      }
+    );
+    // The Typeface will be applied.
+    return true;
+  }
+
+  /** Returns the Typeface of a face whose file is resident and whose instance has been created, or null otherwise. A missing instance is created along the decode stage, so this never reads the file. */
+  private final Typeface getResidentTypefaceOf(final File pFile, final String pFontFamily, final String pFontWeight) {
+    // Fetch the Typeface decoded from the file.
+    final Typeface lTypeface = this.getTypefaces().get(pFile);
+    // Return the instance for the face.
+    return (lTypeface != null) ? this.getInstanceOf(pFile, lTypeface, pFontFamily, pFontWeight) : null;
+  }
+
+  /** Returns the instance of a Typeface which corresponds to the face, or null if it has yet to be created. Where the platform allows it, this is drawn from the composed FontFamily; otherwise faces of a variable font may share a single file, but are displayed using different settings, and other fonts return the Typeface unchanged. This never reads the file. */
+  private final Typeface peekInstanceOf(final File pFile, final Typeface pTypeface, final String pFontFamily, final String pFontWeight) {
+    // Is the face served by its composed FontFamily? (Only faces which are present on disk can be composed; otherwise the platform would substitute another weight.)
+    final Typeface lComposed = pFile.isFile() ? this.getComposedTypefaceOf(pFontFamily, pFontWeight) : null;
+    if (lComposed != null) {
+      return lComposed;
+    }
+    // Fetch the instance of the standalone Typeface.
+    return this.getVariations().getInstanceOf(
+      pTypeface,
+      pFontWeight,
+      this.getFontVariations().get(RNCustomFontsViewRegistry.getFaceKeyOf(pFontFamily, pFontWeight))
+    );
+  }
+
+  /** Returns the instance of a Typeface which corresponds to the face. If it has yet to be created, null is returned and the instance is created along the decode stage, after which the face is registered; callers which can't wait should fall back to an asynchronous request. */
+  private final Typeface getInstanceOf(final File pFile, final Typeface pTypeface, final String pFontFamily, final String pFontWeight) {
+    // Fetch the instance.
+    final Typeface lInstance = this.peekInstanceOf(pFile, pTypeface, pFontFamily, pFontWeight);
+    // Has the instance yet to be created?
+    if (lInstance == null) {
+      try {
+        // Create the instance in the background.
+        this.getDecodeEngine().execute(new Runnable() { @Override public final void run() {
+          // Create the instance.
+          RNCustomFontsModule.this.createInstanceOf(pFile, pTypeface, pFontFamily, pFontWeight);
+          // Fetch the uri of the face.
+          final String lUri = RNCustomFontsModule.this.getUriFor(pFontFamily, pFontWeight);
+          // Is the face still declared? Then it can now be selected by style.
+          if (lUri != null) {
+            RNCustomFontsModule.this.getReactFonts().register(Collections.singletonMap(pFontFamily, Collections.singletonMap(pFontWeight, lUri)));
+          }
+        } });
+      } catch (final RejectedExecutionException pRejectedExecutionException) {
+        // The module is being torn down; nobody is left to use the instance.
+      }
+    }
+    // Return the instance.
+    return lInstance;
+  }
+
+  /** Delivers the instance of a Typeface which corresponds to the face to the Callback. If the instance has yet to be created, it is created along the decode stage first, so that the caller never reads the file. */
+  private final void requestInstanceOf(final File pFile, final Typeface pTypeface, final String pFontFamily, final String pFontWeight, final ICallback<Typeface> pCallback) {
+    // Fetch the instance.
+    final Typeface lInstance = this.peekInstanceOf(pFile, pTypeface, pFontFamily, pFontWeight);
+    // Has the instance already been created?
+    if (lInstance != null) {
+      pCallback.onSuccess(lInstance);
+      return;
+    }
+    try {
+      // Create the instance in the background.
+      this.getDecodeEngine().execute(new Runnable() { @Override public final void run() {
+        pCallback.onSuccess(RNCustomFontsModule.this.createInstanceOf(pFile, pTypeface, pFontFamily, pFontWeight));
+      } });
+    } catch (final RejectedExecutionException pRejectedExecutionException) {
+      // The module is being torn down.
+      pCallback.onFailure(pRejectedExecutionException);
+    }
+  }
+
+  /** Returns a Callback which assigns the Typeface it receives to the TextView on the next frame, before informing the caller. */
+  private final ICallback<Typeface> getApplierOf(final TextView pTextView, final ICallback<Typeface> pCallback) {
+    return new ICallback<Typeface>() {
+      /** On success... */
+      @Override public final void onSuccess(final Typeface pTypeface) {
+        // Assign the Typeface to the TextView on the next frame.
+        RNCustomFontsModule.this.getTypefaceApplier().schedule(pTypeface, pTextView);
+        // Inform the caller.
+        pCallback.onSuccess(pTypeface);
+      }
+      /** On failure... */
+      @Override public final void onFailure(final Exception pException) {
+        pCallback.onFailure(pException);
+      }
+    };
+  }
+
+  /** Returns the instance of a Typeface which corresponds to the face, creating it if necessary. This reads the file, so it must only be called along the decode stage. */
+  private final Typeface createInstanceOf(final File pFile, final Typeface pTypeface, final String pFontFamily, final String pFontWeight) {
+    // Is the face served by its composed FontFamily?
+    final Typeface lComposed = pFile.isFile() ? this.getComposedTypefaceOf(pFontFamily, pFontWeight) : null;
+    if (lComposed != null) {
+      return lComposed;
+    }
+    // Create the instance of the standalone Typeface.
+    return this.getVariations().createInstanceOf(
+      pFile,
+      pTypeface,
+      pFontWeight,
+      this.getFontVariations().get(RNCustomFontsViewRegistry.getFaceKeyOf(pFontFamily, pFontWeight))
+    );
+  }
+
+  /** Returns the Typeface for the specified FontFamily and FontWeight if it is already resident, or null otherwise. Subsets depend upon the text they render, so they're never resident ahead of a request. */
+  private final Typeface getResidentTypefaceOf(final String pFontFamily, final String pFontWeight) {
+    // Attempt to find the Uri. (The FontFamilies are an immutable snapshot, so this requires no lock.)
+    final String lUri = this.getUriFor(pFontFamily, pFontWeight);
+    // Is there no single file for this face? Then the composed FontFamily may supply the nearest weight.
+    if (lUri == null) {
+      return this.getComposedTypefaceOf(pFontFamily, pFontWeight);
+    }
+    try {
+      // Fetch the Typeface. (Lookups never lock.)
+      return this.getResidentTypefaceOf(RNCustomFontsModule.getCustomFontFile(this.getReactApplicationContext(), lUri), pFontFamily, pFontWeight);
+    } catch (final IOException pIOException) {
+      // The cache directory is unavailable, so nothing can be resident.
+      return null;
+    }
+  }
+
+  /** Services many requests in a single call, i.e. [{ viewHandle, fontFamily, fontWeight }]. Resolves with an Array which holds, for each request, either null on success or the reason it failed. */
+  @ReactMethod
+  public final void onRequestFontFamilies(
+    final ReadableArray pRequests,
+    final Promise pPromise
+  ) {
+    // Allocate the PendingRequests.
+    final PendingRequests lPendingRequests = new PendingRequests(pPromise, pRequests.size());
+    // Iterate the requests.
+    for (int i = 0; i < pRequests.size(); i += 1) {
+      // Fetch the index of the request.
+      final int lIndex = i;
+      // Fetch the request.
+      final ReadableMap lRequest = pRequests.getMap(i);
+      // Is the request malformed? (A ref which was never attached has a null viewHandle.)
+      if (lRequest == null || !lRequest.hasKey("viewHandle") || lRequest.isNull("viewHandle") || !lRequest.hasKey("fontFamily") || lRequest.isNull("fontFamily") || !lRequest.hasKey("fontWeight") || lRequest.isNull("fontWeight")) {
+        // Reject this request alone.
+        lPendingRequests.onResolutionOf(
+          lIndex,
+          new Exception(
+            "Expected a request of the form { viewHandle, fontFamily, fontWeight }."
+          )
+        );
+        continue;
+      }
+      try {
+        // Service the request.
+        this.requestFontFamily(
+          lRequest.getInt("viewHandle"),
+          lRequest.getString("fontFamily"),
+          lRequest.getString("fontWeight"),
+          new ICallback<Typeface>() {
+            /** On success... */
+            @Override public final void onSuccess(final Typeface pTypeface) {
+              lPendingRequests.onResolutionOf(lIndex, null);
+            }
+            /** On failure... */
+            @Override public final void onFailure(final Exception pException) {
+              // Record the failure.
+              RNCustomFontsModule.this.getMetrics().onFailure(null, null, RNCustomFontsMetrics.CAUSE_REQUEST);
+              // Report the failure of this request alone.
+              lPendingRequests.onResolutionOf(lIndex, pException);
+            }
+          }
+        );
+      } catch (final Exception pException) {
+        // A single request mustn't prevent the rest of the batch from resolving; i.e. a viewHandle of the wrong type.
+        this.getMetrics().onFailure(null, null, RNCustomFontsMetrics.CAUSE_REQUEST);
+        lPendingRequests.onResolutionOf(lIndex, pException);
+      }
+    }
+  }
+
+  /** Finds the TextView referenced by the ViewHandle and schedules the Typeface for the specified FontFamily and FontWeight to be assigned to it, waiting for the Typeface to become ready if necessary. */
+  private final void requestFontFamily(
+    final int pViewHandle,
+    final String pFontFamily,
+    final String pFontWeight,
+    final ICallback<Typeface> pCallback
   ) {
     // Is there an active Activity we can use to interrogate the layout?
     if (this.getReactApplicationContext().hasCurrentActivity()) {
@@ -522,105 +2268,139 @@ public class RNCustomFontsModule extends ReactContextBaseJavaModule {
         try {
           // Attempt to coerce the TextView.
           final TextView lTextView = (TextView)(lView);
-          // Synchronize along ourself.
-          this.isolateExecutionOf(new Runnable() { @Override public final void run() {
-            try {
-              // Attempt to find the Uri for the specified FontFamily and FontWeight.
-              final String lUri  = RNCustomFontsModule.this.getUriFor(pFontFamily, pFontWeight);
-              // Could the Uri not be found?
-              if (lUri == null) {
-                // Throw an error; the user has specified a non-existent Font.
+          // Remember which face the TextView displays, so that it can be updated if the face is hot-swapped.
+          this.getViewRegistry().register(lTextView, RNCustomFontsViewRegistry.getFaceKeyOf(pFontFamily, pFontWeight));
+          // Attempt to find the Uri for the specified FontFamily and FontWeight. (The FontFamilies are an immutable snapshot, so this requires no lock.)
+          final String lUri  = this.getUriFor(pFontFamily, pFontWeight);
+          // Could the Uri not be found?
+          if (lUri == null) {
+            // Is the font made up of subsets instead?
+            final List<FontSubset> lFontSubsets = this.getFontSubsetsFor(pFontFamily, pFontWeight);
+            if (lFontSubsets != null) {
+              // Fetch the subsets required by the TextView.
+              this.requestFontSubsets(lTextView, lFontSubsets, pCallback);
+              return;
+            }
+            // Can the composed FontFamily supply the nearest weight instead?
+            final Typeface lNearest = this.getComposedTypefaceOf(pFontFamily, pFontWeight);
+            if (lNearest != null) {
+              // Assign the Typeface to the TextView on the next frame.
+              this.getTypefaceApplier().schedule(lNearest, lTextView);
+              // Inform the caller.
+              pCallback.onSuccess(lNearest);
+              return;
+            }
+            // Throw an error; the user has specified a non-existent Font.
+            throw new Exception(
+              "Attempted to use fontFamily \"" + pFontFamily + "\" with fontWeight \"" + pFontWeight + "\", but this was is not defined. This configuration should be present in the fontFaces prop."
+            );
+          }
+          // Find the corresponding File for the specified Uri.
+          final File lFile = RNCustomFontsModule.getCustomFontFile(
+            this.getReactApplicationContext(),
+            lUri
+          );
+          // Declare the outcome of the lookup.
+          Typeface    lTypeface             = null;
+          boolean     lIsFailure            = false;
+          boolean     lShouldCreateTypeface = false;
+          boolean     lShouldManage         = false;
+          PendingView lPendingView          = null;
+          // Synchronize upon the File; requests for other faces proceed independently.
+          synchronized(this.getLockFor(lFile)) {
+            // Determine whether we've encountered this font before.
+            final boolean isPreviouslyEncountered = this.didPreviouslyEncounter(
+              lFile,
+              lUri
+            );
+            // Have we previously encountered this font?
+            if (!isPreviouslyEncountered) {
+              // Has the file been claimed by a different uri? Then the application has no knowledge of this font!
+              if (this.getUris().containsKey(lFile)) {
                 throw new Exception(
-                  "Attempted to use fontFamily \"" + pFontFamily + "\" with fontWeight \"" + pFontWeight + "\", but this was is not defined. This configuration should be present in the fontFaces prop."
+                  "Attempted to use a font which the provider has no knowledge of."
                 );
               }
-              // Find the corresponding File for the specified Uri.
-              final File lFile = RNCustomFontsModule.getCustomFontFile(
-                RNCustomFontsModule.this.getReactApplicationContext(),
-                lUri,
-                pFontFamily,
-                pFontWeight
-              );
-              // Determine whether we've encountered this font before.
-              final boolean isPreviouslyEncountered = RNCustomFontsModule.this.didPreviouslyEncounter(
-                lFile,
-                lUri
-              );
-              // Have we previously encountered this font?
-              if (isPreviouslyEncountered) {
-                // Has the Typeface finished processing?
-                if (RNCustomFontsModule.this.getTypefaces().containsKey(lFile)) {
+              // The face is declared, but its previous download failed and was forgotten; it must be fetched again.
+              lShouldManage = true;
+            }
+            // Fetch the Typeface.
+            lTypeface  = this.getTypefaces().get(lFile);
+            lIsFailure = (lTypeface == null) && this.getTypefaces().isFailure(lFile);
+            // Track how effective the Typeface cache is.
+            this.getMetrics().onTypefaceLookup(lTypeface != null);
+            // Is the font still processing?
+            if (lTypeface == null && !lIsFailure) {
+              // We need to wait until it becomes ready. (The TextView is only weakly referenced whilst we wait.)
+              lPendingView = new PendingView(
+                lTextView,
+                new HashMap<File, String>() { { this.put(lFile, lUri); }},
+                pCallback
+              ) {
+                @Override protected final void onFinishedPending(final TextView pTextView, final boolean pIsSuccessful, final ICallback<Typeface> pCallback) {
                   // Fetch the Typeface.
                   final Typeface lTypeface = RNCustomFontsModule.this.getTypefaces().get(lFile);
-                  // Is the Typeface valid?
-                  if (lTypeface != null) {
-                    // Attempt to assign the Typeface to the TextView.
-                    RNCustomFontsModule.this.assignTypefaceTo(lTypeface, lTextView);
-                    // Resolve without error.
-                    pPromise.resolve(
-                      Arguments.createMap()
-                    );
+                  // Was the fetch successful?
+                  if (pIsSuccessful && lTypeface != null) {
+                    // Assign the instance for this face to the TextView.
+                    RNCustomFontsModule.this.requestInstanceOf(lFile, lTypeface, pFontFamily, pFontWeight, RNCustomFontsModule.this.getApplierOf(pTextView, pCallback));
                   } else {
-                    // The Typeface is not valid; further network requests must fail.
-                    pPromise.reject(
+                    // Inform the caller.
+                    pCallback.onFailure(
                       new Exception(
                         "Unable to use fontFamily \"" + pFontFamily + "\" at fontWeight \"" + pFontWeight + "\", because the application failed to either download or process the content served by uri \"" + lUri + "\"."
                       )
                     );
                   }
-                } else {
-                  // The font is still processing. We need to wait until it becomes ready.
-                  RNCustomFontsModule.this.schedulePendingFontFace(
-                    lFile,
-                    lUri,
-                    new PendingFontFace(
-                      pPromise,
-                      new HashMap<File, String>() { { this.put(lFile, lUri); }}
-                    ) {
-                      @Override protected final void onFinishedPending(final boolean pIsSuccessful) {
-                        // Was the fetch successful?
-                        if (pIsSuccessful) {
-                          // Fetch the Typeface.
-                          final Typeface lTypeface = RNCustomFontsModule.this.getTypefaces().get(lFile);
-                          // Assign the Typeface to the TextView.
-                          RNCustomFontsModule.this.assignTypefaceTo(lTypeface, lTextView);
-                        }
-                        // Implement the parent.
-                        super.onFinishedPending(pIsSuccessful);
-                      }
-                    }
-                  );
                 }
-              } else {
-                // TODO: we should probably never get here...
-                // The application has no knowledge of this font!
-                throw new Exception(
-                  "Attempted to use a font which the provider has no knowledge of."
-                );
+              };
+              // Are we about to fetch the file? Then the PendingView waits on that instead.
+              if (!lShouldManage) {
+                this.schedulePendingFontFace(lFile, lUri, lPendingView);
+                // Was the Typeface evicted? If so, it must be decoded again.
+                lShouldCreateTypeface = this.getTypefaces().claimEviction(lFile);
               }
-            } catch (final Exception pException) {
-              // Delegate the Exception to the caller.
-              pPromise.reject(
-                pException
-              );
             }
-          } });
+          }
+          // Do we need to fetch the file again? (The PendingView is scheduled whilst the fetch is managed.)
+          if (lShouldManage && lPendingView != null) {
+            this.onManageFontFace(lFile, lUri, lPendingView, this.getCachePolicy());
+          }
+          // Is the Typeface ready?
+          if (lTypeface != null) {
+            // Assign the instance for this face to the TextView. (If it has yet to be created, that happens along the decode stage.)
+            this.requestInstanceOf(lFile, lTypeface, pFontFamily, pFontWeight, this.getApplierOf(lTextView, pCallback));
+          } else if (lIsFailure) {
+            // The Typeface is not valid; further network requests must fail.
+            pCallback.onFailure(
+              new Exception(
+                "Unable to use fontFamily \"" + pFontFamily + "\" at fontWeight \"" + pFontWeight + "\", because the application failed to either download or process the content served by uri \"" + lUri + "\"."
+              )
+            );
+          } else if (lShouldCreateTypeface) {
+            // Decode the evicted Typeface again.
+            this.manageTypefaceOf(lFile, lUri);
+          }
+          // Are we waiting? Then give up if the TextView goes away first.
+          if (lPendingView != null) {
+            lPendingView.watch();
+          }
         }
         catch (final Exception pException) {
           // Delegate the Exception to the caller.
-          pPromise.reject(
+          pCallback.onFailure(
             pException
           );
         }
       } else {
-        pPromise.reject(
+        pCallback.onFailure(
           new Exception(
             "Failed to findViewById using handle 0x" + Integer.toHexString(pViewHandle) + "."
           )
         );
       }
     } else {
-      pPromise.reject(
+      pCallback.onFailure(
         new Exception(
           "Unable to requestFontFamily; the ReactApplicationContext is currently available."
         )
@@ -628,21 +2408,464 @@ public class RNCustomFontsModule extends ReactContextBaseJavaModule {
     }
   }
 
-  /** Executes the runnable within a synchronized context of this class.  */
-  private final void isolateExecutionOf(final Runnable pRunnable) {
-    // Synchronize on this instance,
+  /** Returns the subsets for a specified FontFamily and FontWeight, or null if there are none. */
+  private final List<FontSubset> getFontSubsetsFor(final String pFontFamily, final String pFontWeight) {
+    // Attempt to fetch the FontFamily declaration.
+    final Map<String, List<FontSubset>> lFontFamily = this.getFontSubsets().get(pFontFamily);
+    // Return the subsets for the FontWeight, if any.
+    return (lFontFamily != null) ? lFontFamily.get(pFontWeight) : null;
+  }
+
+  /** Defines whether the text can be displayed without any subsets besides those specified, by index. */
+  private static final boolean isCoveredBy(final CharSequence pText, final List<FontSubset> pFontSubsets, final Set<Integer> pIndices) {
+    // Iterate the subsets.
+    for (int i = 0; i < pFontSubsets.size(); i += 1) {
+      // Is this subset missing, despite covering some of the text?
+      if (!pIndices.contains(i) && pFontSubsets.get(i).getUnicodeRange().getCoverageOf(pText) > 0) {
+        return false;
+      }
+    }
+    // The text is covered.
+    return true;
+  }
+
+  /** Fetches only the subsets which cover the text of the TextView, and assigns it a Typeface composed of them. Subsets are ordered by how much of the text they cover. */
+  private final void requestFontSubsets(final TextView pTextView, final List<FontSubset> pFontSubsets, final ICallback<Typeface> pCallback) throws IOException {
+    // Fetch the text to be displayed. (The text may not have been mounted yet, or may change later; the TextView is watched below, so that its subsets can be revised.)
+    final CharSequence  lText      = (pTextView.getText() != null) ? pTextView.getText() : "";
+    // Measure how much of the text each subset covers.
+    final int[]         lCoverage  = new int[pFontSubsets.size()];
+    final List<Integer> lRequired  = new ArrayList<Integer>();
+    for (int i = 0; i < pFontSubsets.size(); i += 1) {
+      // Compute the coverage.
+      lCoverage[i] = pFontSubsets.get(i).getUnicodeRange().getCoverageOf(lText);
+      // Is the subset required?
+      if (lCoverage[i] > 0) {
+        lRequired.add(i);
+      }
+    }
+    // Is no subset required? (i.e. the text is empty.) Then fall back to the first declared subset, so that the TextView is still styled.
+    if (lRequired.isEmpty()) {
+      lRequired.add(0);
+    }
+    // Place the subsets which cover the most text first. (The sort is stable, so ties retain their declaration order.)
+    Collections.sort(lRequired, new Comparator<Integer>() { @Override public final int compare(final Integer pA, final Integer pB) {
+      return lCoverage[pB] - lCoverage[pA];
+    } });
+    // Revise the subsets if the text comes to need any which we're not about to fetch.
+    this.watchTextOf(pTextView, pFontSubsets, new HashSet<Integer>(lRequired));
+    // Resolve the Files for the required subsets.
+    final List<File>        lFiles      = new ArrayList<File>();
+    final Map<File, String> lPendingMap = new HashMap<File, String>();
+    for (final Integer lIndex : lRequired) {
+      // Fetch the subset.
+      final FontSubset lFontSubset = pFontSubsets.get(lIndex);
+      // Fetch the File.
+      final File       lFile       = RNCustomFontsModule.getCustomFontFile(this.getReactApplicationContext(), lFontSubset.getUri());
+      // Track the subset.
+      lFiles.add(lFile);
+      lPendingMap.put(lFile, lFontSubset.getUri());
+    }
+    // Wait for each of the subsets. (The TextView is only weakly referenced whilst we wait.)
+    final PendingView lPendingView = new PendingView(pTextView, new HashMap<File, String>(lPendingMap), pCallback) {
+      @Override protected final void onFinishedPending(final TextView pTextView, final boolean pIsSuccessful, final ICallback<Typeface> pCallback) {
+        try {
+          // Composition may need to read the subsets from disk, so we do it along the decode stage.
+          RNCustomFontsModule.this.getDecodeEngine().execute(new Runnable() { @Override public final void run() {
+            // Compose the Typeface.
+            final Typeface lTypeface = RNCustomFontsModule.this.composeTypefaceOf(lFiles);
+            // Were any of the subsets usable?
+            if (lTypeface != null) {
+              // Assign the Typeface to the TextView.
+              RNCustomFontsModule.this.getTypefaceApplier().schedule(lTypeface, pTextView);
+              // Inform the caller.
+              pCallback.onSuccess(lTypeface);
+            } else {
+              pCallback.onFailure(new Exception("Unable to use any of the subsets " + lPendingMap.values() + "; the application failed to either download or process them."));
+            }
+          } });
+        } catch (final RejectedExecutionException pRejectedExecutionException) {
+          // The module is being torn down.
+          pCallback.onFailure(pRejectedExecutionException);
+        }
+      }
+    };
+    // Fetch each of the subsets. (Subsets which are already resident resolve immediately.)
+    for (final File lFile : lFiles) {
+      this.onManageFontFace(lFile, lPendingMap.get(lFile), lPendingView, this.getCachePolicy());
+    }
+    // Give up if the TextView goes away first.
+    lPendingView.watch();
+  }
+
+  /** Watches the text of a TextView which is displayed using subsets, and fetches its subsets again once the text comes to need any which its Typeface doesn't include. */
+  private final void watchTextOf(final TextView pTextView, final List<FontSubset> pFontSubsets, final Set<Integer> pIndices) {
+    // Refer to the TextView weakly; it holds onto the TextWatcher.
+    final WeakReference<TextView> lTextView   = new WeakReference<TextView>(pTextView);
+    // Track whether we've already asked for the subsets again; the text may change many times before they arrive.
+    final AtomicBoolean           lIsRevising = new AtomicBoolean(false);
+    // Watch the text.
+    this.getViewRegistry().watchText(pTextView, new TextWatcher() {
+      @Override public final void beforeTextChanged(final CharSequence pText, final int pStart, final int pCount, final int pAfter) { }
+      @Override public final void onTextChanged(final CharSequence pText, final int pStart, final int pBefore, final int pCount) {
+        // Can the text still be displayed by the subsets we have, or are we already revising them?
+        if (RNCustomFontsModule.isCoveredBy(pText, pFontSubsets, pIndices) || !lIsRevising.compareAndSet(false, true)) {
+          return;
+        }
+        // Request the subsets again along the native modules thread, since resolving them hashes each uri.
+        RNCustomFontsModule.this.getReactApplicationContext().runOnNativeModulesQueueThread(new Runnable() { @Override public final void run() {
+          // Fetch the TextView.
+          final TextView lTarget = lTextView.get();
+          // Has it been collected in the meantime?
+          if (lTarget == null) {
+            return;
+          }
+          try {
+            // Fetch the subsets for the new text. (This replaces the TextWatcher.)
+            RNCustomFontsModule.this.requestFontSubsets(lTarget, pFontSubsets, new ICallback<Typeface>() {
+              /** On success... */
+              @Override public final void onSuccess(final Typeface pTypeface) { }
+              /** On failure... */
+              @Override public final void onFailure(final Exception pException) {
+                Log.w(RNCustomFontsModule.TAG, "Failed to revise the subsets of a TextView whose text has changed.", pException);
+              }
+            });
+          } catch (final IOException pIOException) {
+            Log.w(RNCustomFontsModule.TAG, "Failed to revise the subsets of a TextView whose text has changed.", pIOException);
+          }
+        } });
+      }
+      @Override public final void afterTextChanged(final Editable pEditable) { }
+    });
+  }
+
+  /** Forgets any composition of subsets which includes the File. */
+  private final void forgetSubsetsOf(final File pFile) {
+    // Iterate the compositions.
+    for (final Iterator<List<File>> i = this.getComposedSubsets().keySet().iterator(); i.hasNext(); ) {
+      // Does the composition include the File?
+      if (i.next().contains(pFile)) {
+        i.remove();
+      }
+    }
+  }
+
+  /** Combines the Typefaces of the specified subset Files into a single Typeface, where each subset falls back to the next. On platforms which cannot compose a fallback chain, the subset covering the most text is used alone. Runs along the decode stage. */
+  private final Typeface composeTypefaceOf(final List<File> pFiles) {
+    // Determine which of the subsets were successfully decoded.
+    final List<File> lFiles = new ArrayList<File>();
+    for (final File lFile : pFiles) {
+      if (this.getTypefaces().get(lFile) != null) {
+        lFiles.add(lFile);
+      }
+    }
+    // Were none of the subsets usable?
+    if (lFiles.isEmpty()) {
+      return null;
+    }
+    // Is there nothing to compose, or are we unable to?
+    if (lFiles.size() == 1 || Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) {
+      return this.getTypefaces().get(lFiles.get(0));
+    }
+    // Have we already composed these subsets?
+    final List<File> lKey      = Collections.unmodifiableList(lFiles);
+    final Typeface   lComposed = this.getComposedSubsets().get(lKey);
+    if (lComposed != null) {
+      return lComposed;
+    }
+    try {
+      // Allocate the fallback chain, beginning with the subset which covers the most text.
+      final Typeface.CustomFallbackBuilder lCustomFallbackBuilder = new Typeface.CustomFallbackBuilder(
+        new FontFamily.Builder(this.createFontOf(lFiles.get(0))).build()
+      );
+      // Append the remaining subsets. (The platform limits the length of the chain, including the first family.)
+      for (int i = 1; i < Math.min(lFiles.size(), Typeface.CustomFallbackBuilder.getMaxCustomFallbackCount()); i += 1) {
+        lCustomFallbackBuilder.addCustomFallback(
+          new FontFamily.Builder(this.createFontOf(lFiles.get(i))).build()
+        );
+      }
+      // Characters which none of the subsets cover are rendered using the system font.
+      final Typeface lTypeface = lCustomFallbackBuilder
+        .setSystemFallback("sans-serif")
+        .build();
+      // Buffer the composition.
+      this.getComposedSubsets().put(lKey, lTypeface);
+      // Return the composition.
+      return lTypeface;
+    } catch (final IOException pIOException) {
+      // Fall back to the subset which covers the most text.
+      Log.w(RNCustomFontsModule.TAG, "Failed to compose subsets " + lFiles + ".", pIOException);
+      return this.getTypefaces().get(lFiles.get(0));
+    }
+  }
+
+  /** Returns the Typeface for a FontWeight of a FontFamily from its composed FontFamily, where the platform selects the nearest weight which is resident. Returns null if the FontFamily hasn't been composed, either because the platform doesn't support it, none of its faces are ready or one of them couldn't be composed, or the FontWeight is only a name. This never composes the FontFamily; that only takes place along the decode stage. */
+  private final Typeface getComposedTypefaceOf(final String pFontFamily, final String pFontWeight) {
+    // Fetch the numeric FontWeight.
+    final float lWeight = RNCustomFontsVariations.getWeightOf(pFontWeight);
+    // Are we unable to compose the FontFamily, or select this weight?
+    if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q || Float.isNaN(lWeight) || !this.getFontFamilies().containsKey(pFontFamily)) {
+      return null;
+    }
+    // Have we already selected this weight? (Selections are forgotten whenever the FontFamily is composed again.)
+    final String   lKey      = RNCustomFontsModule.getCompositionKeyOf(pFontFamily) + "\n" + ((int)lWeight);
+    final Typeface lSelected = this.getComposedTypefaces().get(lKey);
+    if (lSelected != null) {
+      return lSelected;
+    }
+    // Fetch the composed FontFamily.
+    final Typeface lComposed = this.getComposedTypefaces().get(RNCustomFontsModule.getCompositionKeyOf(pFontFamily));
+    if (lComposed == null) {
+      return null;
+    }
+    // Select the weight; the platform falls back to the nearest weight the FontFamily contains. (This doesn't read any files.)
+    final Typeface lTypeface = Typeface.create(lComposed, Math.max(1, Math.min(1000, (int)lWeight)), false);
+    // Buffer the selection.
+    this.getComposedTypefaces().put(lKey, lTypeface);
+    // Return the selection.
+    return lTypeface;
+  }
+
+  /** Returns the key a composed FontFamily is buffered under; the selections of its weights are buffered under the same prefix. */
+  private static final String getCompositionKeyOf(final String pFontFamily) {
+    return "\0" + pFontFamily;
+  }
+
+  /** Composes the specified FontFamilies again, along with every FontFamily which falls back to them, and returns the names of all of those which were affected. Compositions which can no longer be made are forgotten, so that their faces are served standalone. Runs along the decode stage, since composition reads the files of every face. */
+  private final Set<String> recomposeFontFamilies(final Set<String> pFontFamilies) {
+    // Declare the affected FontFamilies.
+    final Set<String> lAffected = new HashSet<String>(pFontFamilies);
+    // Are we unable to compose?
+    if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) {
+      return lAffected;
+    }
+    // A FontFamily which falls back to one of the FontFamilies embeds it in its chain, so it must be composed again too.
+    for (final Map.Entry<String, List<String>> lEntry : this.getFontFallbacks().entrySet()) {
+      if (!Collections.disjoint(lEntry.getValue(), pFontFamilies)) {
+        lAffected.add(lEntry.getKey());
+      }
+    }
+    // Synchronize upon the compositions, so that concurrent decodes can't publish an older composition over a newer one.
+    synchronized(this.getComposedTypefaces()) {
+      // Iterate the affected FontFamilies.
+      for (final String lFontFamily : lAffected) {
+        // Fetch the key of the composition.
+        final String   lKey      = RNCustomFontsModule.getCompositionKeyOf(lFontFamily);
+        // Compose the FontFamily. (Lookups continue to be served by the previous composition in the meantime.)
+        final Typeface lTypeface = this.getFontFamilies().containsKey(lFontFamily) ? this.createComposedTypefaceOf(lFontFamily) : null;
+        // Publish the composition, or forget it if it can't be made.
+        if (lTypeface != null) {
+          this.getComposedTypefaces().put(lKey, lTypeface);
+        } else {
+          this.getComposedTypefaces().remove(lKey);
+        }
+        // Forget the weights selected from the previous composition.
+        for (final Iterator<String> i = this.getComposedTypefaces().keySet().iterator(); i.hasNext(); ) {
+          if (i.next().startsWith(lKey + "\n")) {
+            i.remove();
+          }
+        }
+      }
+    }
+    // Return the affected FontFamilies.
+    return lAffected;
+  }
+
+  /** Schedules the specified FontFamilies to be composed again along the decode stage, after which the faces of every affected FontFamily are registered. */
+  private final void scheduleRecompositionOf(final Set<String> pFontFamilies) {
+    // Is there nothing to compose?
+    if (pFontFamilies.isEmpty()) {
+      return;
+    }
+    try {
+      // Compose the FontFamilies in the background.
+      this.getDecodeEngine().execute(new Runnable() { @Override public final void run() {
+        RNCustomFontsModule.this.getReactFonts().register(
+          RNCustomFontsModule.this.getFontFamiliesOf(
+            RNCustomFontsModule.this.recomposeFontFamilies(pFontFamilies)
+          )
+        );
+      } });
+    } catch (final RejectedExecutionException pRejectedExecutionException) {
+      // The module is being torn down; nobody is left to use the compositions.
+    }
+  }
+
+  /** Returns only the specified FontFamilies of those which are declared. (<fontFamily, <fontWeight, uri>) */
+  private final Map<String, Map<String, String>> getFontFamiliesOf(final Set<String> pFontFamilies) {
+    // Fetch the FontFamilies. (This is an immutable snapshot.)
+    final Map<String, Map<String, String>> lDeclared     = this.getFontFamilies();
+    // Declare the Map.
+    final Map<String, Map<String, String>> lFontFamilies = new HashMap<String, Map<String, String>>();
+    // Iterate the FontFamilies.
+    for (final String lFontFamily : pFontFamilies) {
+      // Fetch the faces.
+      final Map<String, String> lFontWeights = lDeclared.get(lFontFamily);
+      // Is the FontFamily still declared?
+      if (lFontWeights != null) {
+        lFontFamilies.put(lFontFamily, lFontWeights);
+      }
+    }
+    // Return the FontFamilies.
+    return lFontFamilies;
+  }
+
+  /** Returns a Typeface which contains every resident face of the FontFamily, followed by its fallback chain, or null if it can't be composed. Runs along the decode stage on API 29 and above. */
+  private final Typeface createComposedTypefaceOf(final String pFontFamily) {
+    // Compose the faces of the FontFamily.
+    final FontFamily lFontFamily = this.composeFontFamilyOf(pFontFamily);
+    if (lFontFamily == null) {
+      return null;
+    }
+    // Allocate the fallback chain.
+    final Typeface.CustomFallbackBuilder lCustomFallbackBuilder = new Typeface.CustomFallbackBuilder(lFontFamily);
+    // Characters which the chain doesn't cover are rendered using the system font, unless specified otherwise.
+          String                         lSystemFallback        = "sans-serif";
+          int                            lLength                = 1;
+    // Fetch the fallbacks of the FontFamily.
+    final List<String>                   lFallbacks             = this.getFontFallbacks().get(pFontFamily);
+    // Iterate the fallbacks.
+    for (int i = 0; lFallbacks != null && i < lFallbacks.size(); i += 1) {
+      // Fetch the fallback.
+      final String lFallback = lFallbacks.get(i);
+      // Is this a system family? Then it terminates the chain.
+      if (!this.getFontFamilies().containsKey(lFallback)) {
+        lSystemFallback = lFallback;
+        break;
+      }
+      // Compose the fallback. (Fallbacks which aren't ready yet are skipped; the chain is composed again once they are. The platform limits the length of the chain.)
+      final FontFamily lFallbackFamily = lFallback.equals(pFontFamily) ? null : this.composeFontFamilyOf(lFallback);
+      if (lFallbackFamily != null && lLength < Typeface.CustomFallbackBuilder.getMaxCustomFallbackCount()) {
+        lCustomFallbackBuilder.addCustomFallback(lFallbackFamily);
+        lLength += 1;
+      }
+    }
+    // Compose the Typeface.
+    return lCustomFallbackBuilder
+      .setSystemFallback(lSystemFallback)
+      .build();
+  }
+
+  /** Builds a single FontFamily from the resident faces of a FontFamily, so that weights are selected by the platform. Faces whose weight is only a name are served standalone instead. Returns null if none of the faces can be composed, or if any of them fails to; a partial FontFamily would substitute another weight for the missing face, so every face is served standalone until the FontFamily is composed again. */
+  private final FontFamily composeFontFamilyOf(final String pFontFamily) {
+    // Fetch the faces of the FontFamily.
+    final Map<String, String> lFontWeights = this.getFontFamilies().get(pFontFamily);
+    if (lFontWeights == null) {
+      return null;
+    }
+    // Declare the Builder, and the weights it contains. (A FontFamily may only contain a single Font of each style.)
+          FontFamily.Builder lBuilder = null;
+    final Set<Integer>       lWeights = new HashSet<Integer>();
+    // Iterate the faces.
+    for (final Map.Entry<String, String> lEntry : lFontWeights.entrySet()) {
+      // Fetch the numeric weight.
+      final float lWeight = RNCustomFontsVariations.getWeightOf(lEntry.getKey());
+      // Is the weight only a name, or out of range, or already present?
+      if (Float.isNaN(lWeight) || lWeight < 1.0f || lWeight > 1000.0f || !lWeights.add((int)lWeight)) {
+        continue;
+      }
+      try {
+        // Fetch the File of the face.
+        final File     lFile     = RNCustomFontsModule.getCustomFontFile(this.getReactApplicationContext(), lEntry.getValue());
+        // Fetch the Typeface. (Faces which aren't ready yet are added once they are.)
+        final Typeface lTypeface = this.getTypefaces().get(lFile);
+        if (lTypeface == null) {
+          lWeights.remove((int)lWeight);
+          continue;
+        }
+        // Create the Font of the face.
+        final Font lFont = this.createFontOf(
+          lFile,
+          (int)lWeight,
+          this.getVariations().getSettingsOf(lFile, lTypeface, lEntry.getKey(), this.getFontVariations().get(RNCustomFontsViewRegistry.getFaceKeyOf(pFontFamily, lEntry.getKey())))
+        );
+        // Append the Font.
+        lBuilder = (lBuilder == null) ? new FontFamily.Builder(lFont) : lBuilder.addFont(lFont);
+      } catch (final IOException pIOException) {
+        // Abandon the composition.
+        Log.w(RNCustomFontsModule.TAG, "Failed to compose fontFamily \"" + pFontFamily + "\"; its faces are served standalone.", pIOException);
+        return null;
+      }
+    }
+    // Build the FontFamily.
+    return (lBuilder != null) ? lBuilder.build() : null;
+  }
+
+  /** Resolves with a snapshot of the font pipeline metrics. */
+  @ReactMethod
+  public final void getMetrics(final Promise pPromise) {
+    pPromise.resolve(
+      this.getMetricsSnapshot()
+    );
+  }
+
+  /** Emits a snapshot of the metrics as an "RNCustomFontsMetrics" event at the specified interval, in milliseconds. An interval of zero stops the events. */
+  @ReactMethod
+  public final void setMetricsInterval(final double pIntervalMs) {
+    // Synchronize upon the module.
     synchronized(this) {
-      // Execute the Runnable.
-      pRunnable.run();
+      // Cancel any existing events.
+      if (this.mMetricsScheduler != null) {
+        this.mMetricsScheduler.shutdownNow();
+        this.mMetricsScheduler = null;
+      }
+      // Have events been disabled?
+      if (pIntervalMs <= 0) {
+        return;
+      }
+      // Allocate a scheduler to emit the events; a dedicated daemon keeps the snapshots off the main thread.
+      this.mMetricsScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() { @Override public final Thread newThread(final Runnable pRunnable) {
+        // Allocate a low-priority daemon.
+        final Thread lThread = new Thread(pRunnable, RNCustomFontsModule.TAG + "-Metrics");
+        lThread.setDaemon(true);
+        lThread.setPriority(Thread.MIN_PRIORITY);
+        return lThread;
+      } });
+      // Emit the events.
+      this.mMetricsScheduler.scheduleAtFixedRate(new Runnable() { @Override public final void run() {
+        RNCustomFontsModule.this.getReactApplicationContext()
+          .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+          .emit(RNCustomFontsModule.EVENT_METRICS, RNCustomFontsModule.this.getMetricsSnapshot());
+      } }, (long)pIntervalMs, (long)pIntervalMs, TimeUnit.MILLISECONDS);
     }
   }
 
+  /** Returns a snapshot of the font pipeline metrics. This may be called from native code on any thread. */
+  public final WritableMap getMetricsSnapshot() {
+    // Declare the depth of the waiter queues.
+    int lPendingFontFaces = 0;
+    int lPendingFiles     = 0;
+    // Iterate the Files which are being waited upon.
+    for (final File lFile : this.getPendingFontFaces().keySet()) {
+      // Synchronize upon the File.
+      synchronized(this.getLockFor(lFile)) {
+        // Fetch the waiters. (These may have been notified since we began iterating.)
+        final List<PendingFontFace> lWaiters = this.getPendingFontFaces().get(lFile);
+        // Are there any waiters?
+        if (lWaiters != null) {
+          lPendingFontFaces += lWaiters.size();
+          lPendingFiles     += 1;
+        }
+      }
+    }
+    // Return the snapshot.
+    return this.getMetrics().toWritableMap(lPendingFontFaces, lPendingFiles);
+  }
+
+  /** Returns the lock which guards the state of the specified File. Locks are striped, so that operations on different Files rarely contend. */
+  private final Object getLockFor(final File pFile) {
+    // Spread the hash, so that similar paths land on different stripes.
+    final int lHashCode = pFile.hashCode();
+    // Return the stripe.
+    return this.mLocks[(lHashCode ^ (lHashCode >>> 16)) & (this.mLocks.length - 1)];
+  }
+
   /* Getters. */
   @Override public String getName() {
     return RNCustomFontsModule.TAG;
   }
 
-  private final Map<File, Typeface> getTypefaces() {
+  private final RNCustomFontsTypefaceCache getTypefaces() {
     return this.mTypefaces;
   }
 
@@ -657,5 +2880,93 @@ public class RNCustomFontsModule extends ReactContextBaseJavaModule {
   private final Map<String, Map<String, String>> getFontFamilies() {
     return this.mFontFamilies;
   }
+
+  private final Map<String, Map<String, List<FontSubset>>> getFontSubsets() {
+    return this.mFontSubsets;
+  }
+
+  private final Map<String, RNCustomFontsVariations.Declaration> getFontVariations() {
+    return this.mFontVariations;
+  }
+
+  private final Map<String, List<String>> getFontFallbacks() {
+    return this.mFontFallbacks;
+  }
+
+  private final Map<String, FontFaceRecord> getFontFaceRecords() {
+    return this.mFontFaceRecords;
+  }
+
+  private final List<String> getSignatures() {
+    return this.mSignatures;
+  }
+
+  private final RNCustomFontsCachePolicy getCachePolicy() {
+    return this.mCachePolicy;
+  }
+
+  private final RNCustomFontsLoadPolicy getLoadPolicy() {
+    return this.mLoadPolicy;
+  }
+
+  private final Map<String, Typeface> getComposedTypefaces() {
+    return this.mComposedTypefaces;
+  }
+
+  private final Map<List<File>, Typeface> getComposedSubsets() {
+    return this.mComposedSubsets;
+  }
+
+  private final RNCustomFontsDownloadEngine getDownloadEngine() {
+    return this.mDownloadEngine;
+  }
+
+  private final RNCustomFontsHttpClient getHttpClient() {
+    return this.mHttpClient;
+  }
+
+  private final RNCustomFontsCacheManifest getCacheManifest() {
+    return this.mCacheManifest;
+  }
+
+  private final RNCustomFontsBufferPool getBufferPool() {
+    return this.mBufferPool;
+  }
+
+  private final RNCustomFontsTypefaceApplier getTypefaceApplier() {
+    return this.mTypefaceApplier;
+  }
+
+  private final RNCustomFontsDecodeEngine getDecodeEngine() {
+    return this.mDecodeEngine;
+  }
+
+  private final RNCustomFontsMetrics getMetrics() {
+    return this.mMetrics;
+  }
+
+  private final Map<String, HotSwap> getHotSwaps() {
+    return this.mHotSwaps;
+  }
+
+  private final Map<String, RNCustomFontsFontPack> getFontPacks() {
+    return this.mFontPacks;
+  }
+
+  private final RNCustomFontsMappings getMappings() {
+    return this.mMappings;
+  }
+
+  private final RNCustomFontsViewRegistry getViewRegistry() {
+    return this.mViewRegistry;
+  }
+
+  private final RNCustomFontsReactFonts getReactFonts() {
+    return this.mReactFonts;
+  }
+
+  private final RNCustomFontsVariations getVariations() {
+    return this.mVariations;
+  }
   
 }
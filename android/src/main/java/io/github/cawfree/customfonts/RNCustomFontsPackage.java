@@ -11,9 +11,30 @@ import com.facebook.react.uimanager.ViewManager;
 import com.facebook.react.bridge.JavaScriptModule;
 public class RNCustomFontsPackage implements ReactPackage {
 
+    private final int maxConcurrentDownloads;
+    private final int maxConcurrentDownloadsPerHost;
+    private final int maxQueuedDownloads;
+
+    public RNCustomFontsPackage() {
+      this(
+        RNCustomFontsDownloadEngine.DEFAULT_MAX_CONCURRENT_DOWNLOADS,
+        RNCustomFontsDownloadEngine.DEFAULT_MAX_CONCURRENT_DOWNLOADS_PER_HOST,
+        RNCustomFontsDownloadEngine.DEFAULT_MAX_QUEUED_DOWNLOADS
+      );
+    }
+
+    // Allows the number of concurrent font downloads to be tuned, both in total and per host.
+    public RNCustomFontsPackage(int maxConcurrentDownloads, int maxConcurrentDownloadsPerHost, int maxQueuedDownloads) {
+      this.maxConcurrentDownloads = maxConcurrentDownloads;
+      this.maxConcurrentDownloadsPerHost = maxConcurrentDownloadsPerHost;
+      this.maxQueuedDownloads = maxQueuedDownloads;
+    }
+
     @Override
     public List<NativeModule> createNativeModules(ReactApplicationContext reactContext) {
-      return Arrays.<NativeModule>asList(new RNCustomFontsModule(reactContext));
+      return Arrays.<NativeModule>asList(
+        new RNCustomFontsModule(reactContext, maxConcurrentDownloads, maxConcurrentDownloadsPerHost, maxQueuedDownloads)
+      );
     }
 
     // Deprecated from RN 0.47
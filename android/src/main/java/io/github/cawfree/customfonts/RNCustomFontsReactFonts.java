@@ -0,0 +1,151 @@
+package io.github.cawfree.customfonts;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import android.graphics.Typeface;
+import android.util.Log;
+
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.views.text.ReactFontManager;
+
+/** Registers resident faces with React Native's ReactFontManager, so that text which declares a fontFamily in its style resolves the Typeface natively whilst it is laid out, rather than through a call per view. React Native only distinguishes the regular and bold faces of a family, so faces of any other weight continue to be applied per view. */
+final class RNCustomFontsReactFonts {
+
+  /* Static Declarations. */
+  static final int STYLE_UNSUPPORTED = -1;
+
+  /** Returns the style a FontWeight is registered under, or STYLE_UNSUPPORTED if React Native's text layout can't select it. */
+  static final int getStyleOf(final String pFontWeight) {
+    // Is this the regular face?
+    if ("normal".equals(pFontWeight) || "400".equals(pFontWeight)) {
+      return Typeface.NORMAL;
+    }
+    // Is this the bold face?
+    if ("bold".equals(pFontWeight) || "700".equals(pFontWeight)) {
+      return Typeface.BOLD;
+    }
+    // The face can't be selected by a style.
+    return RNCustomFontsReactFonts.STYLE_UNSUPPORTED;
+  }
+
+  /** Returns the key a face is registered under. */
+  private static final String getKeyOf(final String pFontFamily, final int pStyle) {
+    return pFontFamily + "\n" + pStyle;
+  }
+
+  /** Defines whether any of the FontWeights of a FontFamily is registered under the specified style. */
+  private static final boolean isDeclared(final Map<String, String> pFontWeights, final int pStyle) {
+    // Is the FontFamily declared at all?
+    if (pFontWeights == null) {
+      return false;
+    }
+    // Iterate the FontWeights.
+    for (final String lFontWeight : pFontWeights.keySet()) {
+      // Is the FontWeight registered under the style?
+      if (RNCustomFontsReactFonts.getStyleOf(lFontWeight) == pStyle) {
+        return true;
+      }
+    }
+    // The style isn't declared.
+    return false;
+  }
+
+  /** Resolves the Typeface of a face. */
+  interface Source {
+    /** Returns the Typeface of the face, or null if it is not resident. */
+    Typeface getTypefaceOf(final String pFontFamily, final String pFontWeight, final String pUri) throws IOException;
+  }
+
+  /* Member Variables. */
+  private final ReactApplicationContext mReactApplicationContext;
+  private final Source                  mSource;
+  private final Map<String, Typeface>   mRegisteredTypefaces;
+
+  /** Constructor. */
+  RNCustomFontsReactFonts(final ReactApplicationContext pReactApplicationContext, final Source pSource) {
+    // Initialize Member Variables.
+    this.mReactApplicationContext = pReactApplicationContext;
+    this.mSource                  = pSource;
+    this.mRegisteredTypefaces     = new HashMap<String, Typeface>();
+  }
+
+  /** Registers every face of the FontFamilies whose Typeface is resident. This may be called from any thread; registration takes place along the native modules thread, which is where text is laid out, so a face is always registered before any style update which follows it. */
+  final void register(final Map<String, Map<String, String>> pFontFamilies) {
+    this.getReactApplicationContext().runOnNativeModulesQueueThread(new Runnable() { @Override public final void run() {
+      // Iterate the FontFamilies.
+      for (final Map.Entry<String, Map<String, String>> lFontFamily : pFontFamilies.entrySet()) {
+        // Iterate the FontWeights.
+        for (final Map.Entry<String, String> lFontWeight : lFontFamily.getValue().entrySet()) {
+          // Fetch the style of the face.
+          final int lStyle = RNCustomFontsReactFonts.getStyleOf(lFontWeight.getKey());
+          // Can the face be selected by a style?
+          if (lStyle != RNCustomFontsReactFonts.STYLE_UNSUPPORTED) {
+            RNCustomFontsReactFonts.this.register(lFontFamily.getKey(), lFontWeight.getKey(), lStyle, lFontWeight.getValue());
+          }
+        }
+      }
+    } });
+  }
+
+  /** Forgets the registration of every face which the FontFamilies no longer declare. This may be called from any thread; like registration, it takes place along the native modules thread, so it is ordered with respect to any registration which precedes or follows it. */
+  final void retain(final Map<String, Map<String, String>> pFontFamilies) {
+    this.getReactApplicationContext().runOnNativeModulesQueueThread(new Runnable() { @Override public final void run() {
+      // Iterate the registrations.
+      for (final Iterator<String> i = RNCustomFontsReactFonts.this.getRegisteredTypefaces().keySet().iterator(); i.hasNext(); ) {
+        // Fetch the FontFamily and style of the registration.
+        final String lKey        = i.next();
+        final int    lIndex      = lKey.lastIndexOf('\n');
+        final String lFontFamily = lKey.substring(0, lIndex);
+        final int    lStyle      = Integer.parseInt(lKey.substring(lIndex + 1));
+        // Is the face still declared?
+        if (RNCustomFontsReactFonts.isDeclared(pFontFamilies.get(lFontFamily), lStyle)) {
+          continue;
+        }
+        // Forget the registration.
+        i.remove();
+        // ReactFontManager can't forget a Typeface, so restore the system font it would otherwise have resolved for the fontFamily.
+        ReactFontManager.getInstance().setTypeface(lFontFamily, lStyle, Typeface.create(lFontFamily, lStyle));
+      }
+    } });
+  }
+
+  /** Registers a single face, if its Typeface is resident and has changed since it was last registered. Runs along the native modules thread. */
+  private final void register(final String pFontFamily, final String pFontWeight, final int pStyle, final String pUri) {
+    // Declare the Typeface.
+    final Typeface lTypeface;
+    try {
+      // Fetch the Typeface. (Faces which aren't resident yet are registered once they've been decoded.)
+      lTypeface = this.getSource().getTypefaceOf(pFontFamily, pFontWeight, pUri);
+    } catch (final IOException pIOException) {
+      Log.w(RNCustomFontsModule.TAG, "Unable to register fontFamily \"" + pFontFamily + "\".", pIOException);
+      return;
+    }
+    // Fetch the key of the face.
+    final String lKey = RNCustomFontsReactFonts.getKeyOf(pFontFamily, pStyle);
+    // Is the Typeface unavailable, or already registered?
+    if (lTypeface == null || this.getRegisteredTypefaces().get(lKey) == lTypeface) {
+      return;
+    }
+    // Remember the registration.
+    this.getRegisteredTypefaces().put(lKey, lTypeface);
+    // Register the Typeface.
+    ReactFontManager.getInstance().setTypeface(pFontFamily, pStyle, lTypeface);
+  }
+
+  /* Getters. */
+  private final ReactApplicationContext getReactApplicationContext() {
+    return this.mReactApplicationContext;
+  }
+
+  private final Source getSource() {
+    return this.mSource;
+  }
+
+  private final Map<String, Typeface> getRegisteredTypefaces() {
+    return this.mRegisteredTypefaces;
+  }
+
+}
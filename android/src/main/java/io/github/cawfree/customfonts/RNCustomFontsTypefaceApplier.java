@@ -0,0 +1,99 @@
+package io.github.cawfree.customfonts;
+
+import com.facebook.react.bridge.UiThreadUtil;
+import com.facebook.react.modules.core.ChoreographerCompat;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import android.graphics.Typeface;
+import android.widget.TextView;
+
+/** Coalesces Typeface assignments so that every TextView which becomes ready before the next frame is updated by a single frame callback, rather than by a separate main thread task per view. */
+final class RNCustomFontsTypefaceApplier extends ChoreographerCompat.FrameCallback {
+
+  /* Member Variables. */
+  private final Map<TextView, Typeface> mPendingTypefaces;
+  private final Runnable                mPostFrameCallback;
+  private       boolean                 mIsFrameCallbackPosted;
+
+  /** Constructor. */
+  RNCustomFontsTypefaceApplier() {
+    // Initialize Member Variables.
+    this.mPendingTypefaces      = new LinkedHashMap<TextView, Typeface>();
+    this.mPostFrameCallback     = new Runnable() { @Override public final void run() {
+      // The Choreographer belongs to the main thread, so it may only be fetched from there.
+      ChoreographerCompat.getInstance().postFrameCallback(RNCustomFontsTypefaceApplier.this);
+    } };
+    this.mIsFrameCallbackPosted = false;
+  }
+
+  /** Schedules the Typeface to be assigned to the TextView on the next frame. This may be called from any thread; if the same TextView is scheduled more than once before the frame, the last Typeface wins. */
+  final void schedule(final Typeface pTypeface, final TextView pTextView) {
+    // Declare whether we're responsible for posting the frame callback.
+    final boolean lShouldPost;
+    // Synchronize upon ourself.
+    synchronized(this) {
+      // Buffer the assignment.
+      this.getPendingTypefaces().put(pTextView, pTypeface);
+      // Is a frame callback already on its way?
+      lShouldPost                 = !this.mIsFrameCallbackPosted;
+      this.mIsFrameCallbackPosted = true;
+    }
+    // Do we need to request a frame?
+    if (lShouldPost) {
+      UiThreadUtil.runOnUiThread(this.getPostFrameCallback());
+    }
+  }
+
+  /** Assigns the Typeface to the TextView immediately, superseding anything scheduled for it. Runs on the main thread, i.e. from within a UIBlock, so that the assignment lands in the same frame as the view it applies to. */
+  final void apply(final Typeface pTypeface, final TextView pTextView) {
+    // Synchronize upon ourself.
+    synchronized(this) {
+      // Anything scheduled earlier is now out of date.
+      this.getPendingTypefaces().remove(pTextView);
+    }
+    // Assign the Typeface.
+    RNCustomFontsTypefaceApplier.assign(pTypeface, pTextView);
+  }
+
+  /** Assigns a Typeface to a TextView, laying it out again only if the Typeface has changed. */
+  private static final void assign(final Typeface pTypeface, final TextView pTextView) {
+    // Is the Typeface already in use? (Then there's nothing to lay out again.)
+    if (pTextView.getTypeface() != pTypeface) {
+      // Assign the Typeface.
+      pTextView.setTypeface(pTypeface);
+      // Ensure we update the View layout. (Requests made within the same frame are merged into a single layout pass.)
+      pTextView.requestLayout();
+    }
+  }
+
+  /** Assigns every pending Typeface. Runs on the main thread. */
+  // https://github.com/facebook/react-native/issues/17968
+  @Override public final void doFrame(final long pFrameTimeNanos) {
+    // Declare the assignments to perform.
+    final Map<TextView, Typeface> lPendingTypefaces;
+    // Synchronize upon ourself.
+    synchronized(this) {
+      // Detach the pending assignments; anything scheduled from here on will request another frame.
+      lPendingTypefaces           = new LinkedHashMap<TextView, Typeface>(this.getPendingTypefaces());
+      this.getPendingTypefaces().clear();
+      this.mIsFrameCallbackPosted = false;
+    }
+    // Iterate the assignments.
+    for (final Map.Entry<TextView, Typeface> lEntry : lPendingTypefaces.entrySet()) {
+      // Assign the Typeface.
+      RNCustomFontsTypefaceApplier.assign(lEntry.getValue(), lEntry.getKey());
+    }
+  }
+
+  /* Getters. */
+  private final Map<TextView, Typeface> getPendingTypefaces() {
+    return this.mPendingTypefaces;
+  }
+
+  private final Runnable getPostFrameCallback() {
+    return this.mPostFrameCallback;
+  }
+
+}
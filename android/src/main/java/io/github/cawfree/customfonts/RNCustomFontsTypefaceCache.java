@@ -0,0 +1,207 @@
+package io.github.cawfree.customfonts;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import android.graphics.Typeface;
+
+/** A least-recently-used cache of decoded Typefaces, bounded by an estimate of the memory they occupy. Evicted Typefaces can be decoded again from disk. Lookups never lock; only insertions and evictions synchronize. */
+final class RNCustomFontsTypefaceCache {
+
+  /** Returns the default memory budget; an eighth of the heap, which is the conventional allowance for in-memory caches on Android. */
+  static final long getDefaultMaxBytes() {
+    return Runtime.getRuntime().maxMemory() / 8L;
+  }
+
+  /** Estimates the memory occupied by a Typeface, given the size of the font it was decoded from. Font tables are held in their entirety, so this is dominated by the size of the font. */
+  private static final long estimateSizeOf(final long pSourceSize) {
+    return Math.max(1L, pSourceSize);
+  }
+
+  /** A resident Typeface. */
+  private static final class Node {
+    /* Member Variables. */
+    private final    Typeface mTypeface;
+    private final    long     mSize;
+    private final    String   mContentHash;
+    private volatile long     mAccessedAt;
+    /** Constructor. */
+    private Node(final Typeface pTypeface, final long pSize, final String pContentHash) {
+      // Initialize Member Variables.
+      this.mTypeface    = pTypeface;
+      this.mSize        = pSize;
+      this.mContentHash = pContentHash;
+      this.mAccessedAt  = System.nanoTime();
+    }
+  }
+
+  /* Member Variables. */
+  private final Map<File, Node> mNodes;
+  private final Set<File>       mFailures;
+  private final Set<File>       mEvictions;
+  private       long            mMaxBytes;
+  private       long            mBytes;
+
+  /** Constructor. */
+  RNCustomFontsTypefaceCache(final long pMaxBytes) {
+    // Initialize Member Variables.
+    this.mNodes     = new ConcurrentHashMap<File, Node>();
+    this.mFailures  = Collections.newSetFromMap(new ConcurrentHashMap<File, Boolean>());
+    this.mEvictions = Collections.newSetFromMap(new ConcurrentHashMap<File, Boolean>());
+    this.mMaxBytes  = pMaxBytes;
+    this.mBytes     = 0L;
+  }
+
+  /** Returns the Typeface for the specified File, or null if it is not resident. */
+  final Typeface get(final File pFile) {
+    // Fetch the Node.
+    final Node lNode = this.getNodes().get(pFile);
+    // Is the Typeface resident?
+    if (lNode != null) {
+      // Mark the Typeface as recently used. (Racing writers only ever store similar values, so this needs no lock.)
+      lNode.mAccessedAt = System.nanoTime();
+      // Return the Typeface.
+      return lNode.mTypeface;
+    }
+    // The Typeface is not resident.
+    return null;
+  }
+
+  /** Returns a resident Typeface which was decoded from a file with the specified content hash, or null if there isn't one. This allows identical files to share a single Typeface. */
+  final Typeface getByContentHash(final String pContentHash) {
+    // Is the content unidentified?
+    if (pContentHash == null) {
+      return null;
+    }
+    // Iterate the resident Typefaces. (There is one per font file, so there are few enough to scan.)
+    for (final Node lNode : this.getNodes().values()) {
+      // Was the Typeface decoded from identical content?
+      if (pContentHash.equals(lNode.mContentHash)) {
+        // Mark the Typeface as recently used.
+        lNode.mAccessedAt = System.nanoTime();
+        // Return the Typeface.
+        return lNode.mTypeface;
+      }
+    }
+    // There is no such Typeface.
+    return null;
+  }
+
+  /** Buffers a successfully decoded Typeface, evicting the least recently used Typefaces if we exceed the budget. The size is that of the font the Typeface was decoded from, wherever it was read from; the content hash of the file may be null if it is unknown. */
+  final void put(final File pFile, final Typeface pTypeface, final long pSourceSize, final String pContentHash) {
+    // Synchronize upon ourself.
+    synchronized(this) {
+      // Release any previous Typeface for this File.
+      this.remove(pFile);
+      // Allocate the Node.
+      final Node lNode = new Node(pTypeface, RNCustomFontsTypefaceCache.estimateSizeOf(pSourceSize), pContentHash);
+      // Buffer the Typeface.
+      this.getNodes().put(pFile, lNode);
+      this.mBytes += lNode.mSize;
+      // Ensure we respect the budget.
+      this.trimToSize();
+    }
+  }
+
+  /** Records that the specified File could not be turned into a Typeface. */
+  final void putFailure(final File pFile) {
+    // Synchronize upon ourself.
+    synchronized(this) {
+      // Release any previous Typeface for this File.
+      this.remove(pFile);
+      // Track the failure.
+      this.getFailures().add(pFile);
+    }
+  }
+
+  /** Defines whether the specified File previously failed to produce a Typeface. */
+  final boolean isFailure(final File pFile) {
+    return this.getFailures().contains(pFile);
+  }
+
+  /** Returns true exactly once after the Typeface for the specified File has been evicted; the caller becomes responsible for decoding it again. */
+  final boolean claimEviction(final File pFile) {
+    return this.getEvictions().remove(pFile);
+  }
+
+  /** Releases the Typeface for the specified File, if it is resident, as though it had been evicted; it is decoded again if it is ever requested. */
+  final void evict(final File pFile) {
+    // Synchronize upon ourself.
+    synchronized(this) {
+      // Release the Typeface.
+      final Node lNode = this.getNodes().remove(pFile);
+      // Was the Typeface resident?
+      if (lNode != null) {
+        this.mBytes -= lNode.mSize;
+        // Remember that the File was evicted, so that it can be decoded again on demand.
+        this.getEvictions().add(pFile);
+      }
+    }
+  }
+
+  /** Updates the memory budget. */
+  final void setMaxBytes(final long pMaxBytes) {
+    // Synchronize upon ourself.
+    synchronized(this) {
+      // Update the budget.
+      this.mMaxBytes = pMaxBytes;
+      // Ensure we respect the new budget.
+      this.trimToSize();
+    }
+  }
+
+  /** Forgets everything we know about the specified File. (Must be called whilst synchronized.) */
+  private final void remove(final File pFile) {
+    // Release the Typeface, if any.
+    final Node lNode = this.getNodes().remove(pFile);
+    // Was the Typeface resident?
+    if (lNode != null) {
+      this.mBytes -= lNode.mSize;
+    }
+    // Forget any previous outcomes.
+    this.getFailures().remove(pFile);
+    this.getEvictions().remove(pFile);
+  }
+
+  /** Evicts the least recently used Typefaces until we're within the budget. The most recent Typeface is always retained, however large it is. (Must be called whilst synchronized.) */
+  private final void trimToSize() {
+    // Continue to evict until we are within the budget.
+    while (this.mBytes > this.getMaxBytes() && this.getNodes().size() > 1) {
+      // Find the least recently used File. (Writes are rare compared to lookups, so we scan rather than maintain an ordering that every lookup would have to lock.)
+      File lEldest     = null;
+      long lAccessedAt = Long.MAX_VALUE;
+      for (final Map.Entry<File, Node> lEntry : this.getNodes().entrySet()) {
+        // Is this the least recently used File so far?
+        if (lEntry.getValue().mAccessedAt < lAccessedAt) {
+          lEldest     = lEntry.getKey();
+          lAccessedAt = lEntry.getValue().mAccessedAt;
+        }
+      }
+      // Release the Typeface.
+      this.mBytes -= this.getNodes().remove(lEldest).mSize;
+      // Remember that the File was evicted, so that it can be decoded again on demand.
+      this.getEvictions().add(lEldest);
+    }
+  }
+
+  /* Getters. */
+  private final Map<File, Node> getNodes() {
+    return this.mNodes;
+  }
+
+  private final Set<File> getFailures() {
+    return this.mFailures;
+  }
+
+  private final Set<File> getEvictions() {
+    return this.mEvictions;
+  }
+
+  private final long getMaxBytes() {
+    return this.mMaxBytes;
+  }
+
+}
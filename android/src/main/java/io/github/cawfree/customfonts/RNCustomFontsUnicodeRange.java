@@ -0,0 +1,124 @@
+package io.github.cawfree.customfonts;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/** A set of code points described using the CSS unicode-range syntax, i.e. "U+0000-00FF, U+0131, U+4??". */
+final class RNCustomFontsUnicodeRange {
+
+  /* Static Declarations. */
+  private static final int MAX_CODE_POINT = 0x10FFFF;
+
+  /** Parses a single hexadecimal code point. */
+  private static final int parseCodePoint(final String pHex, final String pUnicodeRange) {
+    // Parse the code point.
+    final int lCodePoint = Integer.parseInt(pHex, 16);
+    // Ensure the code point is valid.
+    if (lCodePoint < 0 || lCodePoint > RNCustomFontsUnicodeRange.MAX_CODE_POINT) {
+      throw new IllegalArgumentException("Encountered out of range code point \"" + pHex + "\" in unicodeRange \"" + pUnicodeRange + "\".");
+    }
+    // Return the code point.
+    return lCodePoint;
+  }
+
+  /** Parses a CSS unicode-range. Throws an IllegalArgumentException if it is malformed. */
+  static final RNCustomFontsUnicodeRange parse(final String pUnicodeRange) {
+    // Declare the intervals. (<start, end>, inclusive.)
+    final List<int[]> lIntervals = new ArrayList<int[]>();
+    try {
+      // Iterate the comma-separated ranges.
+      for (final String lToken : pUnicodeRange.split(",")) {
+        // Remove surrounding whitespace.
+        final String lTrimmed = lToken.trim().toUpperCase();
+        // Ensure the range is well formed.
+        if (!lTrimmed.startsWith("U+") || lTrimmed.length() <= 2) {
+          throw new IllegalArgumentException("Expected a range of the form U+XXXX, encountered \"" + lTrimmed + "\".");
+        }
+        // Fetch the code points.
+        final String lRange = lTrimmed.substring(2);
+        final int    i      = lRange.indexOf('-');
+        // Is this an interval?
+        if (i >= 0) {
+          // Fetch the bounds of the interval.
+          final int lStart = RNCustomFontsUnicodeRange.parseCodePoint(lRange.substring(0, i), pUnicodeRange);
+          final int lEnd   = RNCustomFontsUnicodeRange.parseCodePoint(lRange.substring(i + 1), pUnicodeRange);
+          // Ensure the interval isn't reversed; CSS treats such a range as invalid, rather than empty.
+          if (lStart > lEnd) {
+            throw new IllegalArgumentException("Encountered reversed range \"" + lTrimmed + "\" in unicodeRange \"" + pUnicodeRange + "\".");
+          }
+          lIntervals.add(new int[] { lStart, lEnd });
+        } else if (lRange.indexOf('?') >= 0) {
+          // Wildcards stand for any hexadecimal digit, i.e. U+4?? is U+400-4FF.
+          lIntervals.add(new int[] {
+            RNCustomFontsUnicodeRange.parseCodePoint(lRange.replace('?', '0'), pUnicodeRange),
+            RNCustomFontsUnicodeRange.parseCodePoint(lRange.replace('?', 'F'), pUnicodeRange),
+          });
+        } else {
+          // This is a single code point.
+          final int lCodePoint = RNCustomFontsUnicodeRange.parseCodePoint(lRange, pUnicodeRange);
+          lIntervals.add(new int[] { lCodePoint, lCodePoint });
+        }
+      }
+    } catch (final NumberFormatException pNumberFormatException) {
+      throw new IllegalArgumentException("Failed to parse unicodeRange \"" + pUnicodeRange + "\".", pNumberFormatException);
+    }
+    // Sort the intervals by their start, so that they can be searched.
+    Collections.sort(lIntervals, new Comparator<int[]>() { @Override public final int compare(final int[] pA, final int[] pB) {
+      return (pA[0] < pB[0]) ? -1 : ((pA[0] == pB[0]) ? 0 : 1);
+    } });
+    // Allocate the UnicodeRange.
+    return new RNCustomFontsUnicodeRange(lIntervals.toArray(new int[lIntervals.size()][]));
+  }
+
+  /* Member Variables. */
+  private final int[][] mIntervals;
+
+  /** Constructor. */
+  private RNCustomFontsUnicodeRange(final int[][] pIntervals) {
+    // Initialize Member Variables.
+    this.mIntervals = pIntervals;
+  }
+
+  /** Defines whether the code point falls within the range. */
+  final boolean contains(final int pCodePoint) {
+    // Iterate the intervals. (These are sorted, so we can stop as soon as we've passed the code point.)
+    for (final int[] lInterval : this.getIntervals()) {
+      // Have we passed the code point?
+      if (lInterval[0] > pCodePoint) {
+        return false;
+      }
+      // Is the code point within the interval?
+      if (pCodePoint <= lInterval[1]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Returns the number of code points within the text which fall within the range. */
+  final int getCoverageOf(final CharSequence pText) {
+    // Declare the coverage.
+    int lCoverage = 0;
+    // Iterate the code points.
+    for (int i = 0; i < pText.length(); ) {
+      // Fetch the code point.
+      final int lCodePoint = Character.codePointAt(pText, i);
+      // Is the code point covered?
+      if (this.contains(lCodePoint)) {
+        lCoverage += 1;
+      }
+      // Advance to the next code point.
+      i += Character.charCount(lCodePoint);
+    }
+    // Return the coverage.
+    return lCoverage;
+  }
+
+  /* Getters. */
+  private final int[][] getIntervals() {
+    return this.mIntervals;
+  }
+
+}
@@ -0,0 +1,311 @@
+package io.github.cawfree.customfonts;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import android.graphics.Typeface;
+import android.os.Build;
+import android.util.Log;
+
+/** Creates instances of variable fonts, so that a single file can serve every weight and width of a family. The axes of a font are read from its fvar table once, and each instance is created along the decode stage and shared by every face which asks for the same settings; lookups never read the file. Instances are held for as long as the Typeface they were created from is alive; once it's evicted and collected, they're collected with it. */
+final class RNCustomFontsVariations {
+
+  /* Static Declarations. */
+  private static final int    TAG_FVAR          = 0x66766172; // "fvar"
+  private static final String AXIS_WEIGHT       = "wght";
+  private static final String AXIS_WIDTH        = "wdth";
+  private static final int    SFNT_HEADER_SIZE  = 12;
+  private static final int    SFNT_ENTRY_SIZE   = 16;
+  private static final int    FVAR_AXIS_SIZE    = 20;
+
+  /** Describes how a face would like to be instantiated from a variable font, as declared by the fontFaces prop. */
+  static final class Declaration {
+    /* Member Variables. */
+    private final String mFontVariationSettings;
+    private final float  mFontStretch;
+    /** Constructor. */
+    Declaration(final String pFontVariationSettings, final float pFontStretch) {
+      // Initialize Member Variables.
+      this.mFontVariationSettings = pFontVariationSettings;
+      this.mFontStretch           = pFontStretch;
+    }
+    /* Getters. */
+    private final String getFontVariationSettings() {
+      return this.mFontVariationSettings;
+    }
+    private final float getFontStretch() {
+      return this.mFontStretch;
+    }
+  }
+
+  /** Describes a single axis of variation. */
+  private static final class Axis {
+    /* Member Variables. */
+    private final float mMinValue;
+    private final float mDefaultValue;
+    private final float mMaxValue;
+    /** Constructor. */
+    private Axis(final float pMinValue, final float pDefaultValue, final float pMaxValue) {
+      // Initialize Member Variables.
+      this.mMinValue     = pMinValue;
+      this.mDefaultValue = pDefaultValue;
+      this.mMaxValue     = pMaxValue;
+    }
+  }
+
+  /** The axes of a variable font, and the instances created from it. (<settings, Typeface>) Instances must never refer to the Typeface they were created from, otherwise it could never be collected. */
+  private static final class Instances {
+    /* Member Variables. */
+    private final Map<String, Axis>     mAxes;
+    private final Map<String, Typeface> mTypefaces;
+    private final Set<String>           mFailures;
+    /** Constructor. */
+    private Instances(final Map<String, Axis> pAxes) {
+      // Initialize Member Variables.
+      this.mAxes      = pAxes;
+      this.mTypefaces = new ConcurrentHashMap<String, Typeface>();
+      this.mFailures  = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    }
+  }
+
+  /** Returns the numeric equivalent of a FontWeight, or NaN if it can't be interpreted. */
+  static final float getWeightOf(final String pFontWeight) {
+    // Is there no FontWeight?
+    if (pFontWeight == null) {
+      return Float.NaN;
+    }
+    // Is this a keyword?
+    if ("normal".equalsIgnoreCase(pFontWeight)) {
+      return 400.0f;
+    } else if ("bold".equalsIgnoreCase(pFontWeight)) {
+      return 700.0f;
+    }
+    try {
+      // Attempt to parse the numeric FontWeight.
+      return Float.parseFloat(pFontWeight);
+    } catch (final NumberFormatException pNumberFormatException) {
+      // The FontWeight is only a name.
+      return Float.NaN;
+    }
+  }
+
+  /** Reads the axes declared by the fvar table of an sfnt file. Fonts which aren't variable have none. (<tag, Axis>) */
+  private static final Map<String, Axis> readAxesOf(final File pFile) throws IOException {
+    // Open the File.
+    final RandomAccessFile lRandomAccessFile = new RandomAccessFile(pFile, "r");
+    try {
+      // Is the File too short to hold a table directory?
+      if (lRandomAccessFile.length() < RNCustomFontsVariations.SFNT_HEADER_SIZE) {
+        return Collections.<String, Axis>emptyMap();
+      }
+      // Skip the sfnt version, and read the number of tables.
+      lRandomAccessFile.seek(4);
+      final int lNumTables = lRandomAccessFile.readUnsignedShort();
+      // Iterate the table directory.
+      for (int i = 0; i < lNumTables; i += 1) {
+        // Seek to the entry.
+        lRandomAccessFile.seek(RNCustomFontsVariations.SFNT_HEADER_SIZE + ((long)i * RNCustomFontsVariations.SFNT_ENTRY_SIZE));
+        // Is this the fvar table?
+        if (lRandomAccessFile.readInt() != RNCustomFontsVariations.TAG_FVAR) {
+          continue;
+        }
+        // Skip the checksum, and read the location of the table.
+        lRandomAccessFile.skipBytes(4);
+        final long lOffset = lRandomAccessFile.readInt() & 0xFFFFFFFFL;
+        // Skip the version, and read the layout of the axes.
+        lRandomAccessFile.seek(lOffset + 4);
+        final int lAxesArrayOffset = lRandomAccessFile.readUnsignedShort();
+        lRandomAccessFile.skipBytes(2);
+        final int lAxisCount       = lRandomAccessFile.readUnsignedShort();
+        final int lAxisSize        = lRandomAccessFile.readUnsignedShort();
+        // Declare the Axes.
+        final Map<String, Axis> lAxes = new HashMap<String, Axis>();
+        // Iterate the axes. (Records may be larger than we expect in future versions, so we always step by the declared size.)
+        for (int j = 0; j < lAxisCount && lAxisSize >= RNCustomFontsVariations.FVAR_AXIS_SIZE; j += 1) {
+          // Seek to the axis.
+          lRandomAccessFile.seek(lOffset + lAxesArrayOffset + ((long)j * lAxisSize));
+          // Read the tag of the axis.
+          final byte[] lTag = new byte[4];
+          lRandomAccessFile.readFully(lTag);
+          // Read the range of the axis. (Values are 16.16 fixed point.)
+          final float lMinValue     = lRandomAccessFile.readInt() / 65536.0f;
+          final float lDefaultValue = lRandomAccessFile.readInt() / 65536.0f;
+          final float lMaxValue     = lRandomAccessFile.readInt() / 65536.0f;
+          // Buffer the axis.
+          lAxes.put(new String(lTag, "US-ASCII"), new Axis(lMinValue, lDefaultValue, lMaxValue));
+        }
+        // Return the Axes.
+        return lAxes;
+      }
+      // The font isn't variable.
+      return Collections.<String, Axis>emptyMap();
+    } finally {
+      // Release the File.
+      lRandomAccessFile.close();
+    }
+  }
+
+  /** Appends the setting for an axis, unless the font doesn't vary along it, the value is unknown, or the font already defaults to it. */
+  private static final void appendSettingTo(final StringBuilder pSettings, final Map<String, Axis> pAxes, final String pTag, final float pValue) {
+    // Fetch the Axis.
+    final Axis lAxis = pAxes.get(pTag);
+    // Is there nothing to vary?
+    if (lAxis == null || Float.isNaN(pValue)) {
+      return;
+    }
+    // Keep the value within the range supported by the font.
+    final float lValue = Math.max(lAxis.mMinValue, Math.min(lAxis.mMaxValue, pValue));
+    // Is this the default instance?
+    if (lValue == lAxis.mDefaultValue) {
+      return;
+    }
+    // Append the setting.
+    pSettings.append((pSettings.length() > 0) ? ", " : "").append('\'').append(pTag).append("' ").append(lValue);
+  }
+
+  /** Returns the font variation settings for a face, or null if the face is the default instance. Explicit settings win; otherwise, the weight and width are taken from the fontWeight and fontStretch of the face. */
+  private static final String getSettingsOf(final Map<String, Axis> pAxes, final String pFontWeight, final Declaration pDeclaration) {
+    // Fetch the explicit settings.
+    final String        lDeclared = (pDeclaration != null) ? pDeclaration.getFontVariationSettings() : null;
+    final StringBuilder lSettings = new StringBuilder((lDeclared != null) ? lDeclared.trim() : "");
+    // Has the weight not been specified explicitly?
+    if (lSettings.indexOf(RNCustomFontsVariations.AXIS_WEIGHT) < 0) {
+      RNCustomFontsVariations.appendSettingTo(lSettings, pAxes, RNCustomFontsVariations.AXIS_WEIGHT, RNCustomFontsVariations.getWeightOf(pFontWeight));
+    }
+    // Has the width not been specified explicitly?
+    if (lSettings.indexOf(RNCustomFontsVariations.AXIS_WIDTH) < 0) {
+      RNCustomFontsVariations.appendSettingTo(lSettings, pAxes, RNCustomFontsVariations.AXIS_WIDTH, (pDeclaration != null) ? pDeclaration.getFontStretch() : Float.NaN);
+    }
+    // Return the settings.
+    return (lSettings.length() > 0) ? lSettings.toString() : null;
+  }
+
+  /* Member Variables. */
+  private final Map<Typeface, Instances> mInstances;
+
+  /** Constructor. */
+  RNCustomFontsVariations() {
+    // Initialize Member Variables.
+    this.mInstances = new WeakHashMap<Typeface, Instances>();
+  }
+
+  /** Returns the font variation settings which select the face from the Typeface decoded from the File, or null if the face is the default instance. This may read the file, so it must only be called along the decode stage. */
+  final String getSettingsOf(final File pFile, final Typeface pTypeface, final String pFontWeight, final Declaration pDeclaration) {
+    // Font variations are only supported from Oreo onwards.
+    if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+      return null;
+    }
+    // Determine the settings of the face.
+    return RNCustomFontsVariations.getSettingsOf(this.getInstancesOf(pFile, pTypeface).mAxes, pFontWeight, pDeclaration);
+  }
+
+  /** Returns the instance of the Typeface which corresponds to the face, or null if it has yet to be created by createInstanceOf. Fonts which aren't variable, or which can't be instantiated on this platform, return the Typeface unchanged. This never reads the file, so it may be called from any thread. */
+  final Typeface getInstanceOf(final Typeface pTypeface, final String pFontWeight, final Declaration pDeclaration) {
+    // Font variations are only supported from Oreo onwards.
+    if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+      return pTypeface;
+    }
+    // Declare the Instances of the Typeface.
+    final Instances lInstances;
+    // Synchronize upon ourself.
+    synchronized(this) {
+      lInstances = this.getInstances().get(pTypeface);
+    }
+    // Have the axes yet to be read?
+    if (lInstances == null) {
+      return null;
+    }
+    // Determine the settings of the face.
+    final String    lSettings  = RNCustomFontsVariations.getSettingsOf(lInstances.mAxes, pFontWeight, pDeclaration);
+    // Is this the default instance, or one which can't be created?
+    if (lSettings == null || lInstances.mFailures.contains(lSettings)) {
+      return pTypeface;
+    }
+    // Return the instance, if it has been created.
+    return lInstances.mTypefaces.get(lSettings);
+  }
+
+  /** Returns the instance of the Typeface decoded from the File which corresponds to the face, creating it if necessary. Fonts which aren't variable, or which can't be instantiated on this platform, return the Typeface unchanged. This reads the file, so it must only be called along the decode stage. */
+  final Typeface createInstanceOf(final File pFile, final Typeface pTypeface, final String pFontWeight, final Declaration pDeclaration) {
+    // Font variations are only supported from Oreo onwards.
+    if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+      return pTypeface;
+    }
+    // Fetch the Instances of the Typeface.
+    final Instances lInstances = this.getInstancesOf(pFile, pTypeface);
+    // Determine the settings of the face.
+    final String    lSettings  = RNCustomFontsVariations.getSettingsOf(lInstances.mAxes, pFontWeight, pDeclaration);
+    // Is this the default instance, or one which can't be created?
+    if (lSettings == null || lInstances.mFailures.contains(lSettings)) {
+      return pTypeface;
+    }
+    // Has the instance already been created?
+    final Typeface lExisting = lInstances.mTypefaces.get(lSettings);
+    if (lExisting != null) {
+      return lExisting;
+    }
+    // Declare the instance.
+    Typeface lTypeface = null;
+    try {
+      // Create the instance. (We do so outside of any lock; at worst, two callers create the same instance, and one is discarded.)
+      lTypeface = new Typeface.Builder(pFile).setFontVariationSettings(lSettings).build();
+    } catch (final RuntimeException pRuntimeException) {
+      Log.w(RNCustomFontsModule.TAG, "Unable to apply font variation settings \"" + lSettings + "\".", pRuntimeException);
+    }
+    // Were we unable to create the instance? Then we fall back to the default instance, rather than trying again for every request.
+    if (lTypeface == null) {
+      lInstances.mFailures.add(lSettings);
+      return pTypeface;
+    }
+    // Buffer the instance.
+    lInstances.mTypefaces.put(lSettings, lTypeface);
+    // Return the instance.
+    return lTypeface;
+  }
+
+  /** Returns the Instances of a Typeface, reading the axes of its File the first time it is asked for. */
+  private final Instances getInstancesOf(final File pFile, final Typeface pTypeface) {
+    // Synchronize upon ourself.
+    synchronized(this) {
+      // Have we already read the axes?
+      final Instances lInstances = this.getInstances().get(pTypeface);
+      if (lInstances != null) {
+        return lInstances;
+      }
+    }
+    // Declare the Axes.
+    Map<String, Axis> lAxes;
+    try {
+      // Read the Axes. (Fonts which are only available from the assets or a pack can't be read this way, and only use explicit settings.)
+      lAxes = RNCustomFontsVariations.readAxesOf(pFile);
+    } catch (final IOException pIOException) {
+      lAxes = Collections.<String, Axis>emptyMap();
+    }
+    // Synchronize upon ourself.
+    synchronized(this) {
+      // Did somebody else read the axes in the meantime?
+      final Instances lRacer = this.getInstances().get(pTypeface);
+      if (lRacer != null) {
+        return lRacer;
+      }
+      // Buffer the Instances.
+      final Instances lInstances = new Instances(lAxes);
+      this.getInstances().put(pTypeface, lInstances);
+      // Return the Instances.
+      return lInstances;
+    }
+  }
+
+  /* Getters. */
+  private final Map<Typeface, Instances> getInstances() {
+    return this.mInstances;
+  }
+
+}
@@ -0,0 +1,187 @@
+package io.github.cawfree.customfonts;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import android.text.TextWatcher;
+import android.view.View;
+import android.widget.TextView;
+
+import com.facebook.react.bridge.UiThreadUtil;
+
+/** Remembers which FontFamily and FontWeight each TextView was last asked to display, so that a replacement Typeface can be applied to every view which is using a face, and tracks the TextViews which are waiting on a Typeface. Views are held weakly; once a view is collected, it simply drops out. */
+final class RNCustomFontsViewRegistry {
+
+  /** Waits on behalf of a TextView, without keeping it alive. The Waiter is abandoned if the TextView is detached from its window or collected before it is settled. */
+  static abstract class Waiter extends WeakReference<TextView> implements View.OnAttachStateChangeListener {
+    /* Member Variables. */
+    private final RNCustomFontsViewRegistry mViewRegistry;
+    private final AtomicBoolean             mIsSettled;
+    /** Constructor. */
+    Waiter(final RNCustomFontsViewRegistry pViewRegistry, final TextView pTextView) {
+      // Implement the parent; we're enqueued once the TextView has been collected.
+      super(pTextView, pViewRegistry.getReferenceQueue());
+      // Initialize Member Variables.
+      this.mViewRegistry = pViewRegistry;
+      this.mIsSettled    = new AtomicBoolean(false);
+    }
+    /** Claims the right to settle the Waiter, and stops watching the TextView. Returns false if the Waiter has already been settled. */
+    final boolean settle() {
+      // Have we already been settled?
+      if (!this.mIsSettled.compareAndSet(false, true)) {
+        return false;
+      }
+      // Stop watching the TextView.
+      this.getViewRegistry().unwatch(this);
+      return true;
+    }
+    /** Defines whether the Waiter has been settled. */
+    final boolean isSettled() {
+      return this.mIsSettled.get();
+    }
+    /** Called when the TextView will never display the Typeface. Implementations must call settle() before acting. */
+    abstract void onAbandoned(final String pReason);
+    /** Called when the TextView is attached to a window. */
+    @Override public final void onViewAttachedToWindow(final View pView) { }
+    /** Called when the TextView is detached from its window. */
+    @Override public final void onViewDetachedFromWindow(final View pView) {
+      // We're no longer interested in the TextView.
+      pView.removeOnAttachStateChangeListener(this);
+      // Abandon the wait.
+      this.onAbandoned("The TextView was detached before its Typeface became ready.");
+    }
+    /* Getters. */
+    private final RNCustomFontsViewRegistry getViewRegistry() {
+      return this.mViewRegistry;
+    }
+  }
+
+  /** Returns the key which identifies a FontFamily at a FontWeight. */
+  static final String getFaceKeyOf(final String pFontFamily, final String pFontWeight) {
+    return pFontFamily + "\n" + pFontWeight;
+  }
+
+  /* Member Variables. */
+  private final Map<TextView, String>      mFaceKeys;
+  private final ReferenceQueue<TextView>   mReferenceQueue;
+  private final Map<TextView, TextWatcher> mTextWatchers;
+
+  /** Constructor. */
+  RNCustomFontsViewRegistry() {
+    // Initialize Member Variables.
+    this.mFaceKeys       = new WeakHashMap<TextView, String>();
+    this.mReferenceQueue = new ReferenceQueue<TextView>();
+    this.mTextWatchers   = new WeakHashMap<TextView, TextWatcher>();
+  }
+
+  /** Abandons every Waiter whose TextView has been collected. This is performed whenever the registry is used, so no thread is dedicated to it. */
+  final void expunge() {
+    // Iterate the collected Waiters.
+    for (Reference<? extends TextView> lReference = this.getReferenceQueue().poll(); lReference != null; lReference = this.getReferenceQueue().poll()) {
+      ((Waiter)lReference).onAbandoned("The TextView was collected before its Typeface became ready.");
+    }
+  }
+
+  /** Begins to watch the TextView of the Waiter, so that it is abandoned if the TextView is detached. */
+  final void watch(final Waiter pWaiter) {
+    // Take the opportunity to clean up.
+    this.expunge();
+    // Listeners may only be modified along the main thread.
+    UiThreadUtil.runOnUiThread(new Runnable() { @Override public final void run() {
+      // Has the Waiter already been settled?
+      if (pWaiter.isSettled()) {
+        return;
+      }
+      // Fetch the TextView.
+      final TextView lTextView = pWaiter.get();
+      // Has it already been collected or detached?
+      if (lTextView == null || lTextView.getWindowToken() == null) {
+        pWaiter.onAbandoned("The TextView was detached before its Typeface became ready.");
+        return;
+      }
+      // Listen for the TextView to be detached.
+      lTextView.addOnAttachStateChangeListener(pWaiter);
+    } });
+  }
+
+  /** Stops watching the TextView of the Waiter. */
+  private final void unwatch(final Waiter pWaiter) {
+    // Listeners may only be modified along the main thread.
+    UiThreadUtil.runOnUiThread(new Runnable() { @Override public final void run() {
+      // Fetch the TextView.
+      final TextView lTextView = pWaiter.get();
+      // Is the TextView still alive?
+      if (lTextView != null) {
+        lTextView.removeOnAttachStateChangeListener(pWaiter);
+      }
+    } });
+  }
+
+  /** Records that the TextView displays the specified face. Any face it displayed previously is forgotten, along with any watcher of its text. */
+  final void register(final TextView pTextView, final String pFaceKey) {
+    // Take the opportunity to clean up.
+    this.expunge();
+    // Synchronize upon ourself.
+    synchronized(this) {
+      this.getFaceKeys().put(pTextView, pFaceKey);
+    }
+    // The previous face may have depended upon the text; the new one will watch it again if it needs to.
+    this.watchText(pTextView, null);
+  }
+
+  /** Watches the text of the TextView, so that its Typeface can be revised if the text changes. Any watcher installed previously is removed; a null TextWatcher simply stops watching. The TextWatcher must not strongly reference the TextView. */
+  final void watchText(final TextView pTextView, final TextWatcher pTextWatcher) {
+    // Listeners may only be modified along the main thread, which is also the only thread to touch the watchers.
+    UiThreadUtil.runOnUiThread(new Runnable() { @Override public final void run() {
+      // Stop watching the previous text, if any.
+      final TextWatcher lTextWatcher = RNCustomFontsViewRegistry.this.getTextWatchers().remove(pTextView);
+      if (lTextWatcher != null) {
+        pTextView.removeTextChangedListener(lTextWatcher);
+      }
+      // Is there a new TextWatcher?
+      if (pTextWatcher != null) {
+        // Watch the text.
+        RNCustomFontsViewRegistry.this.getTextWatchers().put(pTextView, pTextWatcher);
+        pTextView.addTextChangedListener(pTextWatcher);
+      }
+    } });
+  }
+
+  /** Returns the live TextViews which display the specified face. */
+  final List<TextView> getViewsFor(final String pFaceKey) {
+    // Declare the TextViews.
+    final List<TextView> lTextViews = new ArrayList<TextView>();
+    // Synchronize upon ourself.
+    synchronized(this) {
+      // Iterate the TextViews. (Collected views have already been expunged.)
+      for (final Map.Entry<TextView, String> lEntry : this.getFaceKeys().entrySet()) {
+        // Does the TextView display the face?
+        if (pFaceKey.equals(lEntry.getValue()) && lEntry.getKey() != null) {
+          lTextViews.add(lEntry.getKey());
+        }
+      }
+    }
+    // Return the TextViews.
+    return lTextViews;
+  }
+
+  /* Getters. */
+  private final Map<TextView, String> getFaceKeys() {
+    return this.mFaceKeys;
+  }
+
+  private final ReferenceQueue<TextView> getReferenceQueue() {
+    return this.mReferenceQueue;
+  }
+
+  private final Map<TextView, TextWatcher> getTextWatchers() {
+    return this.mTextWatchers;
+  }
+
+}
@@ -0,0 +1,191 @@
+package io.github.cawfree.customfonts;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/** Converts fonts served in the WOFF container into the sfnt (TrueType/OpenType) format that Typeface understands. WOFF2 is recognised, but cannot be decoded, since it depends on Brotli; it is reported as a FormatException, so that it is counted as a decode failure rather than a network failure. */
+final class RNCustomFontsWoffDecoder {
+
+  /* Static Declarations. */
+  private static final int SIGNATURE_WOFF   = 0x774F4646; // "wOFF"
+  private static final int SIGNATURE_WOFF2  = 0x774F4632; // "wOF2"
+  private static final int WOFF_HEADER_SIZE = 44;
+  private static final int SFNT_HEADER_SIZE = 12;
+  private static final int SFNT_ENTRY_SIZE  = 16;
+
+  /** Thrown when a font is in a format we can't decode, or is malformed; unlike other IOExceptions, fetching it again won't help. */
+  static final class FormatException extends IOException {
+    /** Constructor. */
+    FormatException(final String pMessage) {
+      super(pMessage);
+    }
+  }
+
+  /** Describes a single table within a WOFF file. */
+  private static final class Table {
+    /* Member Variables. */
+    private final int  mTag;
+    private final long mOffset;
+    private final long mCompLength;
+    private final long mOrigLength;
+    private final int  mOrigChecksum;
+    /** Constructor. */
+    private Table(final int pTag, final long pOffset, final long pCompLength, final long pOrigLength, final int pOrigChecksum) {
+      // Initialize Member Variables.
+      this.mTag          = pTag;
+      this.mOffset       = pOffset;
+      this.mCompLength   = pCompLength;
+      this.mOrigLength   = pOrigLength;
+      this.mOrigChecksum = pOrigChecksum;
+    }
+  }
+
+  /** Reads the four byte signature at the beginning of the File, or returns zero if the File is too short. */
+  private static final int getSignatureOf(final File pFile) throws IOException {
+    // Open the File.
+    final RandomAccessFile lRandomAccessFile = new RandomAccessFile(pFile, "r");
+    try {
+      // Is the File large enough to hold a signature?
+      return (lRandomAccessFile.length() < 4) ? 0 : lRandomAccessFile.readInt();
+    } finally {
+      // Release the File.
+      lRandomAccessFile.close();
+    }
+  }
+
+  /** Defines whether the File uses a web font container, and must be decoded before it can be used. Throws if the container is one we are unable to decode. */
+  static final boolean isWoff(final File pFile) throws IOException {
+    // Fetch the signature.
+    final int lSignature = RNCustomFontsWoffDecoder.getSignatureOf(pFile);
+    // Is this a WOFF2 file?
+    if (lSignature == RNCustomFontsWoffDecoder.SIGNATURE_WOFF2) {
+      throw new RNCustomFontsWoffDecoder.FormatException("WOFF2 fonts are not supported, since they require Brotli; please serve \"" + pFile.getName() + "\" as WOFF, TTF or OTF.");
+    }
+    // Is this a WOFF file?
+    return lSignature == RNCustomFontsWoffDecoder.SIGNATURE_WOFF;
+  }
+
+  /** Reads an unsigned 32-bit integer. */
+  private static final long readUnsignedInt(final RandomAccessFile pRandomAccessFile) throws IOException {
+    return pRandomAccessFile.readInt() & 0xFFFFFFFFL;
+  }
+
+  /** Decodes the WOFF file at pSource into an sfnt file at pTarget. Tables are decompressed one at a time, so at most a single compressed table is held in memory. */
+  static final void decode(final File pSource, final File pTarget) throws IOException {
+    // Open the source.
+    final RandomAccessFile lRandomAccessFile = new RandomAccessFile(pSource, "r");
+    // Declare the target.
+    DataOutputStream lDataOutputStream = null;
+    try {
+      // Ensure the source is large enough to contain a header.
+      if (lRandomAccessFile.length() < RNCustomFontsWoffDecoder.WOFF_HEADER_SIZE) {
+        throw new RNCustomFontsWoffDecoder.FormatException("\"" + pSource.getName() + "\" is too short to be a WOFF file.");
+      }
+      // Read the header.
+      final int  lSignature = lRandomAccessFile.readInt();
+      final int  lFlavor    = lRandomAccessFile.readInt();
+      final long lLength    = RNCustomFontsWoffDecoder.readUnsignedInt(lRandomAccessFile);
+      final int  lNumTables = lRandomAccessFile.readUnsignedShort();
+      // Ensure the header is sane.
+      if (lSignature != RNCustomFontsWoffDecoder.SIGNATURE_WOFF || lLength != lRandomAccessFile.length() || lNumTables == 0) {
+        throw new RNCustomFontsWoffDecoder.FormatException("\"" + pSource.getName() + "\" is not a valid WOFF file.");
+      }
+      // Read the table directory, which follows the header.
+      final Table[] lTables = new Table[lNumTables];
+      lRandomAccessFile.seek(RNCustomFontsWoffDecoder.WOFF_HEADER_SIZE);
+      for (int i = 0; i < lNumTables; i += 1) {
+        // Read the table.
+        final Table lTable = new Table(
+          lRandomAccessFile.readInt(),
+          RNCustomFontsWoffDecoder.readUnsignedInt(lRandomAccessFile),
+          RNCustomFontsWoffDecoder.readUnsignedInt(lRandomAccessFile),
+          RNCustomFontsWoffDecoder.readUnsignedInt(lRandomAccessFile),
+          lRandomAccessFile.readInt()
+        );
+        // Ensure the table lies within the file, and is not larger once decompressed than it claims.
+        if (lTable.mOffset + lTable.mCompLength > lLength || lTable.mCompLength > lTable.mOrigLength || lTable.mOrigLength > Integer.MAX_VALUE) {
+          throw new RNCustomFontsWoffDecoder.FormatException("\"" + pSource.getName() + "\" contains a malformed table directory.");
+        }
+        // Buffer the table.
+        lTables[i] = lTable;
+      }
+      // Compute the binary search parameters of the sfnt table directory.
+      int lEntrySelector = 0;
+      while ((1 << (lEntrySelector + 1)) <= lNumTables) {
+        lEntrySelector += 1;
+      }
+      final int lSearchRange = (1 << lEntrySelector) * RNCustomFontsWoffDecoder.SFNT_ENTRY_SIZE;
+      // Open the target.
+      lDataOutputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(pTarget), 64 * 1024));
+      // Write the sfnt header.
+      lDataOutputStream.writeInt(lFlavor);
+      lDataOutputStream.writeShort(lNumTables);
+      lDataOutputStream.writeShort(lSearchRange);
+      lDataOutputStream.writeShort(lEntrySelector);
+      lDataOutputStream.writeShort(lNumTables * RNCustomFontsWoffDecoder.SFNT_ENTRY_SIZE - lSearchRange);
+      // Write the table directory. (WOFF requires its directory to be sorted by tag, which is the order sfnt expects too.) Tables are laid out in directory order, each padded to four bytes.
+      long lOffset = RNCustomFontsWoffDecoder.SFNT_HEADER_SIZE + ((long)lNumTables) * RNCustomFontsWoffDecoder.SFNT_ENTRY_SIZE;
+      for (final Table lTable : lTables) {
+        lDataOutputStream.writeInt(lTable.mTag);
+        lDataOutputStream.writeInt(lTable.mOrigChecksum);
+        lDataOutputStream.writeInt((int)lOffset);
+        lDataOutputStream.writeInt((int)lTable.mOrigLength);
+        lOffset += (lTable.mOrigLength + 3) & ~3L;
+      }
+      // Write the table data.
+      final byte[] lBuffer = new byte[8192];
+      for (final Table lTable : lTables) {
+        // Read the stored table.
+        final byte[] lStored = new byte[(int)lTable.mCompLength];
+        lRandomAccessFile.seek(lTable.mOffset);
+        try {
+          lRandomAccessFile.readFully(lStored);
+        } catch (final EOFException pEOFException) {
+          throw new RNCustomFontsWoffDecoder.FormatException("\"" + pSource.getName() + "\" contains a table which lies beyond the end of the file.");
+        }
+        // Tables are only compressed if that made them smaller.
+        final InputStream lInputStream = (lTable.mCompLength < lTable.mOrigLength) ? new InflaterInputStream(new ByteArrayInputStream(lStored)) : new ByteArrayInputStream(lStored);
+        // Copy the table.
+        long    lRemaining  = lTable.mOrigLength;
+        int     lCount      = 0;
+        boolean lIsOverlong = false;
+        try {
+          while (lRemaining > 0 && (lCount = lInputStream.read(lBuffer, 0, (int)Math.min(lBuffer.length, lRemaining))) > 0) {
+            lDataOutputStream.write(lBuffer, 0, lCount);
+            lRemaining -= lCount;
+          }
+          // Is there anything beyond the declared length?
+          lIsOverlong = lInputStream.read() >= 0;
+        } catch (final ZipException pZipException) {
+          // The table is not valid zlib.
+          throw new RNCustomFontsWoffDecoder.FormatException("\"" + pSource.getName() + "\" contains a table which could not be decompressed.");
+        }
+        // Did the table decompress to the length it promised?
+        if (lRemaining != 0 || lIsOverlong) {
+          throw new RNCustomFontsWoffDecoder.FormatException("\"" + pSource.getName() + "\" contains a table which does not decompress to its declared length.");
+        }
+        // Pad the table to four bytes.
+        for (long i = lTable.mOrigLength; (i & 3L) != 0; i += 1) {
+          lDataOutputStream.writeByte(0);
+        }
+      }
+      // Release the target.
+      lDataOutputStream.close();
+      lDataOutputStream = null;
+    } finally {
+      // Release the I/O dependencies.
+      if (lDataOutputStream != null) { try { lDataOutputStream.close(); } catch (final Exception pIgnoredException) { /* Ignore. */ } }
+      lRandomAccessFile.close();
+    }
+  }
+
+}
@@ -0,0 +1,425 @@
+package io.github.cawfree.customfonts;
+
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import android.content.ContextWrapper;
+
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.ReadableMap;
+
+/** Timed loops over the hot paths of the module which run on a plain JVM. Each benchmark warms up before it is measured, and its cost per operation is written to a report, "build/reports/benchmarks/RNCustomFontsBenchmarkTest.txt" by default. These are skipped unless they're asked for using "./gradlew test -Dbenchmark=true". The benchmarks don't gate anything: timings on a shared machine are too noisy to fail a build on, so the assertions only check that each path did its work. onFontFacesChanged itself can't be driven on a plain JVM, since it resolves through React Native's native maps; its download stage is measured end to end against an in-process server instead. */
+public final class RNCustomFontsBenchmarkTest {
+
+  /* Static Declarations. */
+  private static final int      NUMBER_OF_FAMILIES = 50;
+  private static final int      DOWNLOAD_SIZE      = 256 * 1024;
+  private static final String   DOWNLOAD_ETAG      = "\"v1\"";
+  private static final int      NUMBER_OF_URIS     = 1000;
+  private static final int      WARMUP_MS          = 500;
+  private static final int      MEASURE_MS         = 1000;
+  private static final int[]    STREAM_SIZES       = new int[] { 50 * 1024, 1024 * 1024, 5 * 1024 * 1024, 20 * 1024 * 1024 };
+  private static final String[] FONT_WEIGHTS       = new String[] { "300", "400", "700", "900" };
+
+  /** An operation to be timed. */
+  private interface Operation {
+    /** Performs the operation once, and returns a value which depends on its result. */
+    long run() throws Exception;
+  }
+
+  /* Test Fixtures. */
+  private static File                             sDirectory;
+  private static ContextWrapper                   sContext;
+  private static List<ReadableMap>                sFontFaces;
+  private static Map<String, Map<String, String>> sFontFamilies;
+  private static String[]                         sUris;
+  private static long                             sSink;
+  private static StringBuilder                    sReport;
+
+  /** Repeatedly performs the Operation for the specified duration, and returns the number of nanoseconds each took on average. */
+  private static final double timeOf(final Operation pOperation, final long pDurationMs) throws Exception {
+    // Fetch the time at which we began.
+    final long lStartedAt = System.nanoTime();
+    final long lDeadline  = lStartedAt + pDurationMs * 1000000L;
+    // Track the number of operations.
+          long lCount     = 0L;
+    // Perform the Operation until we run out of time.
+    do {
+      // Accumulate the result, so that the Operation can't be discarded.
+      RNCustomFontsBenchmarkTest.sSink += pOperation.run();
+      lCount += 1;
+    } while (System.nanoTime() < lDeadline);
+    // Return the average duration.
+    return (double)(System.nanoTime() - lStartedAt) / lCount;
+  }
+
+  /** Warms up and then measures the Operation, reporting the result under the specified name. */
+  private static final double measure(final String pName, final Operation pOperation) throws Exception {
+    // Allow the JIT to compile the Operation.
+    RNCustomFontsBenchmarkTest.timeOf(pOperation, RNCustomFontsBenchmarkTest.WARMUP_MS);
+    // Measure the Operation.
+    final double lNanos = RNCustomFontsBenchmarkTest.timeOf(pOperation, RNCustomFontsBenchmarkTest.MEASURE_MS);
+    // Report the result.
+    RNCustomFontsBenchmarkTest.report(String.format("%-48s %14.1f ns/op", pName, lNanos));
+    // Return the result.
+    return lNanos;
+  }
+
+  /** Appends a line to the report. */
+  private static final void report(final String pLine) {
+    RNCustomFontsBenchmarkTest.sReport.append(pLine).append('\n');
+  }
+
+  /** Allocates a FontFace declaration. */
+  private static final ReadableMap createFontFace(final String pFontFamily, final String pFontWeight, final String pUri) {
+    return JavaOnlyMap.of("fontFamily", pFontFamily, "fontWeight", pFontWeight, "uri", pUri);
+  }
+
+  @BeforeClass
+  public static final void setUp() throws Exception {
+    // Only run when asked to; these take tens of seconds and write tens of megabytes.
+    Assume.assumeTrue("Benchmarks are only run with -Dbenchmark=true.", Boolean.getBoolean("benchmark"));
+    // Allocate the report.
+    RNCustomFontsBenchmarkTest.sReport = new StringBuilder();
+    // Allocate a scratch directory for the cache.
+    RNCustomFontsBenchmarkTest.sDirectory = File.createTempFile("RNCustomFonts", "");
+    RNCustomFontsBenchmarkTest.sDirectory.delete();
+    RNCustomFontsBenchmarkTest.sDirectory.mkdirs();
+    // Allocate a Context which only knows where its files live.
+    RNCustomFontsBenchmarkTest.sContext = new ContextWrapper(null) {
+      @Override public final File getFilesDir() {
+        return RNCustomFontsBenchmarkTest.sDirectory;
+      }
+    };
+    // Declare the uris we'll resolve.
+    RNCustomFontsBenchmarkTest.sUris = new String[RNCustomFontsBenchmarkTest.NUMBER_OF_URIS];
+    for (int i = 0; i < RNCustomFontsBenchmarkTest.NUMBER_OF_URIS; i += 1) {
+      RNCustomFontsBenchmarkTest.sUris[i] = "https://fonts.example.com/s/family" + (i / RNCustomFontsBenchmarkTest.FONT_WEIGHTS.length) + "/v1/face" + i + ".ttf?display=swap";
+    }
+    // Declare a typical fontFaces prop; every family declares each of the weights.
+    RNCustomFontsBenchmarkTest.sFontFaces = new ArrayList<ReadableMap>();
+    for (int i = 0; i < RNCustomFontsBenchmarkTest.NUMBER_OF_FAMILIES * RNCustomFontsBenchmarkTest.FONT_WEIGHTS.length; i += 1) {
+      RNCustomFontsBenchmarkTest.sFontFaces.add(
+        RNCustomFontsBenchmarkTest.createFontFace(
+          "Family" + (i / RNCustomFontsBenchmarkTest.FONT_WEIGHTS.length),
+          RNCustomFontsBenchmarkTest.FONT_WEIGHTS[i % RNCustomFontsBenchmarkTest.FONT_WEIGHTS.length],
+          RNCustomFontsBenchmarkTest.sUris[i]
+        )
+      );
+    }
+    // Build the FontFamilies once, for the lookups.
+    RNCustomFontsBenchmarkTest.sFontFamilies = RNCustomFontsModule.getFontFamilies(RNCustomFontsBenchmarkTest.sFontFaces);
+  }
+
+  @AfterClass
+  public static final void tearDown() throws IOException {
+    // Were the benchmarks skipped?
+    if (RNCustomFontsBenchmarkTest.sDirectory == null) {
+      return;
+    }
+    // Fetch the files we've written.
+    final File[] lFiles = RNCustomFontsBenchmarkTest.sDirectory.listFiles();
+    // Delete them.
+    if (lFiles != null) {
+      for (final File lFile : lFiles) {
+        lFile.delete();
+      }
+    }
+    // Delete the directory.
+    RNCustomFontsBenchmarkTest.sDirectory.delete();
+    // Prevent the results from being discarded.
+    RNCustomFontsBenchmarkTest.report("(sink " + RNCustomFontsBenchmarkTest.sSink + ")");
+    // Write the report.
+    final File             lReport           = new File(System.getProperty("benchmark.report", "build/reports/benchmarks/RNCustomFontsBenchmarkTest.txt"));
+    lReport.getAbsoluteFile().getParentFile().mkdirs();
+    final FileOutputStream lFileOutputStream = new FileOutputStream(lReport);
+    try {
+      lFileOutputStream.write(RNCustomFontsBenchmarkTest.sReport.toString().getBytes("UTF-8"));
+    } finally {
+      lFileOutputStream.close();
+    }
+  }
+
+  @Test
+  public final void benchmarkGetCustomFontFile() throws Exception {
+    // Ensure the lookup resolves.
+    assertNotNull(RNCustomFontsModule.getCustomFontFile(RNCustomFontsBenchmarkTest.sContext, RNCustomFontsBenchmarkTest.sUris[0]));
+    // Measure the lookup across distinct uris, so that nothing is served by a cache.
+    RNCustomFontsBenchmarkTest.measure("getCustomFontFile", new Operation() {
+      private int i = 0;
+      @Override public final long run() throws Exception {
+        this.i = (this.i + 1) % RNCustomFontsBenchmarkTest.NUMBER_OF_URIS;
+        return RNCustomFontsModule.getCustomFontFile(RNCustomFontsBenchmarkTest.sContext, RNCustomFontsBenchmarkTest.sUris[this.i]).getPath().length();
+      }
+    });
+  }
+
+  @Test
+  public final void benchmarkGetUriFor() throws Exception {
+    // Ensure the lookup resolves.
+    assertEquals(RNCustomFontsBenchmarkTest.sUris[1], RNCustomFontsModule.getUriFor(RNCustomFontsBenchmarkTest.sFontFamilies, "Family0", "400"));
+    // Measure the lookup across every declared face.
+    RNCustomFontsBenchmarkTest.measure("getUriFor", new Operation() {
+      private int i = 0;
+      @Override public final long run() {
+        this.i = (this.i + 1) % RNCustomFontsBenchmarkTest.sFontFaces.size();
+        return RNCustomFontsModule.getUriFor(
+          RNCustomFontsBenchmarkTest.sFontFamilies,
+          "Family" + (this.i / RNCustomFontsBenchmarkTest.FONT_WEIGHTS.length),
+          RNCustomFontsBenchmarkTest.FONT_WEIGHTS[this.i % RNCustomFontsBenchmarkTest.FONT_WEIGHTS.length]
+        ).length();
+      }
+    });
+  }
+
+  @Test
+  public final void benchmarkGetFontFamilies() throws Exception {
+    // Ensure every family is built.
+    assertEquals(RNCustomFontsBenchmarkTest.NUMBER_OF_FAMILIES, RNCustomFontsModule.getFontFamilies(RNCustomFontsBenchmarkTest.sFontFaces).size());
+    // Measure a complete rebuild, as happens whenever the fontFaces prop changes.
+    RNCustomFontsBenchmarkTest.measure("getFontFamilies (" + RNCustomFontsBenchmarkTest.sFontFaces.size() + " faces)", new Operation() {
+      @Override public final long run() {
+        return RNCustomFontsModule.getFontFamilies(RNCustomFontsBenchmarkTest.sFontFaces).size();
+      }
+    });
+  }
+
+  @Test
+  public final void benchmarkChannelStreams() throws Exception {
+    // Allocate the pool, as the module would for a single download.
+    final RNCustomFontsBufferPool lBufferPool = new RNCustomFontsBufferPool(RNCustomFontsBufferPool.DEFAULT_BUFFER_SIZE, 1);
+    // Declare the destination.
+    final File                    lTarget     = new File(RNCustomFontsBenchmarkTest.sDirectory, "target.ttf");
+    // Iterate the sizes.
+    for (final int lSize : RNCustomFontsBenchmarkTest.STREAM_SIZES) {
+      // Allocate the content. (Fonts don't compress well, so random data is representative.)
+      final byte[] lBytes  = new byte[lSize];
+      new Random(lSize).nextBytes(lBytes);
+      // Write the content to a file, so that we can measure the kernel transfer too.
+      final File   lSource = new File(RNCustomFontsBenchmarkTest.sDirectory, "source-" + lSize + ".ttf");
+      final FileOutputStream lFileOutputStream = new FileOutputStream(lSource);
+      try {
+        lFileOutputStream.write(lBytes);
+      } finally {
+        lFileOutputStream.close();
+      }
+      // Measure a stream source, which is how a network response arrives.
+      final double lStreamNanos         = RNCustomFontsBenchmarkTest.measure("channelStreams (stream, " + (lSize / 1024) + " KB)", new Operation() {
+        @Override public final long run() throws Exception {
+          return RNCustomFontsBenchmarkTest.channel(new ByteArrayInputStream(lBytes), lTarget, lBufferPool, lSize);
+        }
+      });
+      // Measure the loop it replaced, from the same source.
+      final double lBaselineStreamNanos = RNCustomFontsBenchmarkTest.measure("byte[1024] loop (stream, " + (lSize / 1024) + " KB)", new Operation() {
+        @Override public final long run() throws Exception {
+          return RNCustomFontsBenchmarkTest.channelBaseline(new ByteArrayInputStream(lBytes), lTarget, lSize);
+        }
+      });
+      // Measure a file source, which is how a local font is copied.
+      final double lFileNanos           = RNCustomFontsBenchmarkTest.measure("channelStreams (file, " + (lSize / 1024) + " KB)", new Operation() {
+        @Override public final long run() throws Exception {
+          return RNCustomFontsBenchmarkTest.channel(new FileInputStream(lSource), lTarget, lBufferPool, lSize);
+        }
+      });
+      // Measure the loop it replaced, from the same source.
+      final double lBaselineFileNanos   = RNCustomFontsBenchmarkTest.measure("byte[1024] loop (file, " + (lSize / 1024) + " KB)", new Operation() {
+        @Override public final long run() throws Exception {
+          return RNCustomFontsBenchmarkTest.channelBaseline(new FileInputStream(lSource), lTarget, lSize);
+        }
+      });
+      // Report the throughput of each, and the speed-up over the loop.
+      RNCustomFontsBenchmarkTest.report(String.format("%-48s %14.1f MB/s (stream), %.1f MB/s (file)", "channelStreams (" + (lSize / 1024) + " KB)", lSize / (lStreamNanos / 1000.0), lSize / (lFileNanos / 1000.0)));
+      RNCustomFontsBenchmarkTest.report(String.format("%-48s %14.1f MB/s (stream), %.1f MB/s (file)", "byte[1024] loop (" + (lSize / 1024) + " KB)", lSize / (lBaselineStreamNanos / 1000.0), lSize / (lBaselineFileNanos / 1000.0)));
+      RNCustomFontsBenchmarkTest.report(String.format("%-48s %14.2fx (stream), %.2fx (file)", "speed-up (" + (lSize / 1024) + " KB)", lBaselineStreamNanos / lStreamNanos, lBaselineFileNanos / lFileNanos));
+      // Release the source.
+      lSource.delete();
+    }
+  }
+
+  @Test
+  public final void benchmarkDiffFontFaces() throws Exception {
+    // Fetch the signatures of the previous call, as onFontFacesChanged remembers them.
+    final Set<String> lPrevious = new HashSet<String>();
+    for (final ReadableMap lFontFace : RNCustomFontsBenchmarkTest.sFontFaces) {
+      lPrevious.add(RNCustomFontsModule.getSignatureOf(lFontFace));
+    }
+    // Ensure every face is distinguished.
+    assertEquals(RNCustomFontsBenchmarkTest.sFontFaces.size(), lPrevious.size());
+    // Measure the diff of an unchanged fontFaces prop, which is how a re-render of the Provider arrives.
+    RNCustomFontsBenchmarkTest.measure("diff fontFaces (" + RNCustomFontsBenchmarkTest.sFontFaces.size() + " faces)", new Operation() {
+      @Override public final long run() {
+        long lUnchanged = 0L;
+        for (final ReadableMap lFontFace : RNCustomFontsBenchmarkTest.sFontFaces) {
+          lUnchanged += lPrevious.contains(RNCustomFontsModule.getSignatureOf(lFontFace)) ? 1L : 0L;
+        }
+        return lUnchanged;
+      }
+    });
+  }
+
+  @Test
+  public final void benchmarkDownload() throws Exception {
+    // Allocate the content of the font.
+    final byte[] lBytes = new byte[RNCustomFontsBenchmarkTest.DOWNLOAD_SIZE];
+    new Random(lBytes.length).nextBytes(lBytes);
+    // Serve the font; a request which holds the current validator is told it hasn't been modified.
+    final HttpServer lHttpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    lHttpServer.createContext("/font.ttf", new HttpHandler() {
+      @Override public final void handle(final HttpExchange pHttpExchange) throws IOException {
+        // Drain the request.
+        pHttpExchange.getRequestBody().close();
+        // Is the client's copy current?
+        if (RNCustomFontsBenchmarkTest.DOWNLOAD_ETAG.equals(pHttpExchange.getRequestHeaders().getFirst("If-None-Match"))) {
+          pHttpExchange.sendResponseHeaders(304, -1);
+          pHttpExchange.close();
+          return;
+        }
+        // Send the font.
+        pHttpExchange.getResponseHeaders().set("ETag", RNCustomFontsBenchmarkTest.DOWNLOAD_ETAG);
+        pHttpExchange.getResponseHeaders().set("Content-Type", "font/ttf");
+        pHttpExchange.sendResponseHeaders(200, lBytes.length);
+        final OutputStream lOutputStream = pHttpExchange.getResponseBody();
+        lOutputStream.write(lBytes);
+        lOutputStream.close();
+      }
+    });
+    lHttpServer.start();
+    // Allocate the download stage, as the module would.
+    final RNCustomFontsDownloadEngine lDownloadEngine = new RNCustomFontsDownloadEngine(4, 2, 64);
+    final RNCustomFontsCacheManifest  lCacheManifest  = RNCustomFontsCacheManifest.load(RNCustomFontsBenchmarkTest.sDirectory);
+    final RNCustomFontsBufferPool     lBufferPool     = new RNCustomFontsBufferPool(RNCustomFontsBufferPool.DEFAULT_BUFFER_SIZE, 4);
+    final RNCustomFontsHttpClient     lHttpClient     = new RNCustomFontsHttpClient();
+    final String                      lUri            = "http://127.0.0.1:" + lHttpServer.getAddress().getPort() + "/font.ttf";
+    final File                        lFile           = new File(RNCustomFontsBenchmarkTest.sDirectory, "download.ttf");
+    try {
+      // Measure a cold download, which is how a font arrives the first time it's used.
+      RNCustomFontsBenchmarkTest.measure("download (cold, " + (lBytes.length / 1024) + " KB)", new Operation() {
+        @Override public final long run() throws Exception {
+          // Forget the previous copy.
+          lFile.delete();
+          // Download the font.
+          assertTrue(RNCustomFontsBenchmarkTest.download(lDownloadEngine, lCacheManifest, lBufferPool, lHttpClient, lUri, lFile, null));
+          // Ensure all of it arrived.
+          assertEquals(lBytes.length, lFile.length());
+          return lFile.length();
+        }
+      });
+      // Declare the copy we already hold.
+      final RNCustomFontsCacheManifest.Entry lEntry = new RNCustomFontsCacheManifest.Entry(lUri, lBytes.length, System.currentTimeMillis(), RNCustomFontsBenchmarkTest.DOWNLOAD_ETAG, null, 0L, null);
+      // Measure a revalidation, which is how a stale font is refreshed.
+      RNCustomFontsBenchmarkTest.measure("download (revalidation, 304)", new Operation() {
+        @Override public final long run() throws Exception {
+          assertFalse(RNCustomFontsBenchmarkTest.download(lDownloadEngine, lCacheManifest, lBufferPool, lHttpClient, lUri, lFile, lEntry));
+          return 1L;
+        }
+      });
+    } finally {
+      // Release the download stage.
+      lDownloadEngine.shutdown();
+      lHttpServer.stop(0);
+    }
+  }
+
+  /** Downloads the uri to the File along the download stage, waiting for it to finish. Returns whether the content was modified. */
+  private static final boolean download(final RNCustomFontsDownloadEngine pDownloadEngine, final RNCustomFontsCacheManifest pCacheManifest, final RNCustomFontsBufferPool pBufferPool, final RNCustomFontsHttpClient pHttpClient, final String pUri, final File pFile, final RNCustomFontsCacheManifest.Entry pEntry) throws Exception {
+    // Declare the outcome.
+    final CountDownLatch lCountDownLatch = new CountDownLatch(1);
+    final boolean[]      lIsModified     = new boolean[1];
+    final Exception[]    lException      = new Exception[1];
+    // Download the file.
+    RNCustomFontsModule.downloadFileTo(pDownloadEngine, pCacheManifest, pBufferPool, pHttpClient, RNCustomFontsLoadPolicy.getDefault(), pUri, pFile, pEntry, new RNCustomFontsModule.ICallback<RNCustomFontsModule.DownloadResult>() {
+      @Override public final void onSuccess(final RNCustomFontsModule.DownloadResult pDownloadResult) {
+        lIsModified[0] = pDownloadResult.isModified();
+        lCountDownLatch.countDown();
+      }
+      @Override public final void onFailure(final Exception pException) {
+        lException[0] = pException;
+        lCountDownLatch.countDown();
+      }
+    });
+    // Wait for the download.
+    assertTrue(lCountDownLatch.await(30, TimeUnit.SECONDS));
+    // Did the download fail?
+    if (lException[0] != null) {
+      throw lException[0];
+    }
+    // Return whether the content was modified.
+    return lIsModified[0];
+  }
+
+  /** Copies the InputStream into a fresh copy of the target using the loop channelStreams replaced, and returns the number of bytes written. */
+  private static final long channelBaseline(final InputStream pInputStream, final File pTarget, final int pExpectedSize) throws Exception {
+    // Allocate the destination. (This truncates the previous copy.)
+    final FileOutputStream lFileOutputStream = new FileOutputStream(pTarget);
+    try {
+      // Declare the read buffer.
+      final byte[] lBytes         = new byte[1024];
+      // Allocate a variable to track how many bytes we read.
+            int    lNumberOfBytes = 0;
+            long   lCount         = 0L;
+      // Iteratively read the streams.
+      while ((lNumberOfBytes = pInputStream.read(lBytes)) != -1) {
+        // Write the data to the OutputStream.
+        lFileOutputStream.write(lBytes, 0, lNumberOfBytes);
+        lCount += lNumberOfBytes;
+      }
+      // Ensure all of the bytes are written.
+      lFileOutputStream.flush();
+      // Ensure everything was written.
+      assertEquals(pExpectedSize, lCount);
+      // Return the number of bytes written.
+      return lCount;
+    } finally {
+      // Release the I/O dependencies.
+      pInputStream.close();
+      lFileOutputStream.close();
+    }
+  }
+
+  /** Channels the InputStream into a fresh copy of the target, and returns the number of bytes written. */
+  private static final long channel(final InputStream pInputStream, final File pTarget, final RNCustomFontsBufferPool pBufferPool, final int pExpectedSize) throws Exception {
+    // Allocate the destination. (This truncates the previous copy.)
+    final FileOutputStream lFileOutputStream = new FileOutputStream(pTarget);
+    try {
+      // Channel the streams.
+      final long lCount = RNCustomFontsModule.channelStreams(pInputStream, lFileOutputStream, pBufferPool);
+      // Ensure everything was written.
+      assertEquals(pExpectedSize, lCount);
+      // Return the number of bytes written.
+      return lCount;
+    } finally {
+      // Release the I/O dependencies.
+      pInputStream.close();
+      lFileOutputStream.close();
+    }
+  }
+
+}
@@ -12,11 +12,10 @@ RCT_EXPORT_MODULE()
 
 RCT_EXPORT_METHOD(
   onFontFacesChanged:(NSArray *)readableArray
+  options:(NSDictionary *)options
   resolve:(RCTPromiseResolveBlock)resolve
   reject:(RCTPromiseRejectBlock)reject)
 {
-    // Allocate a Dictionary.
-    const NSMutableDictionary* response = [[NSMutableDictionary alloc]initWithCapacity:10];
     // Get the valid faces.
     const NSArray* validFaces = [self getValidFontFaces:readableArray];
     // Iterate the array.
@@ -34,8 +33,13 @@ RCT_EXPORT_METHOD(
         // Attempt to load the font file.
         [self loadFontFile:path];
     }
+    // Declare the status of each FontFace, in the order they were supplied. (Fonts are loaded synchronously, so valid faces are always ready.)
+    NSMutableArray* statuses = [[NSMutableArray alloc] initWithCapacity:[readableArray count]];
+    for (int i = 0; i < [readableArray count]; i += 1) {
+        [statuses addObject:([validFaces containsObject:readableArray[i]] ? @"ready" : @"failed")];
+    }
     // Resolve to the caller.
-    resolve(response);
+    resolve(@{@"statuses": statuses});
 }
 
 RCT_EXPORT_METHOD(
@@ -49,6 +53,44 @@ RCT_EXPORT_METHOD(
     resolve(@{});
 }
 
+RCT_EXPORT_BLOCKING_SYNCHRONOUS_METHOD(
+  onRequestFontFamilySync:(nonnull NSNumber *)viewHandle
+  fontFamily:(NSString *)fontFamily
+  fontWeight:(NSString *)fontWeight)
+{
+    // Fonts are applied through the style prop; this method is only useful for Android only.
+    return @YES;
+}
+
+RCT_EXPORT_METHOD(
+  onRequestFontFamilies:(NSArray *)requests
+  resolve:(RCTPromiseResolveBlock)resolve
+  reject:(RCTPromiseRejectBlock)reject)
+{
+    // Declare the outcome of each request.
+    NSMutableArray* errors = [[NSMutableArray alloc] initWithCapacity:[requests count]];
+    // Every request succeeds; this method is only useful for Android only.
+    for (int i = 0; i < [requests count]; i += 1) {
+        [errors addObject:[NSNull null]];
+    }
+    // Resolve to the caller.
+    resolve(errors);
+}
+
+RCT_EXPORT_METHOD(
+  getMetrics:(RCTPromiseResolveBlock)resolve
+  reject:(RCTPromiseRejectBlock)reject)
+{
+    // Metrics are only collected on Android.
+    resolve(@{});
+}
+
+RCT_EXPORT_METHOD(
+  setMetricsInterval:(double)interval)
+{
+    // Metrics are only collected on Android.
+}
+
 - (NSArray*) getValidFontFaces:(NSArray *)fontFaces
 {
     // Declare the array of valid faces.
@@ -1,7 +1,7 @@
-import React, {useContext, useEffect, useState, useRef} from "react";
+import React, {useContext, useEffect, useLayoutEffect, useState, useRef} from "react";
 import PropTypes from "prop-types";
 import {typeCheck} from "type-check";
-import {Platform, findNodeHandle, NativeModules} from "react-native";
+import {Platform, findNodeHandle, NativeModules, DeviceEventEmitter} from "react-native";
 
 const {RNCustomFonts} = NativeModules;
 
@@ -38,9 +38,12 @@ const defaultFallback = Object.freeze({
   fontWeight: modulateFontWeight('normal'),
 });
 
+const defaultStatuses = Object.freeze({});
+
 const defaultContext = Object.freeze({
   fontFaces: defaultFontFaces,
   fallback: defaultFallback,
+  statuses: defaultStatuses,
 });
 
 const CustomFontsContext = React.createContext(defaultContext);
@@ -61,7 +64,20 @@ const sanitizeFontFaces = (fontFaces = {}) => Object
       ),
   );
 
-const CustomFontsProvider = ({ children, fontFaces, fallback, onDownloadDidStart, onDownloadDidEnd, onDownloadDidError, ...extraProps }) => {
+const defaultCachePolicy = Object.freeze({});
+
+const defaultLoadPolicy = Object.freeze({});
+
+const defaultFontFallbacks = Object.freeze({});
+
+// XXX: Statuses are reported in the order the fontFaces were supplied.
+const getStatusesByName = (fontFaces, {statuses = []} = {}) => Object
+  .fromEntries(
+    Object.keys(fontFaces)
+      .map((k, i) => [k, statuses[i] || 'pending']),
+  );
+
+const CustomFontsProvider = ({ children, fontFaces, fallback, cachePolicy, loadPolicy, fontFallbacks, onDownloadDidStart, onDownloadDidEnd, onDownloadDidError, ...extraProps }) => {
   const [state, setState] = useState(defaultContext);
   useEffect(
     () => {
@@ -71,8 +87,12 @@ const CustomFontsProvider = ({ children, fontFaces, fallback, onDownloadDidStart
       });
       onDownloadDidStart();
       return RNCustomFonts
-        .onFontFacesChanged(Object.values(nextState.fontFaces))
-        .then(() => setState(nextState))
+        .onFontFacesChanged(Object.values(nextState.fontFaces), {cachePolicy, loadPolicy, fontFallbacks})
+        .then((result) => {
+          const statuses = Object.freeze(getStatusesByName(nextState.fontFaces, result));
+          setState(Object.freeze({...nextState, statuses}));
+          return statuses;
+        })
         .then(onDownloadDidEnd)
         .catch(
           (e) => {
@@ -84,7 +104,7 @@ const CustomFontsProvider = ({ children, fontFaces, fallback, onDownloadDidStart
           },
         ) && undefined;
     },
-    [fontFaces, onDownloadDidStart, onDownloadDidEnd, onDownloadDidError, fallback, setState],
+    [fontFaces, onDownloadDidStart, onDownloadDidEnd, onDownloadDidError, fallback, cachePolicy, loadPolicy, fontFallbacks, setState],
   );
   return (
     <CustomFontsContext.Provider
@@ -94,8 +114,16 @@ const CustomFontsProvider = ({ children, fontFaces, fallback, onDownloadDidStart
   );
 };
 
-const getSafeCustomStyle = ({uri, fontFamily, fontWeight, ...extras}) => {
-  if (Platform.OS === 'ios') {
+// XXX: On Android, the regular and bold faces of a family are registered with the ReactFontManager,
+//      so they can be selected by style alone. Subsets depend upon the text they render.
+const registeredFontWeights = Object.freeze(['normal', 'bold', '400', '700']);
+
+const isRegisteredFontFace = ({fontWeight, unicodeRange}) => Platform.OS === 'ios' || (
+  !unicodeRange && registeredFontWeights.indexOf(fontWeight) >= 0
+);
+
+const getSafeCustomStyle = ({uri, fontFamily, fontWeight, unicodeRange, fontVariationSettings, fontStretch, ...extras}) => {
+  if (isRegisteredFontFace({fontWeight, unicodeRange})) {
     return {
       fontFamily,
       fontWeight,
@@ -107,41 +135,108 @@ const getSafeCustomStyle = ({uri, fontFamily, fontWeight, ...extras}) => {
   return extras;
 };
 
+// XXX: Requests made during the same render are queued and sent across the bridge in a single call.
+const pendingRequests = [];
+
+const flushPendingRequests = () => {
+  const requests = pendingRequests.splice(0, pendingRequests.length);
+  return RNCustomFonts
+    .onRequestFontFamilies(
+      requests.map(({viewHandle, fontFamily, fontWeight}) => ({viewHandle, fontFamily, fontWeight})),
+    )
+    .then(
+      errors => requests.forEach(
+        ({resolve, reject}, i) => (errors[i] ? reject(new Error(errors[i])) : resolve()),
+      ),
+    )
+    .catch(e => requests.forEach(({reject}) => reject(e)));
+};
+
+const requestFontFamily = (viewHandle, fontFamily, fontWeight) => {
+  if (Platform.OS === 'ios') {
+    // XXX: iOS applies fonts through the style prop alone.
+    return Promise.resolve();
+  }
+  return new Promise(
+    (resolve, reject) => {
+      if (pendingRequests.push({viewHandle, fontFamily, fontWeight, resolve, reject}) === 1) {
+        setTimeout(flushPendingRequests, 0);
+      }
+    },
+  );
+};
+
+// XXX: Synchronously applies a face which is already cached, in the same frame as the view which uses it.
+//      Returns false when the face must be requested asynchronously instead.
+const requestFontFamilySync = (viewHandle, fontFamily, fontWeight) => {
+  if (Platform.OS === 'ios') {
+    return true;
+  }
+  try {
+    return RNCustomFonts.onRequestFontFamilySync(viewHandle, fontFamily, fontWeight) === true;
+  } catch (e) {
+    // XXX: Synchronous methods are unavailable whilst remote debugging.
+    return false;
+  }
+};
+
 export const useCustomFont = (name, ref = undefined) => {
   const context = useContext(CustomFontsContext);
-  const [style, setStyle] = useState(fallback);
 
   // XXX: Evaluate fonts.
-  const {fontFaces, fallback} = context;
+  const {fontFaces, fallback, statuses} = context;
   const {[name]: fontFace} = fontFaces;
   const hasCustomFontFace = typeCheck("Object", fontFace);
 
+  // XXX: Registered faces which are already ready are styled from the very first frame.
+  const [style, setStyle] = useState(
+    () => ((hasCustomFontFace && isRegisteredFontFace(fontFace) && statuses[name] === 'ready') ? getSafeCustomStyle(fontFace) : fallback),
+  );
+
   // XXX: Evaluate refs.
   const localRef = useRef();
   const resolvedRef = ref || localRef;
 
-  useEffect(
+  // XXX: Layout effects run before the commit is painted, so a face which is applied synchronously
+  //      (and the style update which follows it) lands in the same UI batch that mounts the view.
+  useLayoutEffect(
     () => {
       if (hasCustomFontFace) {
         const {fontFamily, fontWeight} = fontFace;
-        return RNCustomFonts
-          .onRequestFontFamily(
-            findNodeHandle(resolvedRef.current),
+        // XXX: Registered faces which are ready resolve natively, without a call per view.
+        if (isRegisteredFontFace(fontFace) && statuses[name] === 'ready') {
+          setStyle(getSafeCustomStyle(fontFace));
+          return undefined;
+        }
+        const viewHandle = findNodeHandle(resolvedRef.current);
+        if (requestFontFamilySync(viewHandle, fontFamily, fontWeight)) {
+          setStyle(getSafeCustomStyle(fontFace));
+          return undefined;
+        }
+        // XXX: Native abandons requests for views which are unmounted before their font is ready.
+        let isCancelled = false;
+        requestFontFamily(
+            viewHandle,
             fontFamily,
             fontWeight,
           )
-          .then(() => setStyle(getSafeCustomStyle(fontFace)))
+          .then(() => !isCancelled && setStyle(getSafeCustomStyle(fontFace)))
           .catch(
             (e) => {
-              console.error(e);
-              setStyle(fallback);
+              if (!isCancelled) {
+                console.error(e);
+                setStyle(fallback);
+              }
             },
-          )&& undefined;
+          );
+        return () => {
+          isCancelled = true;
+        };
       }
       setStyle(fallback);
       return undefined;
     },
-    [resolvedRef, fallback, name, fontFaces, fontFace, hasCustomFontFace, setStyle],
+    [resolvedRef, fallback, name, fontFaces, statuses, fontFace, hasCustomFontFace, setStyle],
   );
 
   return {
@@ -153,6 +248,18 @@ export const useCustomFont = (name, ref = undefined) => {
 CustomFontsProvider.propTypes = {
   fontFaces: PropTypes.shape({}),
   fallback: PropTypes.shape({}),
+  cachePolicy: PropTypes.shape({
+    maxAge: PropTypes.number,
+    maxStale: PropTypes.number,
+    maxMemoryBytes: PropTypes.number,
+    maxDiskBytes: PropTypes.number,
+  }),
+  loadPolicy: PropTypes.shape({
+    deadline: PropTypes.number,
+    connectTimeout: PropTypes.number,
+    readTimeout: PropTypes.number,
+  }),
+  fontFallbacks: PropTypes.objectOf(PropTypes.arrayOf(PropTypes.string)),
   onDownloadDidStart: PropTypes.func,
   onDownloadDidEnd: PropTypes.func,
   onDownloadDidError: PropTypes.func,
@@ -161,9 +268,23 @@ CustomFontsProvider.propTypes = {
 CustomFontsProvider.defaultProps = {
   fontFaces: defaultFontFaces,
   fallback: defaultFallback,
+  cachePolicy: defaultCachePolicy,
+  loadPolicy: defaultLoadPolicy,
+  fontFallbacks: defaultFontFallbacks,
   onDownloadDidStart: () => null,
   onDownloadDidEnd: () => null,
   onDownloadDidError: () => null,
 };
 
+export const getMetrics = () => RNCustomFonts.getMetrics();
+
+export const onMetrics = (callback, interval = 5000) => {
+  const subscription = DeviceEventEmitter.addListener('RNCustomFontsMetrics', callback);
+  RNCustomFonts.setMetricsInterval(interval);
+  return () => {
+    subscription.remove();
+    RNCustomFonts.setMetricsInterval(0);
+  };
+};
+
 export default CustomFontsProvider;